@@ -11,12 +11,8 @@ import java.util.*;
  * @author Ricky Leung & Boya Li
  */
 public class ClockConfig implements Configuration {
-    /** Max number of hours on the clock */
-    private final int HOURS;
-    /** The original start hour of the clock */
-    private final int START;
-    /** The end goal of the clock */
-    private final int END;
+    /** The constant parts of the puzzle, shared by every configuration */
+    private final ClockContext context;
     /** The current hour of the clock */
     private int current;
 
@@ -29,9 +25,18 @@ public class ClockConfig implements Configuration {
      * @param current Current hour of the clock
      */
     public ClockConfig(int HOURS, int START, int END, int current) {
-        this.HOURS = HOURS;
-        this.START = START;
-        this.END = END;
+        this(new ClockContext(HOURS, START, END), current);
+    }
+
+    /**
+     * Constructor for a Clock Configuration that shares the context of
+     * another configuration
+     *
+     * @param context The constant parts of the puzzle
+     * @param current Current hour of the clock
+     */
+    public ClockConfig(ClockContext context, int current) {
+        this.context = context;
         this.current = current;
     }
 
@@ -44,7 +49,19 @@ public class ClockConfig implements Configuration {
      */
     @Override
     public boolean isSolution() {
-        return END == current;
+        return context.getEnd() == current;
+    }
+
+    /**
+     * Estimates the moves to the end goal as the number of hours between
+     * the current hour and the end, going whichever way around is shorter
+     *
+     * @return Exact number of moves to the end goal
+     */
+    @Override
+    public int estimate() {
+        int forward = Math.floorMod(context.getEnd() - current, context.getHours());
+        return Math.min(forward, context.getHours() - forward);
     }
 
     /**
@@ -57,24 +74,26 @@ public class ClockConfig implements Configuration {
      */
     @Override
     public Collection<Configuration> getNeighbors() {
+        int hours = context.getHours();
         int left = current - 1;
         int right = current + 1;
         ArrayList<Configuration> result = new ArrayList<>();
         if (left == 0) {
-            left = HOURS;
+            left = hours;
         }
-        if (right == HOURS + 1) {
+        if (right == hours + 1) {
             right = 1;
         }
-        result.add(new ClockConfig(HOURS, START, END, left));
-        result.add(new ClockConfig(HOURS, START, END, right));
+        result.add(new ClockConfig(context, left));
+        result.add(new ClockConfig(context, right));
 
         return result;
     }
 
     /**
      * Checks if the current configuration is equal to the other
-     * configuration by comparing all attributes
+     * configuration by comparing the current hours; The contexts are only
+     * compared attribute by attribute when they are not the same object
      *
      * @param other Other configuration we are using to compare
      * @return Boolean representing if both configurations are equal
@@ -83,7 +102,8 @@ public class ClockConfig implements Configuration {
     public boolean equals(Object other) {
         if (other instanceof ClockConfig) {
             ClockConfig otherConfig = (ClockConfig) other;
-            return this.HOURS == otherConfig.HOURS && this.START == otherConfig.START && this.END == otherConfig.END && this.current == this.current;
+            return this.current == otherConfig.current &&
+                    (this.context == otherConfig.context || this.context.equals(otherConfig.context));
         }
         return false;
     }
@@ -108,4 +128,4 @@ public class ClockConfig implements Configuration {
     public String toString() {
         return Integer.toString(current);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package puzzles.clock;
+
+import puzzles.common.PuzzleContext;
+
+import java.util.Objects;
+
+/**
+ * The constant parts of a Clock puzzle, shared by every ClockConfig of it
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class ClockContext extends PuzzleContext {
+    /** Max number of hours on the clock */
+    private final int HOURS;
+    /** The original start hour of the clock */
+    private final int START;
+    /** The end goal of the clock */
+    private final int END;
+
+    /**
+     * Constructor for the Clock context
+     *
+     * @param HOURS Number of hours on the clock
+     * @param START Start hour of the clock
+     * @param END End goal of the clock
+     */
+    public ClockContext(int HOURS, int START, int END) {
+        this.HOURS = HOURS;
+        this.START = START;
+        this.END = END;
+    }
+
+    /**
+     * Getter method for the number of hours on the clock
+     *
+     * @return Number of hours
+     */
+    public int getHours() {
+        return HOURS;
+    }
+
+    /**
+     * Getter method for the start hour
+     *
+     * @return Start hour
+     */
+    public int getStart() {
+        return START;
+    }
+
+    /**
+     * Getter method for the end goal
+     *
+     * @return End hour
+     */
+    public int getEnd() {
+        return END;
+    }
+
+    /**
+     * Checks if both contexts describe the same puzzle
+     *
+     * @param other Other context we are using to compare
+     * @return True if every attribute is the same
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof ClockContext otherContext) {
+            return this.HOURS == otherContext.HOURS && this.START == otherContext.START &&
+                    this.END == otherContext.END;
+        }
+        return false;
+    }
+
+    /**
+     * Hashes every attribute of the context
+     *
+     * @return Hash code of this context
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(HOURS, START, END);
+    }
+}
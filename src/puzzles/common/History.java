@@ -0,0 +1,150 @@
+package puzzles.common;
+
+import java.util.Arrays;
+
+/**
+ * The configurations a game has gone through, for undoing and redoing
+ * moves. Every step is a configuration that is never changed once it is
+ * in the history, and consecutive steps share the parts of the puzzle
+ * that did not change, so a step costs only what its move changed.
+ * Undo, redo, jumping to any step, and going back to the start only move
+ * the current step, and a new step after an undo replaces the steps that
+ * could have been redone.
+ *
+ * @param <C> Type of the configurations
+ * @author Ricky Leung & Boya Li
+ */
+public class History<C> {
+    /** The configuration of each step, from the start */
+    private Object[] steps;
+    /** The number of steps kept, including the ones that can be redone */
+    private int size;
+    /** Index of the current step */
+    private int current;
+
+    /**
+     * Constructor for a history that starts at the given configuration
+     *
+     * @param start The start configuration, which must not change afterwards
+     */
+    public History(C start) {
+        steps = new Object[16];
+        steps[0] = start;
+        size = 1;
+        current = 0;
+    }
+
+    /**
+     * Adds a step after the current one, dropping the steps that could
+     * have been redone
+     *
+     * @param next The configuration of the new step, which must not change afterwards
+     */
+    public void push(C next) {
+        if (current + 1 == steps.length) {
+            steps = Arrays.copyOf(steps, steps.length * 2);
+        }
+        current++;
+        steps[current] = next;
+        // Let go of the steps that can no longer be redone
+        if (current + 1 < size) {
+            Arrays.fill(steps, current + 1, size, null);
+        }
+        size = current + 1;
+    }
+
+    /**
+     * Getter method for the configuration of the current step
+     *
+     * @return The current configuration
+     */
+    @SuppressWarnings("unchecked")
+    public C getCurrent() {
+        return (C) steps[current];
+    }
+
+    /**
+     * Checks if there is a step before the current one
+     *
+     * @return True if a move can be undone
+     */
+    public boolean canUndo() {
+        return current > 0;
+    }
+
+    /**
+     * Checks if there is a step after the current one
+     *
+     * @return True if a move can be redone
+     */
+    public boolean canRedo() {
+        return current + 1 < size;
+    }
+
+    /**
+     * Goes back one step, if there is one
+     *
+     * @return The configuration of the step gone back to, or of the
+     * current step if there is none before it
+     */
+    public C undo() {
+        if (canUndo()) {
+            current--;
+        }
+        return getCurrent();
+    }
+
+    /**
+     * Goes forward one step, if there is one
+     *
+     * @return The configuration of the step gone forward to, or of the
+     * current step if there is none after it
+     */
+    public C redo() {
+        if (canRedo()) {
+            current++;
+        }
+        return getCurrent();
+    }
+
+    /**
+     * Goes to any step that is kept; The steps after it can still be redone
+     *
+     * @param step Index of the step, where 0 is the start
+     * @return The configuration of the step
+     */
+    public C jump(int step) {
+        if (step < 0 || step >= size) {
+            throw new IndexOutOfBoundsException("No step " + step + " in a history of " + size);
+        }
+        current = step;
+        return getCurrent();
+    }
+
+    /**
+     * Goes back to the start; The steps after it can still be redone
+     *
+     * @return The start configuration
+     */
+    public C reset() {
+        return jump(0);
+    }
+
+    /**
+     * Getter method for the index of the current step
+     *
+     * @return Index of the current step, where 0 is the start
+     */
+    public int getStep() {
+        return current;
+    }
+
+    /**
+     * Getter method for the number of steps kept
+     *
+     * @return Number of steps, including the start and the ones that can be redone
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,134 @@
+package puzzles.common;
+
+import java.util.*;
+
+/**
+ * What changed in a model, sent to its observers: the message for the
+ * user, whether a new board was loaded, and the cells of the board that
+ * changed, so a view only has to redraw those. Events that have not been
+ * delivered yet can be merged into one, which keeps the last message and
+ * every cell either of them changed.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class ModelEvent {
+    /** The message for the user */
+    private final String message;
+    /** Whether a new board was loaded, which may have a different size */
+    private final boolean loaded;
+    /** The cells that changed, or null if every cell may have changed */
+    private final Set<Coordinates> changedCells;
+
+    /**
+     * Constructor for a model event
+     *
+     * @param message The message for the user
+     * @param loaded Whether a new board was loaded
+     * @param changedCells The cells that changed, or null if every cell may have
+     */
+    private ModelEvent(String message, boolean loaded, Set<Coordinates> changedCells) {
+        this.message = message;
+        this.loaded = loaded;
+        this.changedCells = changedCells;
+    }
+
+    /**
+     * Makes an event that only has a message; Nothing on the board changed
+     *
+     * @param message The message for the user
+     * @return The event
+     */
+    public static ModelEvent message(String message) {
+        return new ModelEvent(message, false, Collections.emptySet());
+    }
+
+    /**
+     * Makes an event for cells of the board that changed
+     *
+     * @param message The message for the user
+     * @param changedCells The cells that changed, or null if every cell may have
+     * @return The event
+     */
+    public static ModelEvent changed(String message, Collection<Coordinates> changedCells) {
+        return new ModelEvent(message, false, changedCells == null ? null : new HashSet<>(changedCells));
+    }
+
+    /**
+     * Makes an event for a new board being loaded
+     *
+     * @param message The message for the user
+     * @return The event
+     */
+    public static ModelEvent loaded(String message) {
+        return new ModelEvent(message, true, null);
+    }
+
+    /**
+     * Merges an event into the one that came before it and has not been
+     * delivered yet
+     *
+     * @param earlier The event that came first, or null if there is none
+     * @param later The event that came after it
+     * @return An event with the message of the later one and the changes of both
+     */
+    public static ModelEvent merge(ModelEvent earlier, ModelEvent later) {
+        if (earlier == null) {
+            return later;
+        }
+        Set<Coordinates> cells = null;
+        if (earlier.changedCells != null && later.changedCells != null) {
+            cells = new HashSet<>(earlier.changedCells);
+            cells.addAll(later.changedCells);
+        }
+        return new ModelEvent(later.message, earlier.loaded || later.loaded, cells);
+    }
+
+    /**
+     * Getter method for the message
+     *
+     * @return The message for the user
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Checks if a new board was loaded, so a view has to be built again
+     * for its size
+     *
+     * @return True if a board was loaded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Checks if every cell of the board may have changed, so all of them
+     * have to be redrawn
+     *
+     * @return True if the changed cells are not known
+     */
+    public boolean isEveryCellChanged() {
+        return changedCells == null;
+    }
+
+    /**
+     * Getter method for the cells that changed
+     *
+     * @return The cells that changed, or null if every cell may have
+     */
+    public Set<Coordinates> getChangedCells() {
+        return changedCells == null ? null : Collections.unmodifiableSet(changedCells);
+    }
+
+    /**
+     * Gets the message of the event, so an event prints like the message
+     * it carries
+     *
+     * @return The message
+     */
+    @Override
+    public String toString() {
+        return message;
+    }
+}
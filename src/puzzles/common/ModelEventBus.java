@@ -0,0 +1,117 @@
+package puzzles.common;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Delivers the events of a model to its observers. An observer added with
+ * an executor, like Platform::runLater for a JavaFX view, gets its events
+ * on that executor: Publishing only merges the event into the one waiting
+ * for that observer and hands the executor a delivery if none is waiting
+ * yet, so a burst of events, like a replay or quick key presses, reaches
+ * the observer as one update, and a slow observer never holds up the
+ * model. An observer added without one gets every event right away, on
+ * the thread that published it, which a text UI needs to print every
+ * message in order.
+ *
+ * @param <Subject> Type of the model
+ * @author Ricky Leung & Boya Li
+ */
+public class ModelEventBus<Subject> {
+    /** The model the events are about */
+    private final Subject subject;
+    /** Every observer, which may be added while events are published */
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor for the event bus of a model
+     *
+     * @param subject The model, which is passed to the observers
+     */
+    public ModelEventBus(Subject subject) {
+        this.subject = subject;
+    }
+
+    /**
+     * Adds an observer that gets every event right away, on the thread
+     * that published it
+     *
+     * @param observer The observer
+     */
+    public void subscribe(Observer<Subject, ModelEvent> observer) {
+        subscriptions.add(new Subscription(observer, null));
+    }
+
+    /**
+     * Adds an observer that gets its events on an executor, with the
+     * events published before a delivery runs merged into one
+     *
+     * @param observer The observer
+     * @param executor Runs the deliveries, e.g. Platform::runLater
+     */
+    public void subscribe(Observer<Subject, ModelEvent> observer, Executor executor) {
+        subscriptions.add(new Subscription(observer, executor));
+    }
+
+    /**
+     * Sends an event to every observer; Only observers without an executor
+     * are updated before this returns
+     *
+     * @param event The event
+     */
+    public void publish(ModelEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * An observer, with the event waiting to be delivered to it
+     */
+    private class Subscription {
+        /** The observer */
+        private final Observer<Subject, ModelEvent> observer;
+        /** Runs the deliveries, or null to update the observer right away */
+        private final Executor executor;
+        /** The events not delivered yet, merged into one, or null if none are waiting */
+        private final AtomicReference<ModelEvent> pending = new AtomicReference<>();
+
+        /**
+         * Constructor for a subscription
+         *
+         * @param observer The observer
+         * @param executor Runs the deliveries, or null to update the observer right away
+         */
+        private Subscription(Observer<Subject, ModelEvent> observer, Executor executor) {
+            this.observer = observer;
+            this.executor = executor;
+        }
+
+        /**
+         * Delivers an event, or merges it into the one waiting; Only the
+         * event that finds nothing waiting schedules a delivery
+         *
+         * @param event The event
+         */
+        private void offer(ModelEvent event) {
+            if (executor == null) {
+                observer.update(subject, event);
+            } else if (pending.getAndAccumulate(event, ModelEvent::merge) == null) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        /**
+         * Updates the observer with every event merged so far; Events
+         * published after this takes them schedule the next delivery
+         */
+        private void deliver() {
+            ModelEvent event = pending.getAndSet(null);
+            if (event != null) {
+                observer.update(subject, event);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package puzzles.common;
+
+/**
+ * The constant parts of a loaded puzzle, which are shared by every
+ * configuration of that puzzle instead of being copied into each one.
+ * A context is immutable once it is built, so configurations can compare
+ * contexts by reference before falling back to comparing their contents.
+ * Grid puzzles also get a cache of Coordinates, so moving from cell to
+ * cell does not allocate new Coordinates on every hop.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class PuzzleContext {
+    /** Cached coordinates of every cell, filled in as they are used */
+    private final Coordinates[][] grid;
+
+    /**
+     * Constructor for the context of a puzzle that is not played on a grid
+     */
+    public PuzzleContext() {
+        this(0, 0);
+    }
+
+    /**
+     * Constructor for the context of a puzzle played on a grid
+     *
+     * @param rows Number of rows on the grid
+     * @param cols Number of columns on the grid
+     */
+    public PuzzleContext(int rows, int cols) {
+        this.grid = new Coordinates[rows][cols];
+    }
+
+    /**
+     * Getter method for the number of rows on the grid
+     *
+     * @return Number of rows
+     */
+    public int getRows() {
+        return grid.length;
+    }
+
+    /**
+     * Getter method for the number of columns on the grid
+     *
+     * @return Number of columns
+     */
+    public int getCols() {
+        return grid.length == 0 ? 0 : grid[0].length;
+    }
+
+    /**
+     * Gets the shared coordinates of a cell on the grid
+     *
+     * @param row Row of the cell
+     * @param col Column of the cell
+     * @return Coordinates of the cell
+     */
+    public Coordinates getCoordinates(int row, int col) {
+        Coordinates coordinates = grid[row][col];
+        if (coordinates == null) {
+            coordinates = new Coordinates(row, col);
+            grid[row][col] = coordinates;
+        }
+        return coordinates;
+    }
+}
@@ -0,0 +1,234 @@
+package puzzles.common.solver;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Anytime solver for boards too large for an optimal search. It runs beam
+ * search, which only keeps the best few configurations of every layer by
+ * their heuristic, so a solution is usually found within a fraction of the
+ * time breadth-first search needs. After each run the beam is made twice
+ * as wide and the search is repeated, only looking for paths shorter than
+ * the best one so far, and every better path is reported to a callback
+ * until the limits run out. Once a run never had to drop a configuration,
+ * it was a complete breadth-first search and the best path is a shortest
+ * one.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class BeamSearchSolver {
+    /** Default number of configurations kept in every layer of the first run */
+    public static final int DEFAULT_WIDTH = 64;
+
+    /** Number of configurations kept in every layer of the first run */
+    private final int width;
+    /** Heuristic that orders the configurations of a layer; Lower is better */
+    private final ToIntFunction<Configuration> heuristic;
+    /** The number of configurations created */
+    private int configCount;
+    /** The number of configurations expanded */
+    private long expandedCount;
+    /** Whether the best path found is known to be a shortest one */
+    private boolean optimal;
+    /** Why the last search stopped early, or null if it finished */
+    private String stopReason;
+
+    /**
+     * Constructor for the solver with the default width, ordered by the
+     * estimate of every configuration
+     */
+    public BeamSearchSolver() {
+        this(DEFAULT_WIDTH, Configuration::estimate);
+    }
+
+    /**
+     * Constructor for the solver
+     *
+     * @param width Number of configurations kept in every layer of the
+     *              first run; At least one
+     * @param heuristic Orders the configurations of a layer; Lower is
+     *                  better, and it does not have to be a lower bound
+     */
+    public BeamSearchSolver(int width, ToIntFunction<Configuration> heuristic) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Beam width must be at least 1: " + width);
+        }
+        this.width = width;
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Searches until the limits run out or a path is known to be a
+     * shortest one, reporting every better path as it is found
+     *
+     * @param start The start configuration
+     * @param limits The deadline, node limit and cancellation token
+     * @param onImproved Called with every path that is shorter than the
+     *                   ones before it; May be null
+     * @return The shortest path found, or null if none was found
+     */
+    public Collection<Configuration> solve(Configuration start, SolveLimits limits,
+                                           Consumer<Collection<Configuration>> onImproved) {
+        configCount = 1;
+        expandedCount = 0;
+        optimal = false;
+        stopReason = null;
+        if (start.isSolution()) {
+            optimal = true;
+            List<Configuration> path = new LinkedList<>(List.of(start));
+            if (onImproved != null) {
+                onImproved.accept(path);
+            }
+            return path;
+        }
+
+        if (start.isDeadEnd()) {
+            optimal = true;
+            return null;
+        }
+        List<Configuration> best = null;
+        for (long runWidth = width; stopReason == null && !optimal; runWidth = Math.min(runWidth * 2, Integer.MAX_VALUE)) {
+            int maxMoves = best == null ? Integer.MAX_VALUE : best.size() - 2;
+            List<Configuration> path = beamSearch(start, (int) runWidth, maxMoves, limits);
+            if (path != null) {
+                best = path;
+                if (onImproved != null) {
+                    onImproved.accept(best);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A single run of beam search: the neighbors of every layer that have
+     * not been seen in this run are ordered by the heuristic and only the
+     * best ones are kept as the next layer.
+     *
+     * @param start The start configuration
+     * @param runWidth Number of configurations kept in every layer
+     * @param maxMoves Most moves a path may take to be worth finding
+     * @param limits The deadline, node limit and cancellation token
+     * @return The path to the first solution found, or null if none was found
+     */
+    private List<Configuration> beamSearch(Configuration start, int runWidth, int maxMoves, SolveLimits limits) {
+        Set<Object> seen = new HashSet<>();
+        seen.add(start.getKey());
+        List<Node> layer = new ArrayList<>(List.of(new Node(start, null, 0)));
+        boolean dropped = false;
+
+        for (int moves = 1; moves <= maxMoves && !layer.isEmpty(); moves++) {
+            List<Node> next = new ArrayList<>();
+            for (Node node : layer) {
+                stopReason = limits.stopReason(expandedCount);
+                if (stopReason != null) {
+                    return null;
+                }
+                expandedCount++;
+                NeighborCursor neighbors = node.config.neighborCursor();
+                while (neighbors.advance()) {
+                    configCount++;
+                    Object key = neighbors.key();
+                    if (seen.add(key)) {
+                        Configuration neighbor = neighbors.build();
+                        Node child = new Node(neighbor, node, heuristic.applyAsInt(neighbor));
+                        if (neighbor.isSolution()) {
+                            // Every shorter path was in a layer that was searched completely
+                            optimal = !dropped;
+                            return child.path();
+                        }
+                        if (!neighbor.isDeadEnd()) {
+                            next.add(child);
+                        }
+                    }
+                }
+            }
+            if (next.size() > runWidth) {
+                next.sort(Comparator.comparingInt(child -> child.estimate));
+                next.subList(runWidth, next.size()).clear();
+                dropped = true;
+            }
+            layer = next;
+        }
+        // Nothing was dropped, so no path within maxMoves exists at all
+        optimal = !dropped;
+        return null;
+    }
+
+    /**
+     * Getter method for the configuration count
+     *
+     * @return Configuration count
+     */
+    public int getConfigCount() {
+        return configCount;
+    }
+
+    /**
+     * Getter method for the expanded configuration count
+     *
+     * @return Number of configurations expanded
+     */
+    public long getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Checks if the best path found is known to be a shortest one; If no
+     * path was found, whether the puzzle is known to have no solution
+     *
+     * @return True if the last run searched every shorter path
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * Getter method for why the last search stopped early
+     *
+     * @return Reason from the limits, or null if the search finished
+     */
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * A configuration in a beam, with the node it was reached from and its
+     * heuristic value
+     */
+    private static class Node {
+        /** The configuration */
+        private final Configuration config;
+        /** Node the configuration was reached from, or null for the start */
+        private final Node parent;
+        /** Heuristic value of the configuration */
+        private final int estimate;
+
+        /**
+         * Constructor for a node
+         *
+         * @param config The configuration
+         * @param parent Node it was reached from, or null for the start
+         * @param estimate Heuristic value of the configuration
+         */
+        private Node(Configuration config, Node parent, int estimate) {
+            this.config = config;
+            this.parent = parent;
+            this.estimate = estimate;
+        }
+
+        /**
+         * Builds the path from the start to this node
+         *
+         * @return List of configurations from the start to this one
+         */
+        private List<Configuration> path() {
+            LinkedList<Configuration> path = new LinkedList<>();
+            for (Node node = this; node != null; node = node.parent) {
+                path.addFirst(node.config);
+            }
+            return path;
+        }
+    }
+}
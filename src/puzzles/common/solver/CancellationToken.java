@@ -0,0 +1,48 @@
+package puzzles.common.solver;
+
+/**
+ * A flag another thread can raise to ask a running search to stop. The
+ * solver checks it before expanding every configuration and ends with a
+ * CANCELLED outcome once it has been raised.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class CancellationToken {
+    /** Token whose cancellation also cancels this one, or null */
+    private final CancellationToken parent;
+    /** Whether the search has been asked to stop */
+    private volatile boolean cancelled;
+
+    /**
+     * Constructor for a token that is only cancelled by calling cancel
+     */
+    public CancellationToken() {
+        this(null);
+    }
+
+    /**
+     * Constructor for a token that is also cancelled when its parent is,
+     * so one search can be cancelled without cancelling the others
+     *
+     * @param parent Token whose cancellation also cancels this one, or null
+     */
+    public CancellationToken(CancellationToken parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Asks every search using this token to stop
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks if the search has been asked to stop
+     *
+     * @return True if cancel() has been called on this token or its parent
+     */
+    public boolean isCancelled() {
+        return cancelled || parent != null && parent.isCancelled();
+    }
+}
@@ -1,6 +1,11 @@
 package puzzles.common.solver;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The representation of a single configuration for a puzzle.
@@ -20,6 +25,93 @@ public interface Configuration {
      */
     Collection<Configuration> getNeighbors();
 
+    /**
+     * Lazily walk the neighbors of the current configuration. The solver
+     * stops asking for neighbors as soon as one of them is a solution, so
+     * puzzles that override this only build the neighbors that are needed.
+     * @return an iterator over the neighbors
+     */
+    default Iterator<Configuration> neighborIterator() {
+        return getNeighbors().iterator();
+    }
+
+    /**
+     * Get a cheap key that identifies the current configuration. Two
+     * configurations of the same puzzle have equal keys exactly when they
+     * are equal. By default the configuration is its own key.
+     * @return the key of this configuration
+     */
+    default Object getKey() {
+        return this;
+    }
+
+    /**
+     * Walk the neighbors of the current configuration key-first, so the
+     * solver can skip neighbors it has already visited before they are
+     * built. By default every neighbor is built and used as its own key.
+     * @return a cursor over the neighbors
+     */
+    default NeighborCursor neighborCursor() {
+        return new IteratorNeighborCursor(neighborIterator());
+    }
+
+    /**
+     * Estimate how many bytes the current configuration keeps in memory
+     * while it is stored by the solver, including its key. The solver adds
+     * these up to decide when to switch strategies before running out of
+     * memory, so an estimate that is slightly too high is safer than one
+     * that is too low.
+     * @return the approximate size of this configuration in bytes
+     */
+    default int estimatedBytes() {
+        return 64;
+    }
+
+    /**
+     * Estimate how many moves the current configuration is from a
+     * solution. The estimate guides IDA*, which only finds shortest paths
+     * if it is never more than the real number of moves. By default there
+     * is no estimate.
+     * @return a lower bound on the moves to a solution
+     */
+    default int estimate() {
+        return 0;
+    }
+
+    /**
+     * Check if the current configuration can never lead to a solution, so
+     * the solver does not have to search past it. The check has to be
+     * cheap, and must never call a configuration a dead end if a solution
+     * can be reached from it. By default no configuration is a dead end.
+     * @return true if no solution can be reached from this configuration
+     */
+    default boolean isDeadEnd() {
+        return false;
+    }
+
+    /**
+     * Measure how far the current configuration has progressed. The
+     * measure must never decrease from a configuration to any of its
+     * neighbors, so the layered solver can drop every configuration of a
+     * level once it is done with it. By default every configuration is on
+     * the same level.
+     * @return the progress level of this configuration
+     */
+    default int getProgress() {
+        return 0;
+    }
+
+    /**
+     * Lazily stream the neighbors of the current configuration.
+     * @return a sequential stream over the neighbors
+     */
+    default Stream<Configuration> neighborStream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(neighborIterator(),
+                        Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
+    }
+
     //////////////////////////////////////////////////////////////////////////////////////
     // The predecessor map from the BFS Solver forces to any puzzle configuration       //
     // to override the equals and hashCode methods.                                     //
@@ -0,0 +1,39 @@
+package puzzles.common.solver;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Function;
+
+/**
+ * Sorts the configurations a search reaches into the goals they reach,
+ * so a single search can find a shortest path to every goal at once,
+ * like every amount in Water or every location in Tip Over.
+ *
+ * @param <K> Type of the goals; Goals are told apart with equals and hashCode
+ * @author Ricky Leung & Boya Li
+ */
+@FunctionalInterface
+public interface GoalClassifier<K> {
+    /**
+     * Gets every goal a configuration reaches.
+     *
+     * @param c The configuration
+     * @return The goals it reaches; empty if it reaches none
+     */
+    Collection<K> classify(Configuration c);
+
+    /**
+     * Makes a classifier for goals where every configuration reaches at
+     * most one goal.
+     *
+     * @param goal Gives the goal a configuration reaches, or null if none
+     * @param <K> Type of the goals
+     * @return The classifier
+     */
+    static <K> GoalClassifier<K> of(Function<Configuration, K> goal) {
+        return c -> {
+            K k = goal.apply(c);
+            return k == null ? Collections.emptyList() : Collections.singletonList(k);
+        };
+    }
+}
@@ -0,0 +1,296 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * Memory-bounded solver for every puzzle: depth-first iterative deepening,
+ * or IDA* when the configurations estimate how many moves they are from a
+ * solution. Only the current path and a fixed-size transposition table are
+ * kept in memory, so memory use does not depend on the number of
+ * configurations, at the cost of expanding some configurations more than
+ * once. The Solver also falls back to it when breadth-first search would
+ * outgrow its memory budget.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class IterativeDeepeningSolver {
+    /** Default number of slots in the transposition table */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 16;
+    /** Name of the strategy when no configuration gave an estimate */
+    static final String ITERATIVE_DEEPENING = "iterative deepening";
+    /** Name of the strategy when the estimates guided the search */
+    static final String IDA_STAR = "IDA*";
+
+    /** Table of the configurations reached in the current iteration */
+    private final TranspositionTable table;
+    /** The limits the search has to stay within */
+    private SolveLimits limits;
+    /** The number of configurations created */
+    private int configCount;
+    /** The most entries the transposition table held in one iteration */
+    private int uniqueConfigCount;
+    /** The number of configurations expanded */
+    private long expandedCount;
+    /** Whether any configuration estimated more than zero moves */
+    private boolean informed;
+    /** Why the search stopped early, or null if it finished */
+    private String stopReason;
+    /** The smallest cost of a solution that was over the bound of the current iteration */
+    private int nextBound;
+
+    /**
+     * Constructor for the solver with the default transposition table size
+     */
+    public IterativeDeepeningSolver() {
+        this(DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Constructor for the solver
+     *
+     * @param tableSize Number of slots in the transposition table
+     */
+    public IterativeDeepeningSolver(int tableSize) {
+        table = new TranspositionTable(tableSize);
+        limits = SolveLimits.NONE;
+    }
+
+    /**
+     * Solves the puzzle without any limits
+     *
+     * @param c The start configuration
+     * @return The shortest path, if there is a solution possible; null otherwise
+     */
+    public Collection<Configuration> solve(Configuration c) {
+        return trySolve(c).getPath();
+    }
+
+    /**
+     * Solves the puzzle without any limits
+     *
+     * @param c The start configuration
+     * @return The outcome of the search
+     * @see #trySolve(Configuration, SolveLimits)
+     */
+    public SolveOutcome trySolve(Configuration c) {
+        return trySolve(c, SolveLimits.NONE);
+    }
+
+    /**
+     * Solves the puzzle within the given limits. The path found is a
+     * shortest one as long as every estimate is a lower bound on the
+     * moves left to a solution.
+     *
+     * @param c The start configuration
+     * @param limits The deadline, node limit and cancellation token
+     * @return The outcome of the search
+     */
+    public SolveOutcome trySolve(Configuration c, SolveLimits limits) {
+        long startMillis = System.currentTimeMillis();
+        configCount = 1;
+        List<Configuration> path = search(c, 0, limits, 0);
+        SolveStatus status;
+        if (stopReason != null) {
+            status = SolveLimits.statusFor(stopReason);
+        } else {
+            status = path == null ? SolveStatus.UNSOLVABLE : SolveStatus.SOLVED;
+        }
+        return new SolveOutcome(status, path, stopReason, configCount, uniqueConfigCount,
+                expandedCount, System.currentTimeMillis() - startMillis, getStrategy());
+    }
+
+    /**
+     * Searches with a bound on the moves plus the estimate, which starts at
+     * firstBound and grows to the smallest one that was cut off, and not
+     * searched with fewer moves later in the same iteration, until a
+     * solution is found or an iteration finishes without anything being
+     * cut off, which means every reachable configuration was searched.
+     *
+     * @param start The start configuration
+     * @param firstBound The first bound; Every smaller bound must already
+     *                   be known to have no solution
+     * @param limits The limits the search has to stay within
+     * @param expandedBefore Configurations already expanded before this search
+     * @return The shortest path, or null if there is no solution or the
+     * search had to stop early, in which case getStopReason says why
+     */
+    List<Configuration> search(Configuration start, int firstBound, SolveLimits limits, long expandedBefore) {
+        this.limits = limits;
+        expandedCount = expandedBefore;
+        stopReason = null;
+        uniqueConfigCount = 0;
+        informed = false;
+        if (start.isSolution()) {
+            return new LinkedList<>(List.of(start));
+        }
+        if (start.isDeadEnd()) {
+            return null;
+        }
+        int bound = Math.max(Math.max(1, firstBound), estimate(start));
+        while (true) {
+            LinkedList<Configuration> path = new LinkedList<>();
+            nextBound = Integer.MAX_VALUE;
+            table.clear();
+            boolean found = searchToBound(start, bound, path);
+            uniqueConfigCount = Math.max(uniqueConfigCount, table.getStored());
+            nextBound = Math.min(nextBound, table.nextBound());
+            if (found) {
+                return path;
+            }
+            if (nextBound == Integer.MAX_VALUE || stopReason != null) {
+                return null;
+            }
+            bound = nextBound;
+        }
+    }
+
+    /**
+     * A single bounded search, walking the neighbors with an explicit stack
+     * of cursors so deep searches do not overflow the call stack. A
+     * neighbor is only expanded when the moves to it plus its estimate fit
+     * in the bound; Dead ends, configurations on the current path, and
+     * ones already reached in this iteration with as few moves are skipped. The limits
+     * are checked before every configuration is expanded.
+     *
+     * @param start The start configuration
+     * @param bound The bound on the moves plus the estimate
+     * @param path Filled with the path to a solution, if one is found
+     * @return True if a solution was found
+     */
+    private boolean searchToBound(Configuration start, int bound, LinkedList<Configuration> path) {
+        Set<Object> onPath = new HashSet<>();
+        Deque<NeighborCursor> cursors = new ArrayDeque<>();
+        path.add(start);
+        onPath.add(start.getKey());
+        table.visit(start.getKey(), 0);
+        if (!expand(start, cursors)) {
+            path.clear();
+            return false;
+        }
+
+        while (!cursors.isEmpty()) {
+            NeighborCursor cursor = cursors.peek();
+            if (!cursor.advance()) {
+                cursors.pop();
+                onPath.remove(path.removeLast().getKey());
+                continue;
+            }
+            configCount++;
+            Object key = cursor.key();
+            if (onPath.contains(key)) {
+                continue;
+            }
+            // The neighbor is as many moves from the start as the path is long
+            int cost = path.size();
+            Configuration neighbor = cursor.build();
+            if (neighbor.isSolution()) {
+                if (cost <= bound) {
+                    path.add(neighbor);
+                    return true;
+                }
+                nextBound = Math.min(nextBound, cost);
+                continue;
+            }
+            if (neighbor.isDeadEnd()) {
+                continue;
+            }
+            // Reached before with as few moves: expanded or cut off already
+            int slot = table.visit(key, cost);
+            if (slot == TranspositionTable.PRUNE) {
+                continue;
+            }
+            // Another move is needed even if the estimate is zero
+            int total = cost + Math.max(1, estimate(neighbor));
+            if (total > bound) {
+                table.cut(slot, total);
+                continue;
+            }
+            path.add(neighbor);
+            onPath.add(key);
+            if (!expand(neighbor, cursors)) {
+                path.clear();
+                return false;
+            }
+        }
+        path.clear();
+        return false;
+    }
+
+    /**
+     * Pushes a cursor over the neighbors of a configuration, unless the
+     * limits say the search has to stop
+     *
+     * @param config The configuration to expand
+     * @param cursors The stack of cursors
+     * @return True if the configuration was expanded
+     */
+    private boolean expand(Configuration config, Deque<NeighborCursor> cursors) {
+        stopReason = limits.stopReason(expandedCount);
+        if (stopReason != null) {
+            return false;
+        }
+        expandedCount++;
+        cursors.push(config.neighborCursor());
+        return true;
+    }
+
+    /**
+     * Helper method that asks a configuration for its estimate and notes
+     * whether the search is being guided by it
+     *
+     * @param config The configuration
+     * @return Estimated moves to a solution
+     */
+    private int estimate(Configuration config) {
+        int estimate = config.estimate();
+        if (estimate > 0) {
+            informed = true;
+        }
+        return estimate;
+    }
+
+    /**
+     * Getter method for the configuration count
+     *
+     * @return Configuration count
+     */
+    public int getConfigCount() {
+        return configCount;
+    }
+
+    /**
+     * Getter method for the unique configuration count
+     *
+     * @return Most entries the transposition table held in one iteration
+     */
+    public int getUniqueConfigCount() {
+        return uniqueConfigCount;
+    }
+
+    /**
+     * Getter method for the expanded configuration count
+     *
+     * @return Configurations expanded, including those before a fallback
+     */
+    public long getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Getter method for why the last search stopped early
+     *
+     * @return Reason from the limits, or null if the search finished
+     */
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Getter method for the strategy the last search used
+     *
+     * @return "IDA*" if the estimates guided it; "iterative deepening" otherwise
+     */
+    public String getStrategy() {
+        return informed ? IDA_STAR : ITERATIVE_DEEPENING;
+    }
+}
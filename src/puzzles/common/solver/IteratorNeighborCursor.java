@@ -0,0 +1,61 @@
+package puzzles.common.solver;
+
+import java.util.Iterator;
+
+/**
+ * Neighbor cursor for puzzles that do not have a cheaper key than the
+ * configuration itself; Every neighbor is built as it is reached and is
+ * used as its own key.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+class IteratorNeighborCursor implements NeighborCursor {
+    /** Iterator over the neighbors */
+    private final Iterator<Configuration> neighbors;
+    /** The neighbor the cursor is on */
+    private Configuration current;
+
+    /**
+     * Constructor for the iterator neighbor cursor
+     *
+     * @param neighbors Iterator over the neighbors
+     */
+    IteratorNeighborCursor(Iterator<Configuration> neighbors) {
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * Moves to the next neighbor, building it right away
+     *
+     * @return True if there is another neighbor
+     */
+    @Override
+    public boolean advance() {
+        if (!neighbors.hasNext()) {
+            current = null;
+            return false;
+        }
+        current = neighbors.next();
+        return true;
+    }
+
+    /**
+     * Key of the current neighbor
+     *
+     * @return Key of the current neighbor
+     */
+    @Override
+    public Object key() {
+        return current.getKey();
+    }
+
+    /**
+     * The current neighbor, which was already built
+     *
+     * @return The current neighbor
+     */
+    @Override
+    public Configuration build() {
+        return current;
+    }
+}
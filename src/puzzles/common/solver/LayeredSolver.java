@@ -0,0 +1,322 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * Solver that searches one progress level at a time. Moves never lower the
+ * progress of a configuration, so once every configuration of a level has
+ * been expanded, nothing can reach that level again and its visited
+ * configurations are dropped. Peak memory is then bounded by the largest
+ * level, plus the configurations waiting in higher levels, instead of the
+ * whole search space.
+ * <p>
+ * Every configuration remembers the anchor it was reached from: the
+ * first configuration of its level on its path, which in turn remembers
+ * the configuration of a lower level it was reached from. Only the anchors
+ * on those chains outlive their level. The path is rebuilt by searching
+ * again from each anchor within its own level.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class LayeredSolver {
+    /** Name of the strategy */
+    private static final String STRATEGY = "layered search";
+
+    /** The number of configurations created */
+    private int configCount;
+    /** The number of unique configurations created */
+    private int uniqueConfigCount;
+    /** The number of configurations expanded */
+    private long expandedCount;
+    /** The most configurations visited in a single level */
+    private int peakLevelSize;
+
+    /**
+     * Solves the puzzle without any limits
+     *
+     * @param c The start configuration
+     * @return The outcome of the search
+     */
+    public SolveOutcome trySolve(Configuration c) {
+        return trySolve(c, SolveLimits.NONE);
+    }
+
+    /**
+     * Solves the puzzle within the given limits. Within a level the
+     * configurations are expanded in order of their distance from the
+     * start, with the anchors reached from lower levels merged in, so the
+     * distances are exact. A solution found in a level may still be beaten
+     * by one in a higher level, so the remaining levels are searched too,
+     * skipping everything that could not lead to a shorter path.
+     *
+     * @param c The start configuration
+     * @param limits The deadline, node limit and cancellation token
+     * @return The outcome of the search, with a shortest path if solved
+     */
+    public SolveOutcome trySolve(Configuration c, SolveLimits limits) {
+        long startMillis = System.currentTimeMillis();
+        configCount = 1;
+        uniqueConfigCount = 1;
+        expandedCount = 0;
+        peakLevelSize = 0;
+        if (c.isSolution()) {
+            return outcome(SolveStatus.SOLVED, new LinkedList<>(List.of(c)), null, startMillis);
+        }
+        if (c.isDeadEnd()) {
+            return outcome(SolveStatus.UNSOLVABLE, null, null, startMillis);
+        }
+
+        TreeMap<Integer, Map<Object, Anchor>> pending = new TreeMap<>();
+        pending.put(c.getProgress(), new HashMap<>(Map.of(c.getKey(), new Anchor(c, 0, null, null))));
+        int best = Integer.MAX_VALUE;
+        Configuration goal = null;
+        Configuration goalParent = null;
+        Anchor goalAnchor = null;
+
+        while (!pending.isEmpty()) {
+            Map.Entry<Integer, Map<Object, Anchor>> entry = pending.pollFirstEntry();
+            int level = entry.getKey();
+            List<Anchor> anchors = new ArrayList<>(entry.getValue().values());
+            anchors.sort(Comparator.comparingInt(anchor -> anchor.distance));
+
+            Map<Object, Visit> visited = new HashMap<>();
+            Queue<Configuration> queue = new LinkedList<>();
+            int nextAnchor = 0;
+            while (nextAnchor < anchors.size() || !queue.isEmpty()) {
+                // Every anchor as close to the start as the head of the queue
+                // is visited before anything at that distance is expanded, so
+                // no anchor is first reached from another one at a larger distance
+                int frontier = queue.isEmpty() ? anchors.get(nextAnchor).distance
+                        : visited.get(queue.peek().getKey()).distance;
+                while (nextAnchor < anchors.size() && anchors.get(nextAnchor).distance <= frontier) {
+                    Anchor anchor = anchors.get(nextAnchor++);
+                    if (visited.putIfAbsent(anchor.config.getKey(), new Visit(anchor.distance, anchor)) == null) {
+                        queue.add(anchor.config);
+                    }
+                }
+                if (queue.isEmpty()) {
+                    continue;
+                }
+                Configuration current = queue.remove();
+                Visit visit = visited.get(current.getKey());
+                if (visit.distance + 1 >= best) {
+                    continue;
+                }
+                String stopReason = limits.stopReason(expandedCount);
+                if (stopReason != null) {
+                    return outcome(SolveLimits.statusFor(stopReason), null, stopReason, startMillis);
+                }
+                expandedCount++;
+
+                NeighborCursor neighbors = current.neighborCursor();
+                while (neighbors.advance()) {
+                    configCount++;
+                    Object key = neighbors.key();
+                    if (visited.containsKey(key)) {
+                        continue;
+                    }
+                    Configuration neighbor = neighbors.build();
+                    int progress = neighbor.getProgress();
+                    int distance = visit.distance + 1;
+                    if (progress < level) {
+                        throw new IllegalStateException("Progress went down from " + level + " to " + progress);
+                    }
+                    if (neighbor.isSolution()) {
+                        if (distance < best) {
+                            best = distance;
+                            goal = neighbor;
+                            goalParent = current;
+                            goalAnchor = visit.anchor;
+                        }
+                    } else if (neighbor.isDeadEnd()) {
+                        // Never expanded; Only remembered so it is not built again in this level
+                        if (progress == level) {
+                            visited.put(key, new Visit(distance, visit.anchor));
+                        }
+                    } else if (progress == level) {
+                        visited.put(key, new Visit(distance, visit.anchor));
+                        uniqueConfigCount++;
+                        queue.add(neighbor);
+                    } else {
+                        Map<Object, Anchor> higher = pending.computeIfAbsent(progress, p -> new HashMap<>());
+                        Anchor known = higher.get(key);
+                        if (known == null) {
+                            uniqueConfigCount++;
+                        }
+                        if (known == null || known.distance > distance) {
+                            higher.put(key, new Anchor(neighbor, distance, current, visit.anchor));
+                        }
+                    }
+                }
+            }
+            peakLevelSize = Math.max(peakLevelSize, visited.size());
+        }
+
+        if (goal == null) {
+            return outcome(SolveStatus.UNSOLVABLE, null, null, startMillis);
+        }
+        return outcome(SolveStatus.SOLVED, constructPath(goal, goalParent, goalAnchor), null, startMillis);
+    }
+
+    /**
+     * Helper method used in trySolve to rebuild the path by searching again
+     * from each anchor on the chain to the configuration it led to
+     *
+     * @param goal The solution
+     * @param parent Configuration the solution was reached from
+     * @param anchor Anchor the parent was reached from
+     * @return List of configurations from the start to the solution
+     */
+    private List<Configuration> constructPath(Configuration goal, Configuration parent, Anchor anchor) {
+        LinkedList<Configuration> path = new LinkedList<>();
+        path.add(goal);
+        Configuration target = parent;
+        while (anchor != null) {
+            List<Configuration> segment = searchWithin(anchor.config, target);
+            for (int i = segment.size() - 1; i >= 0; i--) {
+                path.addFirst(segment.get(i));
+            }
+            target = anchor.parent;
+            anchor = anchor.parentAnchor;
+        }
+        return path;
+    }
+
+    /**
+     * Helper method used in constructPath to find a shortest path between
+     * two configurations of the same level, never leaving the level
+     *
+     * @param from The anchor of the level
+     * @param target A configuration reached from the anchor
+     * @return List of configurations from the anchor to the target
+     */
+    private List<Configuration> searchWithin(Configuration from, Configuration target) {
+        int level = from.getProgress();
+        Object targetKey = target.getKey();
+        Map<Object, Configuration> predecessors = new HashMap<>();
+        predecessors.put(from.getKey(), from);
+        Queue<Configuration> queue = new LinkedList<>();
+        queue.add(from);
+        Configuration found = targetKey.equals(from.getKey()) ? from : null;
+        while (found == null && !queue.isEmpty()) {
+            Configuration current = queue.remove();
+            NeighborCursor neighbors = current.neighborCursor();
+            while (neighbors.advance()) {
+                Object key = neighbors.key();
+                if (predecessors.containsKey(key)) {
+                    continue;
+                }
+                Configuration neighbor = neighbors.build();
+                if (neighbor.getProgress() != level) {
+                    continue;
+                }
+                predecessors.put(key, current);
+                if (key.equals(targetKey)) {
+                    found = neighbor;
+                    break;
+                }
+                queue.add(neighbor);
+            }
+        }
+        LinkedList<Configuration> segment = new LinkedList<>();
+        for (Configuration current = found; current != from; current = predecessors.get(current.getKey())) {
+            segment.addFirst(current);
+        }
+        segment.addFirst(from);
+        return segment;
+    }
+
+    /**
+     * Helper method used in trySolve to create the outcome with the
+     * statistics of the search
+     *
+     * @param status How the search ended
+     * @param path Path to a solution, or null if none was found
+     * @param reason Why the search stopped early, or null if it finished
+     * @param startMillis Time the search started
+     * @return The outcome
+     */
+    private SolveOutcome outcome(SolveStatus status, List<Configuration> path, String reason, long startMillis) {
+        return new SolveOutcome(status, path, reason, configCount, uniqueConfigCount, expandedCount,
+                System.currentTimeMillis() - startMillis, STRATEGY);
+    }
+
+    /**
+     * Getter method for the configuration count
+     *
+     * @return Configuration count
+     */
+    public int getConfigCount() {
+        return configCount;
+    }
+
+    /**
+     * Getter method for the unique configuration count
+     *
+     * @return Unique configuration count
+     */
+    public int getUniqueConfigCount() {
+        return uniqueConfigCount;
+    }
+
+    /**
+     * Getter method for the size of the largest level
+     *
+     * @return Most configurations visited in a single level
+     */
+    public int getPeakLevelSize() {
+        return peakLevelSize;
+    }
+
+    /**
+     * The first configuration of a level on a path, with the configuration
+     * of a lower level it was reached from
+     */
+    private static class Anchor {
+        /** The configuration */
+        private final Configuration config;
+        /** Moves from the start */
+        private final int distance;
+        /** Configuration of a lower level it was reached from, or null for the start */
+        private final Configuration parent;
+        /** Anchor the parent was reached from, or null for the start */
+        private final Anchor parentAnchor;
+
+        /**
+         * Constructor for an anchor
+         *
+         * @param config The configuration
+         * @param distance Moves from the start
+         * @param parent Configuration it was reached from, or null
+         * @param parentAnchor Anchor the parent was reached from, or null
+         */
+        private Anchor(Configuration config, int distance, Configuration parent, Anchor parentAnchor) {
+            this.config = config;
+            this.distance = distance;
+            this.parent = parent;
+            this.parentAnchor = parentAnchor;
+        }
+    }
+
+    /**
+     * How far a visited configuration is from the start, and the anchor of
+     * its level it was reached from
+     */
+    private static class Visit {
+        /** Moves from the start */
+        private final int distance;
+        /** Anchor it was reached from */
+        private final Anchor anchor;
+
+        /**
+         * Constructor for a visit
+         *
+         * @param distance Moves from the start
+         * @param anchor Anchor it was reached from
+         */
+        private Visit(int distance, Anchor anchor) {
+            this.distance = distance;
+            this.anchor = anchor;
+        }
+    }
+}
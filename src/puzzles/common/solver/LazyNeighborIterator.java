@@ -0,0 +1,67 @@
+package puzzles.common.solver;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * An iterator that builds the neighbors of a configuration one move at a
+ * time, only when the solver asks for the next one. Each puzzle numbers its
+ * possible moves from 0 to moves - 1 and supplies a generator that returns
+ * the neighbor reached by that move, or null if the move is not legal.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class LazyNeighborIterator implements Iterator<Configuration> {
+    /** The number of possible moves */
+    private final int moves;
+    /** Generator that builds the neighbor for a given move, or null */
+    private final IntFunction<Configuration> generator;
+    /** The next move that has not been generated yet */
+    private int nextMove;
+    /** The neighbor that will be returned by the next call to next() */
+    private Configuration next;
+
+    /**
+     * Constructor for the lazy neighbor iterator
+     *
+     * @param moves Number of possible moves
+     * @param generator Builds the neighbor for a move, or returns null
+     *                  if the move is not legal
+     */
+    public LazyNeighborIterator(int moves, IntFunction<Configuration> generator) {
+        this.moves = moves;
+        this.generator = generator;
+        this.nextMove = 0;
+        this.next = null;
+    }
+
+    /**
+     * Generates moves until a legal one is found or the moves run out
+     *
+     * @return True if there is another neighbor
+     */
+    @Override
+    public boolean hasNext() {
+        while (next == null && nextMove < moves) {
+            next = generator.apply(nextMove);
+            nextMove++;
+        }
+        return next != null;
+    }
+
+    /**
+     * Gets the next neighbor
+     *
+     * @return The next neighbor
+     */
+    @Override
+    public Configuration next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Configuration result = next;
+        next = null;
+        return result;
+    }
+}
@@ -0,0 +1,34 @@
+package puzzles.common.solver;
+
+/**
+ * A cursor over the neighbors of a configuration that hands out the key of
+ * each neighbor before the neighbor itself is built. The solver checks the
+ * key against the configurations it has already visited and only asks the
+ * cursor to build the neighbors it has not seen, so duplicate neighbors are
+ * never allocated, copied, or hashed as full configurations.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public interface NeighborCursor {
+    /**
+     * Moves the cursor to the next neighbor.
+     *
+     * @return True if there is another neighbor; false, otherwise
+     */
+    boolean advance();
+
+    /**
+     * The key of the neighbor the cursor is on. Two neighbors have equal
+     * keys exactly when they are equal configurations.
+     *
+     * @return Key of the current neighbor
+     */
+    Object key();
+
+    /**
+     * Builds the neighbor the cursor is on.
+     *
+     * @return The current neighbor
+     */
+    Configuration build();
+}
@@ -0,0 +1,62 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+
+/**
+ * A configuration key made of packed words. Puzzles pack the parts of their
+ * state that change from move to move into the words, so the key can be
+ * compared and hashed without building the full configuration.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public final class PackedKey {
+    /** The packed words of the key */
+    private final long[] words;
+    /** The hash code of the words */
+    private final int hash;
+
+    /**
+     * Constructor for the packed key; The words are not copied, so they
+     * must not be changed afterwards
+     *
+     * @param words The packed words of the key
+     */
+    public PackedKey(long[] words) {
+        this.words = words;
+        this.hash = Arrays.hashCode(words);
+    }
+
+    /**
+     * Checks if both keys hold the same words
+     *
+     * @param other Other key we are using to compare
+     * @return True if both keys are equal
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof PackedKey otherKey) {
+            return this.hash == otherKey.hash && Arrays.equals(this.words, otherKey.words);
+        }
+        return false;
+    }
+
+    /**
+     * Hash code of the packed words, computed once
+     *
+     * @return Hash code of this key
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * The packed words as a string
+     *
+     * @return String of the words
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(words);
+    }
+}
@@ -0,0 +1,208 @@
+package puzzles.common.solver;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Races several search engines on the same start configuration, since no
+ * single strategy is the fastest on every puzzle. The engines share a
+ * fixed number of threads; engines that do not fit wait for a thread to
+ * free up. The first answer that is good enough wins, the other engines
+ * are cancelled, and the name of the winner is reported so the portfolio
+ * can be tuned.
+ * <p>
+ * A solved outcome is good enough if its engine is optimal, or if any
+ * solution is accepted. An unsolvable outcome from any engine is good
+ * enough, since every engine searches until it has seen every reachable
+ * configuration before calling a puzzle unsolvable. If every engine
+ * finishes without a good enough answer, the shortest path found wins.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class PortfolioSolver {
+    /** Creates the engines of the portfolio, fresh for every race */
+    private final List<Supplier<SearchEngine>> engines;
+    /** The most engines that run at the same time */
+    private final int threads;
+    /** Whether a path from an engine that is not optimal wins right away */
+    private final boolean acceptAnySolution;
+    /** Name of the engine that won the last race, or null */
+    private String winner;
+
+    /**
+     * Constructor for the portfolio
+     *
+     * @param engines Create the engines to race, fresh for every race
+     * @param threads The most engines that run at the same time; At least one
+     * @param acceptAnySolution True if a path from an engine that is not
+     *                          optimal wins right away; False to wait for
+     *                          an optimal engine
+     */
+    public PortfolioSolver(List<Supplier<SearchEngine>> engines, int threads, boolean acceptAnySolution) {
+        if (engines.isEmpty()) {
+            throw new IllegalArgumentException("A portfolio needs at least one engine");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("A portfolio needs at least one thread: " + threads);
+        }
+        this.engines = List.copyOf(engines);
+        this.threads = threads;
+        this.acceptAnySolution = acceptAnySolution;
+    }
+
+    /**
+     * The standard portfolio: breadth-first search, IDA* and greedy
+     * best-first search. The engines run at the same time, so each gets
+     * an equal share of the default memory budget, and the breadth-first
+     * and greedy searches fall back within their share instead of
+     * running out of heap together
+     *
+     * @param threads The most engines that run at the same time
+     * @param acceptAnySolution True if the greedy path wins right away
+     * @return The portfolio
+     */
+    public static PortfolioSolver standard(int threads, boolean acceptAnySolution) {
+        long share = Solver.defaultMemoryBudget() / 3;
+        return new PortfolioSolver(List.of(
+                () -> SearchEngine.of("breadth-first search", true, share,
+                        (start, limits) -> budgeted(share).trySolve(start, limits)),
+                () -> SearchEngine.of("IDA*", true, share,
+                        (start, limits) -> new IterativeDeepeningSolver().trySolve(start, limits)),
+                () -> SearchEngine.of("greedy best-first search", false, share,
+                        (start, limits) -> budgeted(share).trySolve(start, limits, SolveMode.SATISFICING))
+        ), threads, acceptAnySolution);
+    }
+
+    /**
+     * Makes a solver that keeps to a share of the memory budget
+     *
+     * @param memoryBudget Most bytes the solver's tables may take up
+     * @return The solver
+     */
+    private static Solver budgeted(long memoryBudget) {
+        Solver solver = new Solver();
+        solver.setMemoryBudget(memoryBudget);
+        return solver;
+    }
+
+    /**
+     * Races the engines on the start configuration
+     *
+     * @param start The start configuration
+     * @return The outcome of the winner
+     */
+    public SolveOutcome trySolve(Configuration start) {
+        return trySolve(start, SolveLimits.NONE);
+    }
+
+    /**
+     * Races the engines on the start configuration within the limits;
+     * Cancelling the limits' token cancels every engine
+     *
+     * @param start The start configuration
+     * @param limits The deadline, node limit and cancellation token, shared
+     *               by every engine
+     * @return The outcome of the winner, or of the last engine to finish
+     * if none of them found an answer
+     */
+    public SolveOutcome trySolve(Configuration start, SolveLimits limits) {
+        winner = null;
+        CancellationToken race = new CancellationToken(limits.getToken());
+        SolveLimits engineLimits = new SolveLimits(limits.getDeadline(), limits.getMaxExpanded(), race);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, engines.size()), runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Entry> finished = new ExecutorCompletionService<>(pool);
+        for (Supplier<SearchEngine> supplier : engines) {
+            SearchEngine engine = supplier.get();
+            finished.submit(() -> new Entry(engine, engine.trySolve(start, engineLimits)));
+        }
+
+        Entry best = null;
+        Entry last = null;
+        RuntimeException failure = null;
+        try {
+            for (int i = 0; i < engines.size(); i++) {
+                Entry entry;
+                try {
+                    entry = finished.take().get();
+                } catch (ExecutionException e) {
+                    failure = new IllegalStateException("A portfolio engine failed", e.getCause());
+                    continue;
+                }
+                last = entry;
+                SolveOutcome outcome = entry.outcome;
+                if (outcome.getStatus() == SolveStatus.UNSOLVABLE ||
+                        outcome.isSolved() && (entry.engine.isOptimal() || acceptAnySolution)) {
+                    best = entry;
+                    break;
+                }
+                if (outcome.isSolved() && (best == null || outcome.getPath().size() < best.outcome.getPath().size())) {
+                    best = entry;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            race.cancel();
+            pool.shutdownNow();
+        }
+
+        Entry result = best != null ? best : last;
+        if (result == null) {
+            if (failure != null) {
+                throw failure;
+            }
+            return new SolveOutcome(SolveStatus.CANCELLED, null, SolveLimits.CANCELLED, 0, 0, 0, 0, "portfolio");
+        }
+        winner = result.engine.getName();
+        return result.outcome;
+    }
+
+    /**
+     * Adds up the memory budgets of the engines, which may all run at the
+     * same time
+     *
+     * @return Combined memory budget in bytes
+     */
+    public long getMemoryBudget() {
+        long total = 0;
+        for (Supplier<SearchEngine> supplier : engines) {
+            total += supplier.get().getMemoryBudget();
+        }
+        return total;
+    }
+
+    /**
+     * Getter method for the engine that won the last race
+     *
+     * @return Name of the engine whose outcome was returned, or null
+     */
+    public String getWinner() {
+        return winner;
+    }
+
+    /**
+     * An engine together with the outcome of its search
+     */
+    private static class Entry {
+        /** The engine */
+        private final SearchEngine engine;
+        /** The outcome of its search */
+        private final SolveOutcome outcome;
+
+        /**
+         * Constructor for an entry
+         *
+         * @param engine The engine
+         * @param outcome The outcome of its search
+         */
+        private Entry(SearchEngine engine, SolveOutcome outcome) {
+            this.engine = engine;
+            this.outcome = outcome;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package puzzles.common.solver;
+
+import java.util.function.BiFunction;
+
+/**
+ * A search strategy that can be raced against others by the
+ * PortfolioSolver. An engine is only used by one thread at a time.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public interface SearchEngine {
+    /**
+     * Get the name the engine is reported by.
+     * @return the name of the engine
+     */
+    String getName();
+
+    /**
+     * Check if the paths the engine finds are always shortest ones.
+     * @return true if a solved outcome is proven to be optimal
+     */
+    boolean isOptimal();
+
+    /**
+     * Search for a path from the start to a solution within the limits.
+     * @param start the start configuration
+     * @param limits the deadline, node limit and cancellation token
+     * @return the outcome of the search
+     */
+    SolveOutcome trySolve(Configuration start, SolveLimits limits);
+
+    /**
+     * Get the most bytes the engine's search may keep, so engines that
+     * run at the same time can stay within the heap together.
+     * @return the memory budget in bytes, or 0 if the search keeps next to nothing
+     */
+    default long getMemoryBudget() {
+        return 0;
+    }
+
+    /**
+     * Make an engine out of a search method.
+     * @param name the name the engine is reported by
+     * @param optimal whether the paths the search finds are shortest ones
+     * @param search the search method
+     * @return the engine
+     */
+    static SearchEngine of(String name, boolean optimal,
+                           BiFunction<Configuration, SolveLimits, SolveOutcome> search) {
+        return of(name, optimal, 0, search);
+    }
+
+    /**
+     * Make an engine out of a search method that keeps up to a memory budget.
+     * @param name the name the engine is reported by
+     * @param optimal whether the paths the search finds are shortest ones
+     * @param memoryBudget the most bytes the search may keep
+     * @param search the search method, which must stay within the budget
+     * @return the engine
+     */
+    static SearchEngine of(String name, boolean optimal, long memoryBudget,
+                           BiFunction<Configuration, SolveLimits, SolveOutcome> search) {
+        return new SearchEngine() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public boolean isOptimal() {
+                return optimal;
+            }
+
+            @Override
+            public SolveOutcome trySolve(Configuration start, SolveLimits limits) {
+                return search.apply(start, limits);
+            }
+
+            @Override
+            public long getMemoryBudget() {
+                return memoryBudget;
+            }
+        };
+    }
+}
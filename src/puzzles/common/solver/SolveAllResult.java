@@ -0,0 +1,154 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * The result of a search for every goal at once: the first configuration
+ * that reached each goal and how many moves it took, and the predecessor
+ * of every configuration visited, so the path to a goal is only built
+ * when it is asked for.
+ *
+ * @param <K> Type of the goals
+ * @author Ricky Leung & Boya Li
+ */
+public class SolveAllResult<K> {
+    /** The start configuration */
+    private final Configuration start;
+    /** Map from the key of each configuration visited to the configuration it was reached from */
+    private final Map<Object, Configuration> predecessors;
+    /** The first configuration to reach each goal, in the order the goals were reached */
+    private final Map<K, Configuration> firstReached;
+    /** Moves from the start to the first configuration to reach each goal */
+    private final Map<K, Integer> moves;
+    /** Why the search stopped early, or null if it searched everything it could reach */
+    private final String reason;
+    /** The number of configurations created */
+    private final int configCount;
+    /** The number of unique configurations created */
+    private final int uniqueConfigCount;
+    /** The time the search took in milliseconds */
+    private final long elapsedMillis;
+
+    /**
+     * Constructor for the result of a search for every goal
+     *
+     * @param start The start configuration
+     * @param predecessors Map from the key of each configuration to the configuration it was reached from
+     * @param firstReached The first configuration to reach each goal
+     * @param moves Moves from the start to the first configuration to reach each goal
+     * @param reason Why the search stopped early, or null if it finished
+     * @param configCount Number of configurations created
+     * @param uniqueConfigCount Number of unique configurations created
+     * @param elapsedMillis Time the search took in milliseconds
+     */
+    public SolveAllResult(Configuration start, Map<Object, Configuration> predecessors,
+                          Map<K, Configuration> firstReached, Map<K, Integer> moves, String reason,
+                          int configCount, int uniqueConfigCount, long elapsedMillis) {
+        this.start = start;
+        this.predecessors = predecessors;
+        this.firstReached = firstReached;
+        this.moves = moves;
+        this.reason = reason;
+        this.configCount = configCount;
+        this.uniqueConfigCount = uniqueConfigCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Getter method for the goals that were reached
+     *
+     * @return The goals, in the order they were first reached
+     */
+    public Set<K> getGoals() {
+        return Collections.unmodifiableSet(firstReached.keySet());
+    }
+
+    /**
+     * Checks if a goal was reached
+     *
+     * @param goal The goal
+     * @return True if some configuration reached it
+     */
+    public boolean isReached(K goal) {
+        return firstReached.containsKey(goal);
+    }
+
+    /**
+     * Gets the fewest moves from the start to a goal
+     *
+     * @param goal The goal
+     * @return Number of moves, or -1 if the goal was not reached
+     */
+    public int getMoves(K goal) {
+        Integer count = moves.get(goal);
+        return count == null ? -1 : count;
+    }
+
+    /**
+     * Builds a shortest path from the start to a goal, following the
+     * predecessors back from the first configuration that reached it
+     *
+     * @param goal The goal
+     * @return List of configurations from the start to the goal, or null
+     * if the goal was not reached
+     */
+    public List<Configuration> getPath(K goal) {
+        Configuration current = firstReached.get(goal);
+        if (current == null) {
+            return null;
+        }
+        LinkedList<Configuration> path = new LinkedList<>();
+        while (current != start) {
+            path.addFirst(current);
+            current = predecessors.get(current.getKey());
+        }
+        path.addFirst(start);
+        return path;
+    }
+
+    /**
+     * Checks if the search went through every configuration it could
+     * reach, so a goal that was not reached cannot be reached at all
+     *
+     * @return True if the search did not stop early
+     */
+    public boolean isComplete() {
+        return reason == null;
+    }
+
+    /**
+     * Getter method for why the search stopped early
+     *
+     * @return Reason, or null if the search finished
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Getter method for the configuration count
+     *
+     * @return Number of configurations created
+     */
+    public int getConfigCount() {
+        return configCount;
+    }
+
+    /**
+     * Getter method for the unique configuration count
+     *
+     * @return Number of unique configurations created
+     */
+    public int getUniqueConfigCount() {
+        return uniqueConfigCount;
+    }
+
+    /**
+     * Getter method for the time the search took
+     *
+     * @return Milliseconds the search took
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,108 @@
+package puzzles.common.solver;
+
+/**
+ * Limits on a single search: a deadline, a maximum number of configurations
+ * to expand, and an optional cancellation token. The solver checks them
+ * before expanding every configuration, so a pathological puzzle ends with
+ * a BUDGET_EXCEEDED or CANCELLED outcome instead of running forever.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class SolveLimits {
+    /** No deadline, no node limit, and no cancellation */
+    public static final SolveLimits NONE = new SolveLimits(Long.MAX_VALUE, Long.MAX_VALUE, null);
+    /** Reason given when the deadline has passed */
+    public static final String DEADLINE_PASSED = "deadline passed";
+    /** Reason given when too many configurations were expanded */
+    public static final String NODE_LIMIT_REACHED = "node limit reached";
+    /** Reason given when the search was cancelled */
+    public static final String CANCELLED = "cancelled";
+
+    /** Time, in milliseconds since the epoch, after which the search stops */
+    private final long deadline;
+    /** The most configurations the search may expand */
+    private final long maxExpanded;
+    /** Token that can cancel the search, or null */
+    private final CancellationToken token;
+
+    /**
+     * Constructor for the limits of a search
+     *
+     * @param deadline Time, in milliseconds since the epoch, after which
+     *                 the search stops; Long.MAX_VALUE for none
+     * @param maxExpanded Most configurations the search may expand;
+     *                    Long.MAX_VALUE for no limit
+     * @param token Token that can cancel the search, or null
+     */
+    public SolveLimits(long deadline, long maxExpanded, CancellationToken token) {
+        this.deadline = deadline;
+        this.maxExpanded = maxExpanded;
+        this.token = token;
+    }
+
+    /**
+     * Limits with only a deadline, a given time from now
+     *
+     * @param millis Milliseconds the search may run for
+     * @return The limits
+     */
+    public static SolveLimits timeout(long millis) {
+        return new SolveLimits(System.currentTimeMillis() + millis, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Getter method for the deadline
+     *
+     * @return Time, in milliseconds since the epoch, after which the search stops
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Getter method for the node limit
+     *
+     * @return Most configurations the search may expand
+     */
+    public long getMaxExpanded() {
+        return maxExpanded;
+    }
+
+    /**
+     * Getter method for the cancellation token
+     *
+     * @return Token that can cancel the search, or null
+     */
+    public CancellationToken getToken() {
+        return token;
+    }
+
+    /**
+     * Checks if the search has to stop before expanding another configuration
+     *
+     * @param expanded Number of configurations expanded so far
+     * @return Reason the search has to stop, or null if it may go on
+     */
+    public String stopReason(long expanded) {
+        if (token != null && token.isCancelled()) {
+            return CANCELLED;
+        }
+        if (expanded >= maxExpanded) {
+            return NODE_LIMIT_REACHED;
+        }
+        if (deadline != Long.MAX_VALUE && System.currentTimeMillis() >= deadline) {
+            return DEADLINE_PASSED;
+        }
+        return null;
+    }
+
+    /**
+     * The status a search ends with when it stops for a reason
+     *
+     * @param reason Reason returned by stopReason
+     * @return CANCELLED if the search was cancelled; BUDGET_EXCEEDED otherwise
+     */
+    public static SolveStatus statusFor(String reason) {
+        return CANCELLED.equals(reason) ? SolveStatus.CANCELLED : SolveStatus.BUDGET_EXCEEDED;
+    }
+}
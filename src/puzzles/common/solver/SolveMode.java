@@ -0,0 +1,13 @@
+package puzzles.common.solver;
+
+/**
+ * What the solver is asked to find.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public enum SolveMode {
+    /** A shortest path to a solution */
+    OPTIMAL,
+    /** Any path to a solution, or that there is none, touching as few configurations as possible */
+    SATISFICING
+}
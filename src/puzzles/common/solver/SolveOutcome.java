@@ -0,0 +1,146 @@
+package puzzles.common.solver;
+
+import java.util.List;
+
+/**
+ * The result of a call to the solver: how the search ended, the path it
+ * found (if any), and statistics about the search.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class SolveOutcome {
+    /** How the search ended */
+    private final SolveStatus status;
+    /** The path from the start to a solution, or null if none was found */
+    private final List<Configuration> path;
+    /** Why the search stopped early, or null if it finished */
+    private final String reason;
+    /** The number of configurations created */
+    private final int configCount;
+    /** The number of unique configurations created */
+    private final int uniqueConfigCount;
+    /** The number of configurations expanded */
+    private final long expandedCount;
+    /** The time the search took in milliseconds */
+    private final long elapsedMillis;
+    /** The name of the search strategy that produced this outcome */
+    private final String strategy;
+
+    /**
+     * Constructor for the outcome of a search
+     *
+     * @param status How the search ended
+     * @param path Path to a solution, or null if none was found
+     * @param reason Why the search stopped early, or null if it finished
+     * @param configCount Number of configurations created
+     * @param uniqueConfigCount Number of unique configurations created
+     * @param expandedCount Number of configurations expanded
+     * @param elapsedMillis Time the search took in milliseconds
+     * @param strategy Name of the search strategy that was used
+     */
+    public SolveOutcome(SolveStatus status, List<Configuration> path, String reason, int configCount,
+                        int uniqueConfigCount, long expandedCount, long elapsedMillis, String strategy) {
+        this.status = status;
+        this.path = path;
+        this.reason = reason;
+        this.configCount = configCount;
+        this.uniqueConfigCount = uniqueConfigCount;
+        this.expandedCount = expandedCount;
+        this.elapsedMillis = elapsedMillis;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Getter method for how the search ended
+     *
+     * @return Status of the search
+     */
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks if a solution was found
+     *
+     * @return True if the status is SOLVED
+     */
+    public boolean isSolved() {
+        return status == SolveStatus.SOLVED;
+    }
+
+    /**
+     * Getter method for the path to the solution
+     *
+     * @return List of configurations from the start to a solution, or
+     * null if no solution was found
+     */
+    public List<Configuration> getPath() {
+        return path;
+    }
+
+    /**
+     * Getter method for why the search stopped early
+     *
+     * @return Reason such as "deadline passed", or null if the search finished
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Getter method for the configuration count
+     *
+     * @return Configuration count
+     */
+    public int getConfigCount() {
+        return configCount;
+    }
+
+    /**
+     * Getter method for the unique configuration count
+     *
+     * @return Unique configuration count
+     */
+    public int getUniqueConfigCount() {
+        return uniqueConfigCount;
+    }
+
+    /**
+     * Getter method for the expanded configuration count
+     *
+     * @return Number of configurations whose neighbors were walked
+     */
+    public long getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Getter method for the time the search took
+     *
+     * @return Elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Getter method for the search strategy that produced the outcome
+     *
+     * @return Name of the strategy
+     */
+    public String getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Outcome's toString method
+     *
+     * @return String with the status, reason, strategy and statistics
+     */
+    @Override
+    public String toString() {
+        return status + (reason == null ? "" : ": " + reason) + " (" + strategy + ", " +
+                configCount + " configs, " + uniqueConfigCount + " unique, " +
+                expandedCount + " expanded, " + elapsedMillis + " ms)";
+    }
+}
@@ -0,0 +1,17 @@
+package puzzles.common.solver;
+
+/**
+ * How a call to the solver ended.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public enum SolveStatus {
+    /** A path to a solution was found */
+    SOLVED,
+    /** Every reachable configuration was searched and none is a solution */
+    UNSOLVABLE,
+    /** The search ran out of its memory, time or node budget before it could finish */
+    BUDGET_EXCEEDED,
+    /** The search was cancelled before it could finish */
+    CANCELLED
+}
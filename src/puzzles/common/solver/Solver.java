@@ -2,79 +2,479 @@ package puzzles.common.solver;
 
 import java.util.*;
 
+/**
+ * Common solver for every puzzle. It searches breadth-first, so the first
+ * solution found is a shortest one, while a memory governor estimates how
+ * many bytes the visited configurations take up. When the estimate passes
+ * the memory budget, the breadth-first tables are dropped and the search
+ * switches to iterative deepening, which only keeps the current path in
+ * memory, instead of letting the JVM run out of memory. When any solution
+ * will do, the satisficing mode searches greedy best-first instead, and
+ * solveAll finds a shortest path to every goal of a classifier in a
+ * single search. The breadth-first and best-first tables live in a
+ * SolverWorkspace, which can be passed in to reuse them across solves.
+ */
 public class Solver {
+    /** System property with the memory budget of the solver in megabytes */
+    public static final String MEMORY_BUDGET_PROPERTY = "puzzles.solver.memoryBudgetMB";
+    /**
+     * Estimated bytes of the table and queue slots kept for every visited
+     * configuration: The table is at most half full, and both arrays grow
+     * by doubling, which keeps the old arrays as well until they are copied
+     */
+    private static final int ENTRY_BYTES = 128;
+    /** Reason given when the memory budget runs out and the fallback is disabled */
+    public static final String MEMORY_BUDGET_EXCEEDED = "memory budget exceeded";
+    /** Name of the breadth-first strategy */
+    private static final String BFS = "breadth-first search";
+    /** Name of the greedy best-first strategy */
+    private static final String BEST_FIRST = "greedy best-first search";
+
     /** The number of configurations created */
     private int configCount;
     /** The number of unique configurations created */
     private int uniqueConfigCount;
+    /** The number of configurations expanded by the last search */
+    private long expandedCount;
+    /** The time the last search started, in milliseconds since the epoch */
+    private long startMillis;
+    /** The most bytes the visited configurations may take up before switching strategy */
+    private long memoryBudget;
+    /** Whether to switch to iterative deepening when the memory budget runs out */
+    private boolean fallbackEnabled;
+    /** The predecessor table and queue of the breadth-first and best-first searches */
+    private final SolverWorkspace workspace;
 
 
     /**
-     * Constructor for the Solver class
+     * Constructor for the Solver class, with a workspace of its own
      */
     public Solver() {
+        this(new SolverWorkspace());
+    }
+
+    /**
+     * Constructor for a Solver that searches in the given workspace, so
+     * its tables keep their size from earlier solves
+     *
+     * @param workspace The workspace; Only one search may use it at a time
+     */
+    public Solver(SolverWorkspace workspace) {
+        this.workspace = workspace;
         configCount = 1;
         uniqueConfigCount = 0;
+        memoryBudget = defaultMemoryBudget();
+        fallbackEnabled = true;
+    }
+
+    /**
+     * Solver method for using BFS to solve each puzzle.
+     *
+     * @param c The start configuration
+     * @return The shortest path, if there is a solution possible; null if
+     * there is no solution or the search ran out of its budget
+     * @see #trySolve(Configuration)
+     */
+    public Collection<Configuration> solve(Configuration c) {
+        return trySolve(c).getPath();
+    }
+
+    /**
+     * Solver method for finding a shortest path, or any path, to a solution
+     *
+     * @param c The start configuration
+     * @param mode Whether the path has to be a shortest one
+     * @return The path, if there is a solution possible; null if there is
+     * no solution or the search ran out of its budget
+     * @see #trySolve(Configuration, SolveLimits, SolveMode)
+     */
+    public Collection<Configuration> solve(Configuration c, SolveMode mode) {
+        return trySolve(c, SolveLimits.NONE, mode).getPath();
+    }
+
+    /**
+     * Solver method for using BFS to solve each puzzle, without any
+     * deadline, node limit or cancellation
+     *
+     * @param c The start configuration
+     * @return The outcome of the search
+     * @see #trySolve(Configuration, SolveLimits)
+     */
+    public SolveOutcome trySolve(Configuration c) {
+        return trySolve(c, SolveLimits.NONE);
     }
 
     /**
      * Solver method for using BFS to solve each puzzle:
      * Uses a queue to store neighbors and a hashmap to keep track of
-     * paths for traveling between configurations.
+     * paths for traveling between configurations. Neighbors are walked
+     * key-first, so a neighbor is only built when its key has not been
+     * visited, and it is checked for the solution as soon as it is built,
+     * so the search stops without building the rest of the last layer.
+     * Neighbors that are dead ends are kept as visited but never expanded,
+     * and a start that is a dead end is unsolvable right away.
+     * If the visited configurations outgrow the memory budget, the search
+     * continues with iterative deepening, or IDA* if the configurations
+     * give estimates, from the first depth BFS had not
+     * finished, or ends with BUDGET_EXCEEDED if the fallback is disabled.
+     * The limits are checked before every configuration is expanded; once
+     * one is hit the search ends with BUDGET_EXCEEDED, or CANCELLED if the
+     * token was cancelled.
      *
      * @param c The start configuration
-     * @return The shortest path, if there is a solution possible
+     * @param limits The deadline, node limit and cancellation token
+     * @return The outcome of the search
      */
-    public Collection<Configuration> solve(Configuration c) {
-        Queue<Configuration> queue = new LinkedList<>();
-        queue.add(c);
+    public SolveOutcome trySolve(Configuration c, SolveLimits limits) {
+        return trySolve(c, limits, SolveMode.OPTIMAL);
+    }
+
+    /**
+     * Solver method for finding a shortest path with BFS, or any path with
+     * greedy best-first search, within the given limits
+     *
+     * @param c The start configuration
+     * @param limits The deadline, node limit and cancellation token
+     * @param mode Whether the path has to be a shortest one
+     * @return The outcome of the search
+     * @see #trySolve(Configuration, SolveLimits)
+     * @see #bestFirst(Configuration, SolveLimits)
+     */
+    public SolveOutcome trySolve(Configuration c, SolveLimits limits, SolveMode mode) {
+        startMillis = System.currentTimeMillis();
+        expandedCount = 0;
+        if (mode == SolveMode.SATISFICING) {
+            return bestFirst(c, limits);
+        }
+        // Depth of the layer being expanded; every shallower layer has no solution
+        int depth = 0;
+        boolean overBudget = false;
+        workspace.clear();
+        workspace.putIfAbsent(c.getKey(), c);
+        uniqueConfigCount = 1;
+        long usedBytes = c.estimatedBytes() + ENTRY_BYTES;
+
+        if (c.isSolution()) {
+            return outcome(SolveStatus.SOLVED, constructPath(c, c), null, BFS);
+        }
+        if (c.isDeadEnd()) {
+            return outcome(SolveStatus.UNSOLVABLE, null, null, BFS);
+        }
 
-        Map<Configuration, Configuration> predecessors = new HashMap<>();
-        predecessors.put(c, c);
+        workspace.enqueue(c);
+        int layerRemaining = 1;
+        int nextLayer = 0;
 
-        Configuration current = null;
-        boolean solutionFound = false;
+        Configuration solution = null;
 
-        while (!queue.isEmpty() && !solutionFound) {
-            current = queue.remove();
-            if (current.isSolution()) {
-                solutionFound = true;
+        while (!workspace.isQueueEmpty() && solution == null && !overBudget) {
+            String stopReason = limits.stopReason(expandedCount);
+            if (stopReason != null) {
+                return outcome(SolveLimits.statusFor(stopReason), null, stopReason, BFS);
+            }
+            Configuration current = workspace.dequeue();
+            expandedCount++;
+
+            NeighborCursor neighbors = current.neighborCursor();
+            while (neighbors.advance()) {
+                configCount++;
+                Object key = neighbors.key();
+                if (workspace.putIfAbsent(key, current)) {
+                    Configuration neighbor = neighbors.build();
+                    uniqueConfigCount++;
+                    if (neighbor.isSolution()) {
+                        solution = neighbor;
+                        break;
+                    }
+                    // Stays visited, but is never expanded
+                    if (neighbor.isDeadEnd()) {
+                        continue;
+                    }
+                    workspace.enqueue(neighbor);
+                    nextLayer++;
+                    usedBytes += neighbor.estimatedBytes() + ENTRY_BYTES;
+                    if (usedBytes > memoryBudget) {
+                        overBudget = true;
+                        break;
+                    }
+                }
+            }
+            if (overBudget) {
+                // The layer was not finished, so depth stays at the layer being expanded
                 break;
             }
 
-            Collection<Configuration> neighbors = current.getNeighbors();
-            configCount += neighbors.size();
+            layerRemaining--;
+            if (layerRemaining == 0) {
+                depth++;
+                layerRemaining = nextLayer;
+                nextLayer = 0;
+            }
+        }
 
-            for (Configuration neighbor: neighbors) {
-                if (!predecessors.containsKey(neighbor)) {
-                    predecessors.put(neighbor, current);
+        if (solution != null) {
+            return outcome(SolveStatus.SOLVED, constructPath(c, solution), null, BFS);
+        }
+        if (!overBudget) {
+            return outcome(SolveStatus.UNSOLVABLE, null, null, BFS);
+        }
+
+        return fallback(c, depth + 1, limits, BFS);
+    }
+
+    /**
+     * Solver method for finding any path to a solution, or proving there
+     * is none, while touching as few configurations as possible:
+     * Configurations are expanded in order of their estimate, the most
+     * recently found first when estimates are equal, so without estimates
+     * the search goes depth-first. Neighbors are walked key-first and
+     * checked for the solution as soon as they are built, dead ends are
+     * not expanded, and the visited keys are kept, so running out of configurations proves there is no
+     * solution. The path found is not necessarily a shortest one. The
+     * memory budget and limits work as in breadth-first search.
+     *
+     * @param c The start configuration
+     * @param limits The deadline, node limit and cancellation token
+     * @return The outcome of the search
+     */
+    private SolveOutcome bestFirst(Configuration c, SolveLimits limits) {
+        workspace.clear();
+        workspace.putIfAbsent(c.getKey(), c);
+        uniqueConfigCount = 1;
+        long usedBytes = c.estimatedBytes() + ENTRY_BYTES;
+
+        if (c.isSolution()) {
+            return outcome(SolveStatus.SOLVED, constructPath(c, c), null, BEST_FIRST);
+        }
+        if (c.isDeadEnd()) {
+            return outcome(SolveStatus.UNSOLVABLE, null, null, BEST_FIRST);
+        }
+
+        PriorityQueue<Candidate> open = new PriorityQueue<>();
+        long found = 0;
+        open.add(new Candidate(c, c.estimate(), found++));
+
+        while (!open.isEmpty()) {
+            String stopReason = limits.stopReason(expandedCount);
+            if (stopReason != null) {
+                return outcome(SolveLimits.statusFor(stopReason), null, stopReason, BEST_FIRST);
+            }
+            Configuration current = open.remove().config;
+            expandedCount++;
+
+            NeighborCursor neighbors = current.neighborCursor();
+            while (neighbors.advance()) {
+                configCount++;
+                Object key = neighbors.key();
+                if (workspace.putIfAbsent(key, current)) {
+                    Configuration neighbor = neighbors.build();
+                    uniqueConfigCount++;
+                    if (neighbor.isSolution()) {
+                        return outcome(SolveStatus.SOLVED, constructPath(c, neighbor), null, BEST_FIRST);
+                    }
+                    if (neighbor.isDeadEnd()) {
+                        continue;
+                    }
+                    open.add(new Candidate(neighbor, neighbor.estimate(), found++));
+                    usedBytes += neighbor.estimatedBytes() + ENTRY_BYTES;
+                    if (usedBytes > memoryBudget) {
+                        return fallback(c, 1, limits, BEST_FIRST);
+                    }
+                }
+            }
+        }
+        return outcome(SolveStatus.UNSOLVABLE, null, null, BEST_FIRST);
+    }
+
+    /**
+     * Searches breadth-first for a shortest path to every goal, without
+     * any deadline, node limit or cancellation
+     *
+     * @param start The start configuration
+     * @param classifier Gives the goals each configuration reaches
+     * @param <K> Type of the goals
+     * @return The first configuration to reach each goal, and the paths to them
+     * @see #solveAll(Configuration, GoalClassifier, SolveLimits)
+     */
+    public <K> SolveAllResult<K> solveAll(Configuration start, GoalClassifier<K> classifier) {
+        return solveAll(start, classifier, SolveLimits.NONE);
+    }
+
+    /**
+     * Searches breadth-first for a shortest path to every goal at once:
+     * Instead of stopping at the first solution, the search goes through
+     * every configuration it can reach, and the first configuration to
+     * reach a goal is kept for it, along with the predecessor map every
+     * path is built from when it is asked for. Dead ends are expanded like
+     * any other configuration, since they only say no solution can be
+     * reached, not that no goal can. When the limits or the memory budget
+     * run out the search stops, and the goals reached so far keep their
+     * shortest paths; There is no fallback, since iterative deepening
+     * cannot keep the paths to every goal. The tables are not kept in the
+     * workspace, since the result holds on to them.
+     *
+     * @param start The start configuration
+     * @param classifier Gives the goals each configuration reaches
+     * @param limits The deadline, node limit and cancellation token
+     * @param <K> Type of the goals
+     * @return The first configuration to reach each goal, and the paths to them
+     */
+    public <K> SolveAllResult<K> solveAll(Configuration start, GoalClassifier<K> classifier, SolveLimits limits) {
+        startMillis = System.currentTimeMillis();
+        expandedCount = 0;
+        Map<Object, Configuration> predecessors = new HashMap<>();
+        Map<K, Configuration> firstReached = new LinkedHashMap<>();
+        Map<K, Integer> moves = new HashMap<>();
+        predecessors.put(start.getKey(), start);
+        uniqueConfigCount = 1;
+        long usedBytes = start.estimatedBytes() + ENTRY_BYTES;
+        reach(start, 0, classifier, firstReached, moves);
+
+        Queue<Configuration> queue = new LinkedList<>();
+        queue.add(start);
+        int depth = 0;
+        int layerRemaining = 1;
+        int nextLayer = 0;
+        String stopReason = null;
+
+        while (!queue.isEmpty() && stopReason == null) {
+            stopReason = limits.stopReason(expandedCount);
+            if (stopReason != null) {
+                break;
+            }
+            Configuration current = queue.remove();
+            expandedCount++;
+
+            NeighborCursor neighbors = current.neighborCursor();
+            while (neighbors.advance()) {
+                configCount++;
+                Object key = neighbors.key();
+                if (!predecessors.containsKey(key)) {
+                    Configuration neighbor = neighbors.build();
+                    predecessors.put(key, current);
+                    uniqueConfigCount++;
+                    reach(neighbor, depth + 1, classifier, firstReached, moves);
                     queue.add(neighbor);
+                    nextLayer++;
+                    usedBytes += neighbor.estimatedBytes() + ENTRY_BYTES;
+                    if (usedBytes > memoryBudget) {
+                        stopReason = MEMORY_BUDGET_EXCEEDED;
+                        break;
+                    }
                 }
             }
+
+            layerRemaining--;
+            if (layerRemaining == 0) {
+                depth++;
+                layerRemaining = nextLayer;
+                nextLayer = 0;
+            }
         }
-        uniqueConfigCount = predecessors.size();
+        return new SolveAllResult<>(start, predecessors, firstReached, moves, stopReason, configCount,
+                uniqueConfigCount, System.currentTimeMillis() - startMillis);
+    }
 
-        if (solutionFound) {
-            return constructPath(predecessors, c, current);
+    /**
+     * Helper method used in solveAll to keep a configuration as the first
+     * to reach each of its goals that no earlier configuration reached
+     *
+     * @param c The configuration
+     * @param depth Moves from the start to the configuration
+     * @param classifier Gives the goals each configuration reaches
+     * @param firstReached The first configuration to reach each goal so far
+     * @param moves Moves from the start to the first configuration to reach each goal so far
+     * @param <K> Type of the goals
+     */
+    private static <K> void reach(Configuration c, int depth, GoalClassifier<K> classifier,
+                                  Map<K, Configuration> firstReached, Map<K, Integer> moves) {
+        for (K goal : classifier.classify(c)) {
+            if (firstReached.putIfAbsent(goal, c) == null) {
+                moves.put(goal, depth);
+            }
         }
-        return null;
     }
 
     /**
-     * Helper method used in solve to construct the path based on
+     * Helper method used when a search outgrows the memory budget: the
+     * search continues with iterative deepening, or IDA* if the
+     * configurations give estimates, or ends with BUDGET_EXCEEDED if the
+     * fallback is disabled
+     *
+     * @param c The start configuration
+     * @param firstBound The first depth that is not known to have no solution
+     * @param limits The deadline, node limit and cancellation token
+     * @param strategy Name of the strategy that ran out of memory
+     * @return The outcome of the search
+     */
+    private SolveOutcome fallback(Configuration c, int firstBound, SolveLimits limits, String strategy) {
+        // The tables are too large to keep, whether or not the search goes on
+        workspace.release();
+        if (!fallbackEnabled) {
+            return outcome(SolveStatus.BUDGET_EXCEEDED, null, MEMORY_BUDGET_EXCEEDED, strategy);
+        }
+        IterativeDeepeningSolver fallback = new IterativeDeepeningSolver();
+        List<Configuration> path = fallback.search(c, firstBound, limits, expandedCount);
+        configCount += fallback.getConfigCount();
+        expandedCount = fallback.getExpandedCount();
+        String stopReason = fallback.getStopReason();
+        if (stopReason != null) {
+            return outcome(SolveLimits.statusFor(stopReason), null, stopReason, fallback.getStrategy());
+        }
+        return outcome(path == null ? SolveStatus.UNSOLVABLE : SolveStatus.SOLVED, path, null,
+                fallback.getStrategy());
+    }
+
+    /**
+     * Helper method used in trySolve to create the outcome with the
+     * statistics of the search so far
+     *
+     * @param status How the search ended
+     * @param path Path to a solution, or null if none was found
+     * @param reason Why the search stopped early, or null if it finished
+     * @param strategy Name of the search strategy that was used
+     * @return The outcome
+     */
+    private SolveOutcome outcome(SolveStatus status, List<Configuration> path, String reason, String strategy) {
+        return new SolveOutcome(status, path, reason, configCount, uniqueConfigCount, expandedCount,
+                System.currentTimeMillis() - startMillis, strategy);
+    }
+
+    /**
+     * Helper method used in trySolve to construct the path based on the
+     * predecessors in the workspace
+     *
+     * @param start Original start configuration
+     * @param end End configuration
+     * @return List of configurations representing the shortest path
+     */
+    private List<Configuration> constructPath(Configuration start, Configuration end) {
+        LinkedList<Configuration> path = new LinkedList<>();
+        Configuration current = end;
+        while (current != start) {
+            path.addFirst(current);
+            current = workspace.get(current.getKey());
+        }
+        path.addFirst(current);
+        return path;
+    }
+
+    /**
+     * Helper method used to construct the path based on
      * the given predecessor map
      *
-     * @param predecessors Map of configuration traversals
+     * @param predecessors Map from the key of each configuration to the
+     *                     configuration it was reached from
      * @param start Original start configuration
      * @param end End configuration
      * @return List of configurations representing the shortest path
      */
-    public List<Configuration> constructPath(Map<Configuration, Configuration> predecessors, Configuration start, Configuration end) {
+    public List<Configuration> constructPath(Map<Object, Configuration> predecessors, Configuration start, Configuration end) {
         List<Configuration> path = new LinkedList<>();
         Configuration current = end;
         while (current != start) {
             path.add(0, current);
-            current = predecessors.get(current);
+            current = predecessors.get(current.getKey());
         }
         path.add(0, current);
         return path;
@@ -97,4 +497,98 @@ public class Solver {
     public int getUniqueConfigCount() {
         return uniqueConfigCount;
     }
+
+    /**
+     * Getter method for the expanded configuration count
+     *
+     * @return Number of configurations expanded by the last search
+     */
+    public long getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Getter method for the memory budget
+     *
+     * @return Most bytes the visited configurations may take up
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Setter method for the memory budget
+     *
+     * @param memoryBudget Most bytes the visited configurations may take up
+     *                     before the search switches strategy
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Setter method for whether the search switches to iterative deepening
+     * when the memory budget runs out, instead of giving up
+     *
+     * @param fallbackEnabled True to switch strategy; false to give up
+     */
+    public void setFallbackEnabled(boolean fallbackEnabled) {
+        this.fallbackEnabled = fallbackEnabled;
+    }
+
+    /**
+     * The default memory budget: the system property, in megabytes, if it
+     * is set; otherwise half of the maximum heap size, which leaves the
+     * rest for the configurations the estimates leave out. Solvers
+     * that run at the same time have to split it between them
+     *
+     * @return Memory budget in bytes
+     */
+    public static long defaultMemoryBudget() {
+        String megabytes = System.getProperty(MEMORY_BUDGET_PROPERTY);
+        if (megabytes != null) {
+            return Long.parseLong(megabytes) * 1024 * 1024;
+        }
+        return Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    /**
+     * A configuration waiting to be expanded by the best-first search,
+     * ordered by its estimate and then by the most recently found first
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        /** The configuration */
+        private final Configuration config;
+        /** Estimated moves from the configuration to a solution */
+        private final int estimate;
+        /** How many configurations were found before this one */
+        private final long order;
+
+        /**
+         * Constructor for a candidate
+         *
+         * @param config The configuration
+         * @param estimate Estimated moves to a solution
+         * @param order How many configurations were found before this one
+         */
+        private Candidate(Configuration config, int estimate, long order) {
+            this.config = config;
+            this.estimate = estimate;
+            this.order = order;
+        }
+
+        /**
+         * Compares candidates by estimate, then the most recently found first
+         *
+         * @param other Other candidate
+         * @return Negative if this candidate is expanded first
+         */
+        @Override
+        public int compareTo(Candidate other) {
+            if (estimate != other.estimate) {
+                return Integer.compare(estimate, other.estimate);
+            }
+            return Long.compare(other.order, order);
+        }
+    }
 }
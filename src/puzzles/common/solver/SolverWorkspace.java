@@ -0,0 +1,236 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+
+/**
+ * The tables a breadth-first search fills, kept between searches so
+ * repeated solves, like the hints of a game or a batch of puzzles, do not
+ * allocate and rehash them again every time. The predecessor table is an
+ * open-addressing table whose slots are stamped with the search that
+ * wrote them, so clearing it for the next search only moves the stamp on
+ * instead of touching every slot, and the queue is a ring buffer. Both
+ * keep the size they grew to.
+ * <p>
+ * Entries of an earlier search stay in their slots until they are written
+ * over, so the configurations in them cannot be garbage collected until
+ * then; release drops the tables when that matters. A workspace is used
+ * by one search at a time.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class SolverWorkspace {
+    /** Number of slots of a new table, and of the queue */
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    /** Key of the configuration in each slot */
+    private Object[] keys;
+    /** Configuration each configuration in a slot was reached from */
+    private Configuration[] predecessors;
+    /** Search in which each slot was written */
+    private int[] stamps;
+    /** The current search; slots written in earlier ones are empty */
+    private int stamp;
+    /** The number of entries written in the current search */
+    private int size;
+    /** Configurations waiting to be expanded, from head to tail around the array */
+    private Configuration[] queue;
+    /** Index of the first configuration in the queue */
+    private int head;
+    /** The number of configurations in the queue */
+    private int queued;
+
+    /**
+     * Constructor for an empty workspace
+     */
+    public SolverWorkspace() {
+        release();
+    }
+
+    /**
+     * Empties the table and queue for the next search, keeping their size;
+     * Only the configurations left in the queue are cleared
+     */
+    public void clear() {
+        stamp++;
+        if (stamp == 0) {
+            // Every stamp was used; start over so no slot looks current
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        size = 0;
+        while (queued > 0) {
+            queue[head] = null;
+            head = (head + 1) & (queue.length - 1);
+            queued--;
+        }
+        head = 0;
+    }
+
+    /**
+     * Drops the tables and queue for new small ones, so the configurations
+     * of earlier searches can be garbage collected
+     */
+    public void release() {
+        keys = new Object[INITIAL_CAPACITY];
+        predecessors = new Configuration[INITIAL_CAPACITY];
+        stamps = new int[INITIAL_CAPACITY];
+        stamp = 1;
+        size = 0;
+        queue = new Configuration[INITIAL_CAPACITY];
+        head = 0;
+        queued = 0;
+    }
+
+    /**
+     * Checks if a configuration was reached in the current search
+     *
+     * @param key Key of the configuration
+     * @return True if its key is in the table
+     */
+    public boolean containsKey(Object key) {
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * Gets the configuration a configuration was reached from
+     *
+     * @param key Key of the configuration
+     * @return The configuration it was reached from, or null if it was not reached
+     */
+    public Configuration get(Object key) {
+        int slot = slotOf(key);
+        return slot < 0 ? null : predecessors[slot];
+    }
+
+    /**
+     * Records the configuration a configuration was reached from, unless
+     * it was already reached in the current search
+     *
+     * @param key Key of the configuration
+     * @param predecessor The configuration it was reached from
+     * @return True if it was not reached before
+     */
+    public boolean putIfAbsent(Object key, Configuration predecessor) {
+        if (size * 2 >= keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        while (stamps[slot] == stamp) {
+            if (keys[slot].equals(key)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        predecessors[slot] = predecessor;
+        stamps[slot] = stamp;
+        size++;
+        return true;
+    }
+
+    /**
+     * Getter method for the number of configurations reached in the current search
+     *
+     * @return Number of entries in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a configuration to the back of the queue
+     *
+     * @param c The configuration
+     */
+    public void enqueue(Configuration c) {
+        if (queued == queue.length) {
+            Configuration[] larger = new Configuration[queue.length * 2];
+            for (int i = 0; i < queued; i++) {
+                larger[i] = queue[(head + i) & (queue.length - 1)];
+            }
+            queue = larger;
+            head = 0;
+        }
+        queue[(head + queued) & (queue.length - 1)] = c;
+        queued++;
+    }
+
+    /**
+     * Removes the configuration at the front of the queue
+     *
+     * @return The configuration, or null if the queue is empty
+     */
+    public Configuration dequeue() {
+        if (queued == 0) {
+            return null;
+        }
+        Configuration c = queue[head];
+        queue[head] = null;
+        head = (head + 1) & (queue.length - 1);
+        queued--;
+        return c;
+    }
+
+    /**
+     * Checks if the queue is empty
+     *
+     * @return True if no configuration is waiting to be expanded
+     */
+    public boolean isQueueEmpty() {
+        return queued == 0;
+    }
+
+    /**
+     * Finds the slot of a key written in the current search
+     *
+     * @param key The key
+     * @return Slot of the key, or -1 if it is not in the table
+     */
+    private int slotOf(Object key) {
+        int mask = keys.length - 1;
+        for (int slot = spread(key.hashCode()) & mask; stamps[slot] == stamp; slot = (slot + 1) & mask) {
+            if (keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Doubles the table, moving over only the entries of the current search
+     */
+    private void grow() {
+        Object[] oldKeys = keys;
+        Configuration[] oldPredecessors = predecessors;
+        int[] oldStamps = stamps;
+        keys = new Object[oldKeys.length * 2];
+        predecessors = new Configuration[oldKeys.length * 2];
+        stamps = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldStamps[old] != stamp) {
+                continue;
+            }
+            int slot = spread(oldKeys[old].hashCode()) & mask;
+            while (stamps[slot] == stamp) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[old];
+            predecessors[slot] = oldPredecessors[old];
+            stamps[slot] = stamp;
+        }
+    }
+
+    /**
+     * Spreads the bits of a hash code so keys with close hash codes land
+     * in different parts of the table
+     *
+     * @param hash Hash code of a key
+     * @return The spread hash
+     */
+    private static int spread(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
@@ -0,0 +1,137 @@
+package puzzles.common.solver;
+
+/**
+ * A fixed-size table of the configurations a depth-first search has
+ * already reached, and how many moves it took to reach them. Every key
+ * hashes to a bucket of two slots: the first keeps the entry reached in
+ * the fewest moves, since pruning it saves the largest subtree, and the
+ * second is always replaced by the newest entry. The table never grows,
+ * so it only prunes some revisits, but its memory use is fixed.
+ * <p>
+ * The table also remembers which configurations were cut off by the bound
+ * of the iteration. A cut off configuration that is reached again with
+ * fewer moves no longer counts, so the next bound is not raised for
+ * configurations that were searched after all.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+class TranspositionTable {
+    /** Value returned by visit when the configuration can be pruned */
+    static final int PRUNE = -1;
+
+    /** Keys of the stored configurations */
+    private final Object[] keys;
+    /** Moves it took to reach each stored configuration */
+    private final int[] costs;
+    /** Bound each stored configuration needed, or 0 if it was not cut off */
+    private final int[] cutBounds;
+    /** Iteration in which each slot was written */
+    private final int[] stamps;
+    /** Mask that turns a hash into an even slot index */
+    private final int mask;
+    /** The current iteration; slots written in earlier ones are empty */
+    private int stamp;
+    /** The number of entries stored in the current iteration */
+    private int stored;
+    /** The smallest bound needed by a cut off entry that was replaced */
+    private int evictedBound;
+
+    /**
+     * Constructor for the transposition table
+     *
+     * @param size Number of slots; Rounded up to a power of two, at least two
+     */
+    TranspositionTable(int size) {
+        int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        keys = new Object[capacity];
+        costs = new int[capacity];
+        cutBounds = new int[capacity];
+        stamps = new int[capacity];
+        mask = capacity - 2;
+        stamp = 1;
+        evictedBound = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Empties the table for the next iteration without touching its arrays
+     */
+    void clear() {
+        stamp++;
+        stored = 0;
+        evictedBound = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Checks if a configuration was already reached in the current
+     * iteration with at most the given number of moves, and records it
+     * otherwise
+     *
+     * @param key Key of the configuration
+     * @param cost Moves it took to reach the configuration
+     * @return PRUNE if the configuration can be pruned; otherwise the slot
+     * it was recorded in, to pass to cut
+     */
+    int visit(Object key, int cost) {
+        int hash = key.hashCode();
+        int first = (hash ^ (hash >>> 16)) & mask;
+        int second = first + 1;
+        for (int slot = first; slot <= second; slot++) {
+            if (stamps[slot] == stamp && keys[slot].equals(key)) {
+                if (costs[slot] <= cost) {
+                    return PRUNE;
+                }
+                costs[slot] = cost;
+                cutBounds[slot] = 0;
+                return slot;
+            }
+        }
+        int slot = stamps[first] != stamp || cost <= costs[first] ? first : second;
+        if (stamps[slot] == stamp) {
+            if (cutBounds[slot] > 0) {
+                evictedBound = Math.min(evictedBound, cutBounds[slot]);
+            }
+        } else {
+            stored++;
+        }
+        keys[slot] = key;
+        costs[slot] = cost;
+        cutBounds[slot] = 0;
+        stamps[slot] = stamp;
+        return slot;
+    }
+
+    /**
+     * Records that the configuration just visited was cut off by the bound
+     *
+     * @param slot Slot returned by visit
+     * @param bound Bound the configuration would have needed
+     */
+    void cut(int slot, int bound) {
+        cutBounds[slot] = bound;
+    }
+
+    /**
+     * The smallest bound needed by a configuration that was cut off in the
+     * current iteration and not reached again with fewer moves
+     *
+     * @return Smallest bound, or Integer.MAX_VALUE if nothing was cut off
+     */
+    int nextBound() {
+        int bound = evictedBound;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (stamps[slot] == stamp && cutBounds[slot] > 0) {
+                bound = Math.min(bound, cutBounds[slot]);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Getter method for the number of entries in the current iteration
+     *
+     * @return Number of stored entries
+     */
+    int getStored() {
+        return stored;
+    }
+}
@@ -9,11 +9,14 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
+import puzzles.common.Coordinates;
+import puzzles.common.ModelEvent;
 import puzzles.common.Observer;
 import puzzles.tilt.model.TiltConfig;
 import puzzles.tilt.model.TiltModel;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
@@ -25,7 +28,7 @@ import java.io.File;
  *
  * @author Boya Li
  */
-public class TiltGUI extends Application implements Observer<TiltModel, String> {
+public class TiltGUI extends Application implements Observer<TiltModel, ModelEvent> {
     /** The resources directory is located directly underneath the gui package */
     private final static String RESOURCES_DIR = "resources/";
     /** The model.*/
@@ -38,6 +41,16 @@ public class TiltGUI extends Application implements Observer<TiltModel, String>
     private BorderPane innerBorder;
     /** The GridPane of images of the board.*/
     private GridPane grid;
+    /** The view of each slot of the board, in the GridPane.*/
+    private ImageView[][] cells;
+    /** The image of a block, and of an empty slot when whitened.*/
+    private final Image block = new Image("puzzles/tilt/gui/resources/block.png");
+    /** The image of the hole.*/
+    private final Image hole = new Image("puzzles/tilt/gui/resources/hole.png");
+    /** The image of a blue slider.*/
+    private final Image blue = new Image("puzzles/tilt/gui/resources/blue.png");
+    /** The image of a green slider.*/
+    private final Image green = new Image("puzzles/tilt/gui/resources/green.png");
     /** The stage.*/
     private Stage stage = new Stage();
     /** The current file.*/
@@ -46,13 +59,14 @@ public class TiltGUI extends Application implements Observer<TiltModel, String>
     /**
      * When the GUI is initiated, it will acquire the file,
      * set a new TiltModel, load the board from the file,
-     * and add this as an observer.
+     * and add this as an observer, which is updated on the JavaFX
+     * thread with the changes since its last update.
      */
     public void init() {
         file = getParameters().getRaw().get(0);
         this.model = new TiltModel();
         this.model.loadBoardFromFile(file);
-        model.addObserver(this);
+        model.addObserver(this, Platform::runLater);
     }
 
     /**
@@ -96,9 +110,17 @@ public class TiltGUI extends Application implements Observer<TiltModel, String>
         hint.setOnAction(event -> {
             model.getHint();
         });
+        Button undo = new Button("Undo");
+        undo.setOnAction(event -> {
+            model.undo();
+        });
+        Button redo = new Button("Redo");
+        redo.setOnAction(event -> {
+            model.redo();
+        });
 
         VBox buttons = new VBox();
-        buttons.getChildren().addAll(load, reset, hint);
+        buttons.getChildren().addAll(load, reset, hint, undo, redo);
         buttons.setAlignment(Pos.CENTER);
         outerBorder.setRight(buttons);
 
@@ -146,42 +168,60 @@ public class TiltGUI extends Application implements Observer<TiltModel, String>
     }
 
     /**
-     * Checks whether a new file has been loaded. Either way it would
-     * update the board and would update the message label at the top
-     * with the respective message.
+     * Checks whether a new file has been loaded, which builds the grid
+     * again for its size. Either way it would update the cells that
+     * changed, or the whole board if they are not known, and would update
+     * the message label at the top with the latest message.
      *
      * @param tiltModel the object that wishes to inform this object
      *                about something that has happened.
-     * @param message optional data the server.model can send to the observer
+     * @param event What changed since the last update, with the latest
+     * message.
      *
      */
     @Override
-    public void update(TiltModel tiltModel, String message) {
-        if(message.length() > 6) {
-            if(message.startsWith("Loaded")) {
-                this.grid = new GridPane();
-                this.grid.setMinHeight(500);
-                this.grid.setMaxHeight(500);
-                this.grid.setMinHeight(500);
-                this.grid.setMaxWidth(500);
-
-                for(int row = 0; row < model.getConfig().getSize(); row++) {
-                    for(int col = 0; col < model.getConfig().getSize(); col++) {
-                        Image image = new Image("puzzles/tilt/gui/resources/block.png");
-                        ColorAdjust white = new ColorAdjust();
-                        white.setBrightness(100000);
-                        ImageView blank = new ImageView(image);
-                        blank.setFitHeight((double) 500 / model.getConfig().getSize());
-                        blank.setFitWidth((double) 500 / model.getConfig().getSize());
-                        blank.setEffect(white);
-                        grid.add(blank, col, row);
-                    }
+    public void update(TiltModel tiltModel, ModelEvent event) {
+        if(event.isLoaded()) {
+            this.grid = new GridPane();
+            this.grid.setMinHeight(500);
+            this.grid.setMaxHeight(500);
+            this.grid.setMinHeight(500);
+            this.grid.setMaxWidth(500);
+
+            TiltConfig curr = model.getConfig();
+            this.cells = new ImageView[curr.getRows()][curr.getCols()];
+            for(int row = 0; row < curr.getRows(); row++) {
+                for(int col = 0; col < curr.getCols(); col++) {
+                    ImageView cell = new ImageView();
+                    cell.setFitHeight(cellSize());
+                    cell.setFitWidth(cellSize());
+                    cells[row][col] = cell;
+                    grid.add(cell, col, row);
                 }
-                innerBorder.setCenter(this.grid);
+            }
+            innerBorder.setCenter(this.grid);
+        }
+        this.message.setText(event.getMessage());
+        if(event.isEveryCellChanged()) {
+            displayBoard();
+        }
+        else {
+            TiltConfig curr = this.model.getConfig();
+            for(Coordinates cell : event.getChangedCells()) {
+                displayCell(curr, cell.row(), cell.col());
             }
         }
-        this.message.setText(message);
-        displayBoard();
+    }
+
+    /**
+     * Gets the size of a cell of the board on screen, so the longer side
+     * of the board fits in the grid.
+     *
+     * @return A double representing the width and height of a cell.
+     */
+    private double cellSize() {
+        TiltConfig curr = this.model.getConfig();
+        return (double) 500 / Math.max(curr.getRows(), curr.getCols());
     }
 
     /**
@@ -190,51 +230,45 @@ public class TiltGUI extends Application implements Observer<TiltModel, String>
      */
     public void displayBoard() {
         TiltConfig curr = this.model.getConfig();
-        String[][] board = curr.getBoardGUI();
-        for(int row = 0; row < curr.getSize(); row++) {
-            for(int col = 0; col < curr.getSize(); col++) {
-                if(board[row][col].equals("*")) {
-                    Image pic = new Image("puzzles/tilt/gui/resources/block.png");
-                    ImageView image = new ImageView(pic);
-                    image.setFitHeight((double) 500 / model.getConfig().getSize());
-                    image.setFitWidth((double) 500 / model.getConfig().getSize());
-                    grid.add(image, col, row);
-                }
-                else if(board[row][col].equals("O")) {
-                    Image pic = new Image("puzzles/tilt/gui/resources/hole.png");
-                    ImageView image = new ImageView(pic);
-                    image.setFitHeight((double) 500 / model.getConfig().getSize());
-                    image.setFitWidth((double) 500 / model.getConfig().getSize());
-                    grid.add(image, col, row);
-                }
-                else if(board[row][col].equals("B")) {
-                    Image pic = new Image("puzzles/tilt/gui/resources/blue.png");
-                    ImageView image = new ImageView(pic);
-                    image.setFitHeight((double) 500 / model.getConfig().getSize());
-                    image.setFitWidth((double) 500 / model.getConfig().getSize());
-                    grid.add(image, col, row);
-                }
-                else if (board[row][col].equals("G")) {
-                    Image pic = new Image("puzzles/tilt/gui/resources/green.png");
-                    ImageView image = new ImageView(pic);
-                    image.setFitHeight((double) 500 / model.getConfig().getSize());
-                    image.setFitWidth((double) 500 / model.getConfig().getSize());
-                    grid.add(image, col, row);
-                }
-                else {
-                    Image image = new Image("puzzles/tilt/gui/resources/block.png");
-                    ColorAdjust white = new ColorAdjust();
-                    white.setBrightness(100000);
-                    ImageView blank = new ImageView(image);
-                    blank.setFitHeight((double) 500 / model.getConfig().getSize());
-                    blank.setFitWidth((double) 500 / model.getConfig().getSize());
-                    blank.setEffect(white);
-                    grid.add(blank, col, row);
-                }
+        for(int row = 0; row < curr.getRows(); row++) {
+            for(int col = 0; col < curr.getCols(); col++) {
+                displayCell(curr, row, col);
             }
         }
     }
 
+    /**
+     * Shows the image of what is in a slot of the board in the view of
+     * that slot, which is reused instead of adding a new one every time.
+     *
+     * @param curr The configuration that is shown.
+     * @param row The row of the slot.
+     * @param col The column of the slot.
+     */
+    private void displayCell(TiltConfig curr, int row, int col) {
+        ImageView cell = cells[row][col];
+        String value = curr.getValue(row, col);
+        cell.setEffect(null);
+        if(value.equals("*")) {
+            cell.setImage(block);
+        }
+        else if(value.equals("O")) {
+            cell.setImage(hole);
+        }
+        else if(value.equals("B")) {
+            cell.setImage(blue);
+        }
+        else if(value.equals("G")) {
+            cell.setImage(green);
+        }
+        else {
+            ColorAdjust white = new ColorAdjust();
+            white.setBrightness(100000);
+            cell.setImage(block);
+            cell.setEffect(white);
+        }
+    }
+
     /**
      * This is the main method. It would launch the application.
      *
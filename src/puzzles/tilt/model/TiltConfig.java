@@ -1,65 +1,134 @@
 package puzzles.tilt.model;
 
+import puzzles.common.Coordinates;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.LazyNeighborIterator;
+import puzzles.common.solver.NeighborCursor;
+import puzzles.common.solver.PackedKey;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Objects;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 
 /**
  * Tilt configuration class that implements the Configuration
- * interface and is used to solve the Tilt puzzles.
+ * interface and is used to solve the Tilt puzzles. A configuration only
+ * keeps where its blue and green sliders are, as sorted lists of cells;
+ * The board, which may be rectangular, and its blocks and holes are kept
+ * once in the TiltContext of the puzzle, so a configuration costs memory
+ * for its sliders and not for the size of the board.
  *
  * @author Boya Li
  */
 public class TiltConfig implements Configuration {
-    /** The size of the board.*/
-    private int size;
-    /** The number of green sliders left for that specific board.*/
-    private int greenSliderNum;
-    /** The number of green sliders left for the GUI board.*/
-    private int greenSliderNumGUI;
-    /** The board of the current configuration.*/
-    private String[][] board;
-    /** The board of the GUI.*/
-    private String[][] boardGUI;
+    /** The number of directions the board can be tilted in.*/
+    private static final int DIRECTIONS = 4;
+    /** The commands of north, east, south, and west.*/
+    private static final String DIRECTION_COMMANDS = "NESW";
+    /** The names of north, east, south, and west.*/
+    private static final String[] DIRECTION_NAMES = {"North", "East", "South", "West"};
+    /** The cell code of an empty cell.*/
+    static final byte EMPTY = 0;
+    /** The cell code of a blue slider.*/
+    static final byte BLUE = 1;
+    /** The cell code of a green slider.*/
+    static final byte GREEN = 2;
+    /** The cell code of a block.*/
+    static final byte BLOCK = 3;
+    /** The cell code of a hole.*/
+    static final byte HOLE = 4;
+    /** The board symbol of each cell code.*/
+    private static final String[] SYMBOLS = {".", "B", "G", "*", "O"};
+    /** The number of cells packed into a single long of a dense key.*/
+    private static final int CELLS_PER_WORD = Long.SIZE / 2;
+    /** The most cells a board can have to get keys with two bits a cell.*/
+    private static final int DENSE_KEY_CELLS = 256;
+    /** The blocks and holes of the puzzle, shared by all of its configurations.*/
+    private final TiltContext context;
+    /** The cells of the blue sliders, in row-major order.*/
+    private int[] blues;
+    /** The cells of the green sliders left, in row-major order.*/
+    private int[] greens;
 
     /**
      * Constructor for the Tilt Configuration class.
      *
-     * @param size The size of the board.
-     * @param greenSliderNum The number of green sliders left.
-     * @param board The board of the configuration.
+     * @param board The board of the configuration, which may be rectangular.
      */
-    public TiltConfig(int size, int greenSliderNum, String[][] board) {
-        this.size = size;
-        this.greenSliderNum = greenSliderNum;
-        this.greenSliderNumGUI = greenSliderNum;
-        this.board = board;
-        this.boardGUI = board;
+    public TiltConfig(String[][] board) {
+        this.context = new TiltContext(board);
+        int cols = context.getCols();
+        byte[] cells = new byte[context.getArea()];
+        for(int row = 0; row < board.length; row++) {
+            for(int col = 0; col < cols; col++) {
+                if(board[row][col].equals("B")) {
+                    cells[row * cols + col] = BLUE;
+                }
+                else if(board[row][col].equals("G")) {
+                    cells[row * cols + col] = GREEN;
+                }
+            }
+        }
+        int[][] sliders = context.decode(cells);
+        this.blues = sliders[0];
+        this.greens = sliders[1];
     }
 
     /**
-     * Get method for the size of the baord.
+     * Constructor for a configuration of a puzzle whose context is
+     * already built.
      *
-     * @return An int representing the size of the board.
+     * @param context The blocks and holes of the puzzle.
+     * @param blues The cells of the blue sliders, in order.
+     * @param greens The cells of the green sliders, in order.
      */
-    public int getSize() { return size; }
+    TiltConfig(TiltContext context, int[] blues, int[] greens) {
+        this.context = context;
+        this.blues = blues;
+        this.greens = greens;
+    }
 
     /**
-     * Get method for the board of the current config.
+     * Get method for the number of rows of the board.
      *
-     * @return A 2D String array representing the board.
+     * @return An int representing the number of rows.
      */
-    public String[][] getBoard() { return board; }
+    public int getRows() { return context.getRows(); }
 
     /**
-     * Get method for the board of the GUI.
+     * Get method for the number of columns of the board.
      *
-     * @return A 2D String array representing the board of the GUI.
+     * @return An int representing the number of columns.
      */
-    public String[][] getBoardGUI() { return boardGUI; }
+    public int getCols() { return context.getCols(); }
+
+    /**
+     * Get method for the context of the puzzle.
+     *
+     * @return The TiltContext shared by every configuration of the puzzle.
+     */
+    public TiltContext getContext() { return context; }
+
+    /**
+     * Get method for the board of the current config, which is built
+     * from the sliders every time it is asked for.
+     *
+     * @return A 2D String array representing the board.
+     */
+    public String[][] getBoard() {
+        byte[] cells = encode();
+        int cols = getCols();
+        String[][] board = new String[getRows()][cols];
+        for(int row = 0; row < board.length; row++) {
+            for(int col = 0; col < cols; col++) {
+                board[row][col] = SYMBOLS[cells[row * cols + col]];
+            }
+        }
+        return board;
+    }
 
     /**
      * Get method for the value in the specified row and column.
@@ -69,7 +138,20 @@ public class TiltConfig implements Configuration {
      * @return The string, or value in the specified row and col.
      */
     public String getValue(int row, int col) {
-        return board[row][col];
+        int cell = row * getCols() + col;
+        if(context.isBlock(cell)) {
+            return SYMBOLS[BLOCK];
+        }
+        if(context.isHole(cell)) {
+            return SYMBOLS[HOLE];
+        }
+        if(Arrays.binarySearch(blues, cell) >= 0) {
+            return SYMBOLS[BLUE];
+        }
+        if(Arrays.binarySearch(greens, cell) >= 0) {
+            return SYMBOLS[GREEN];
+        }
+        return SYMBOLS[EMPTY];
     }
 
     /**
@@ -81,7 +163,7 @@ public class TiltConfig implements Configuration {
      */
     @Override
     public boolean isSolution() {
-        return greenSliderNum == 0;
+        return greens.length == 0;
     }
 
     /**
@@ -94,495 +176,286 @@ public class TiltConfig implements Configuration {
     @Override
     public Collection<Configuration> getNeighbors() {
         ArrayList<Configuration> result = new ArrayList<>();
-        ArrayList<int[]> queue1 = new ArrayList<>();
-        ArrayList<int[]> queue2 = new ArrayList<>();
-        ArrayList<int[]> queue3 = new ArrayList<>();
-        ArrayList<int[]> queue4 = new ArrayList<>();
-        String[][] board1 = new String[size][size];
-        String[][] board2 = new String[size][size];
-        String[][] board3 = new String[size][size];
-        String[][] board4 = new String[size][size];
-        int greenSliderNum1 = greenSliderNum;
-        int greenSliderNum2 = greenSliderNum;
-        int greenSliderNum3 = greenSliderNum;
-        int greenSliderNum4 = greenSliderNum;
-        boolean blueFallsThrough1 = false;
-        boolean blueFallsThrough2 = false;
-        boolean blueFallsThrough3 = false;
-        boolean blueFallsThrough4 = false;
-
-        for(int row = 0; row < size; row++) {
-            board1[row] = board[row].clone();
-        }
-        for(int row = 0; row < size; row++) {
-            board2[row] = board[row].clone();
+        Iterator<Configuration> neighbors = neighborIterator();
+        while(neighbors.hasNext()) {
+            result.add(neighbors.next());
         }
-        for(int row = 0; row < size; row++) {
-            board3[row] = board[row].clone();
+        return result;
+    }
+
+    /**
+     * Lazily walks the neighbors of the current configuration, tilting
+     * the board in the next direction only when it is asked for.
+     *
+     * @return Iterator over the neighbor configurations.
+     */
+    @Override
+    public Iterator<Configuration> neighborIterator() {
+        return new LazyNeighborIterator(DIRECTIONS, this::tiltNeighbor);
+    }
+
+    /**
+     * Walks the neighbors of the current configuration key-first, so a
+     * neighbor is only built when the solver has not seen it yet.
+     *
+     * @return Cursor over the neighbor configurations.
+     */
+    @Override
+    public NeighborCursor neighborCursor() {
+        return new TiltNeighborCursor();
+    }
+
+    /**
+     * The key of the current configuration, which packs where the blue
+     * and green sliders are.
+     *
+     * @return The key of the current configuration.
+     */
+    @Override
+    public Object getKey() {
+        return packKey(context, blues, greens);
+    }
+
+    /**
+     * Estimates the moves to a solution with the pattern database of the
+     * layout: the most tilts any pair of green sliders needs to leave the
+     * board. Boards too large for a pattern database only count the one
+     * tilt any unsolved board still needs.
+     *
+     * @return A lower bound on the moves to a solution.
+     */
+    @Override
+    public int estimate() {
+        if(greens.length == 0) {
+            return 0;
         }
-        for(int row = 0; row < size; row++) {
-            board4[row] = board[row].clone();
+        TiltPatternDatabase patterns = context.getPatternDatabase();
+        if(patterns == null) {
+            return 1;
         }
+        return patterns.estimate(greens, greens.length);
+    }
 
-        //North
-        for(int row = 0; row < size; row++) {
-            for(int col = 0; col < size; col++) {
-                if(board[row][col].equals("B") || board[row][col].equals("G")) {
-                    int[] arr = new int[]{row, col};
-                    queue1.add(arr);
-                }
+    /**
+     * Checks if this configuration can never lead to a solution: a green
+     * slider is on a cell it can never fall into a hole from, the last
+     * green slider is alone on the board, where it only stops at walls
+     * and blocks, on a cell it can never fall from that way, or the
+     * pattern database finds a pair of green sliders that can never both
+     * leave the board, which the abstraction proves for the real board.
+     *
+     * @return A boolean representing if this configuration is a dead end.
+     */
+    @Override
+    public boolean isDeadEnd() {
+        for(int cell : greens) {
+            if(context.isDeadCell(cell)) {
+                return true;
             }
         }
-        for(int[] curr : queue1) {
-            String value = board1[curr[0]][curr[1]];
-            int row = curr[0];
-            int col = curr[1];
-            boolean greenFallsThrough = false;
-            if(row != 0) {
-                while(row > -1) {
-                    if(row == 0) {
-                        break;
-                    }
-                    if(board1[row - 1][col].equals("O")) {
-                        if(value.equals("G")) {
-                            greenSliderNum1--;
-                            board1[row][col] = ".";
-                            greenFallsThrough = true;
-                        }
-                        else {
-                            blueFallsThrough1 = true;
-                        }
-                    }
-                    else if(board1[row - 1][col].equals(".") && !greenFallsThrough) {
-                        board1[row - 1][col] = value;
-                        board1[row][col] = ".";
-                    }
-                    else {
-                        break;
-                    }
-                    row--;
-                }
-            }
+        if(blues.length == 0 && greens.length == 1 && context.isSoloDeadCell(greens[0])) {
+            return true;
         }
-        if(!blueFallsThrough1) {
-            result.add(new TiltConfig(size, greenSliderNum1, board1));
+        return greens.length > 0 && estimate() == TiltPatternDatabase.UNREACHABLE;
+    }
+
+    /**
+     * The progress of this configuration: green sliders only ever leave
+     * the board, so fewer greens left is further along.
+     *
+     * @return The negated number of green sliders left.
+     */
+    @Override
+    public int getProgress() {
+        return -greens.length;
+    }
+
+    /**
+     * Estimates the bytes kept for this configuration: the object, its
+     * lists of sliders, and its packed key.
+     *
+     * @return The approximate size of this configuration in bytes.
+     */
+    @Override
+    public int estimatedBytes() {
+        int sliders = blues.length + greens.length;
+        int words = context.getArea() <= DENSE_KEY_CELLS ?
+                (context.getArea() + CELLS_PER_WORD - 1) / CELLS_PER_WORD : (sliders + 1) / 2;
+        return 24 + 32 + 4 * sliders + 32 + 8 * words;
+    }
+
+    /**
+     * Creates the neighbor of tilting the board in a single direction.
+     *
+     * @param direction The index of the direction: north, east, south, west.
+     * @return The neighbor, or null if a blue slider would fall through
+     * a hole.
+     */
+    private TiltConfig tiltNeighbor(int direction) {
+        int[][] sliders = context.slide(blues, greens, direction);
+        if(sliders == null) {
+            return null;
         }
+        return new TiltConfig(context, sliders[0], sliders[1]);
+    }
 
-        //East
-        for(int col = size - 1; col > -1; col--) {
-            for(int row = size - 1; row > -1; row--) {
-                if(board[row][col].equals("B") || board[row][col].equals("G")) {
-                    int[] arr = new int[]{row, col};
-                    queue2.add(arr);
-                }
+    /**
+     * Converts the board into an array of cell codes in row-major order.
+     *
+     * @return The cell codes of the board.
+     */
+    byte[] encode() {
+        return context.encode(blues, greens);
+    }
+
+    /**
+     * Packs where the blue and green sliders are into a key. Small boards
+     * use two bits for every cell, and blocks and holes are left out since
+     * they never move; Larger boards pack the cells of the blue sliders
+     * and then the green sliders, two to a long, so the key grows with
+     * the number of sliders and not the size of the board.
+     *
+     * @param context The context of the puzzle.
+     * @param blues The cells of the blue sliders, in order.
+     * @param greens The cells of the green sliders, in order.
+     * @return The key.
+     */
+    private static PackedKey packKey(TiltContext context, int[] blues, int[] greens) {
+        if(context.getArea() <= DENSE_KEY_CELLS) {
+            long[] words = new long[(context.getArea() + CELLS_PER_WORD - 1) / CELLS_PER_WORD];
+            for(int cell : blues) {
+                words[cell / CELLS_PER_WORD] |= (long) BLUE << (cell % CELLS_PER_WORD * 2);
             }
-        }
-        for(int[] curr : queue2) {
-            String value = board2[curr[0]][curr[1]];
-            int row = curr[0];
-            int col = curr[1];
-            boolean greenFallsThrough = false;
-            if(col != size - 1) {
-                while(col < size - 1) {
-                    if(col == size - 1) {
-                        break;
-                    }
-                    if(board2[row][col + 1].equals("O")) {
-                        if(value.equals("G")) {
-                            greenSliderNum2--;
-                            board2[row][col] = ".";
-                            greenFallsThrough = true;
-                        }
-                        else {
-                            blueFallsThrough2 = true;
-                        }
-                    }
-                    else if(board2[row][col + 1].equals(".") && !greenFallsThrough) {
-                        board2[row][col + 1] = value;
-                        board2[row][col] = ".";
-                    }
-                    else {
-                        break;
-                    }
-                    col++;
-                }
+            for(int cell : greens) {
+                words[cell / CELLS_PER_WORD] |= (long) GREEN << (cell % CELLS_PER_WORD * 2);
             }
+            return new PackedKey(words);
         }
-        if(!blueFallsThrough2) {
-            result.add(new TiltConfig(size, greenSliderNum2, board2));
+        // Cells are stored plus one, so the padding of an odd count is never a cell
+        long[] words = new long[(blues.length + greens.length + 1) / 2];
+        int index = 0;
+        for(int cell : blues) {
+            words[index / 2] |= (long) (cell + 1) << (index % 2 * Integer.SIZE);
+            index++;
         }
-
-        //South
-        for(int row = size - 1; row > -1; row--) {
-            for(int col = size - 1; col > -1; col--) {
-                if(board[row][col].equals("B") || board[row][col].equals("G")) {
-                    int[] arr = new int[]{row, col};
-                    queue3.add(arr);
-                }
-            }
+        for(int cell : greens) {
+            words[index / 2] |= (long) (cell + 1) << (index % 2 * Integer.SIZE);
+            index++;
         }
-        for(int[] curr : queue3) {
-            String value = board3[curr[0]][curr[1]];
-            int row = curr[0];
-            int col = curr[1];
-            boolean greenFallsThrough = false;
-            if(row != size - 1) {
-                while(row < size - 1) {
-                    if(board3[row + 1][col].equals("O")) {
-                        if(value.equals("G")) {
-                            greenSliderNum3--;
-                            board3[row][col] = ".";
-                            greenFallsThrough = true;
-                        }
-                        else {
-                            blueFallsThrough3 = true;
-                        }
-
-                    }
-                    else if(board3[row + 1][col].equals(".") && !greenFallsThrough) {
-                        board3[row + 1][col] = value;
-                        board3[row][col] = ".";
-                    }
-                    else {
-                        break;
-                    }
-                    row++;
-                }
-            }
-        }
-        if(!blueFallsThrough3) {
-            result.add(new TiltConfig(size, greenSliderNum3, board3));
+        return new PackedKey(words);
+    }
+
+    /**
+     * Gets the cells whose sliders differ between this configuration and
+     * another one of the same board, so a view only has to redraw those.
+     *
+     * @param other The other configuration.
+     * @return A Set of the coordinates of the cells that differ, or null
+     * if the other configuration is of another board.
+     */
+    public Set<Coordinates> getChangedCells(TiltConfig other) {
+        if(other.context != context) {
+            return null;
         }
+        Set<Coordinates> cells = new HashSet<>();
+        addDifferences(blues, other.blues, cells);
+        addDifferences(greens, other.greens, cells);
+        return cells;
+    }
 
-        //West
-        for(int col = 0; col < size; col++) {
-            for(int row = 0; row < size; row++) {
-                if(board[row][col].equals("B") || board[row][col].equals("G")) {
-                    int[] arr = new int[]{row, col};
-                    queue4.add(arr);
-                }
+    /**
+     * Adds the cells that are in only one of two lists of slider cells,
+     * walking both in row-major order.
+     *
+     * @param first The cells of the sliders of one configuration.
+     * @param second The cells of the same sliders of the other one.
+     * @param cells The Set the coordinates of the cells are added to.
+     */
+    private void addDifferences(int[] first, int[] second, Set<Coordinates> cells) {
+        int cols = getCols();
+        int i = 0;
+        int j = 0;
+        while(i < first.length || j < second.length) {
+            if(j == second.length || (i < first.length && first[i] < second[j])) {
+                cells.add(new Coordinates(first[i] / cols, first[i] % cols));
+                i++;
             }
-        }
-        for(int[] curr : queue4) {
-            String value = board4[curr[0]][curr[1]];
-            int row = curr[0];
-            int col = curr[1];
-            boolean greenFallsThrough = false;
-            if(col != 0) {
-                while(col > -1) {
-                    if(col == 0) {
-                        break;
-                    }
-                    if(board4[row][col - 1].equals("O")) {
-                        if(value.equals("G")) {
-                            greenSliderNum4--;
-                            board4[row][col] = ".";
-                            greenFallsThrough = true;
-                        }
-                        else {
-                            blueFallsThrough4 = true;
-                        }
-                    }
-                    else if(board4[row][col - 1].equals(".") && !greenFallsThrough) {
-                        board4[row][col - 1] = value;
-                        board4[row][col] = ".";
-                    }
-                    else {
-                        break;
-                    }
-                    col--;
-                }
+            else if(i == first.length || second[j] < first[i]) {
+                cells.add(new Coordinates(second[j] / cols, second[j] % cols));
+                j++;
+            }
+            else {
+                i++;
+                j++;
             }
         }
-        if(!blueFallsThrough4) {
-            result.add(new TiltConfig(size, greenSliderNum4, board4));
-        }
+    }
 
-        return result;
+    /**
+     * Copies the current configuration, so it can be tilted without
+     * changing this one. The copy shares the context and the sliders,
+     * which a tilt replaces instead of changing.
+     *
+     * @return A TiltConfig with the same board.
+     */
+    public TiltConfig copy() {
+        return new TiltConfig(context, blues, greens);
     }
 
     /**
-     * Tilts the current GUI's board in the specific direction specified
-     * by the user. If a move is invalid, if a blue slider would fall
-     * through the hole, nothing would be changed in the GUI board and
-     * the respective message would be returned. Otherwise, if a move is
-     * valid, it will return the respective message, telling the user
-     * that it was. Finally, if the move is valid and gets the solution,
-     * the respective message congratulating the user would be returned.
+     * Tilts the current board in the specific direction specified by the
+     * user. If a move is invalid, if a blue slider would fall through the
+     * hole, nothing would be changed and the respective message would be
+     * returned. Otherwise, if a move is valid, it will return the
+     * respective message, telling the user that it was. Finally, if the
+     * move is valid and gets the solution, the respective message
+     * congratulating the user would be returned.
      *
-     * @param direction The direction the board of the GUI would be tilted
-     *                  in.
+     * @param direction The direction the board would be tilted in.
      * @return A String representing the respective message of what was
      * done or not.
      */
     public String tilt(String direction) {
-        String msg = "";
-        ArrayList<int[]> queue1 = new ArrayList<>();
-        ArrayList<int[]> queue2 = new ArrayList<>();
-        ArrayList<int[]> queue3 = new ArrayList<>();
-        ArrayList<int[]> queue4 = new ArrayList<>();
-        String[][] original = new String[size][size];
-        greenSliderNumGUI = 0;
-        boolean blueFallsThrough1 = false;
-        boolean blueFallsThrough2 = false;
-        boolean blueFallsThrough3 = false;
-        boolean blueFallsThrough4 = false;
-
-        for(int row = 0; row < size; row++) {
-            boardGUI[row] = board[row].clone();
-            for(int col = 0; col < size; col++) {
-                if(boardGUI[row][col].equals("G")) {
-                    greenSliderNumGUI++;
-                }
-            }
-        }
-        for(int row = 0; row < size; row++) {
-            original[row] = boardGUI[row].clone();
-        }
-
-        if(direction.equals("N")) {
-            for(int row = 0; row < size; row++) {
-                for(int col = 0; col < size; col++) {
-                    if(board[row][col].equals("B") || board[row][col].equals("G")) {
-                        int[] arr = new int[]{row, col};
-                        queue1.add(arr);
-                    }
-                }
-            }
-            for(int[] curr : queue1) {
-                String value = boardGUI[curr[0]][curr[1]];
-                int row = curr[0];
-                int col = curr[1];
-                boolean greenFallsThrough = false;
-                if(row != 0) {
-                    while(row > -1) {
-                        if(row == 0) {
-                            break;
-                        }
-                        if(boardGUI[row - 1][col].equals("O")) {
-                            if(value.equals("G")) {
-                                greenSliderNumGUI--;
-                                boardGUI[row][col] = ".";
-                                greenFallsThrough = true;
-                            }
-                            else {
-                                blueFallsThrough1 = true;
-                            }
-                        }
-                        else if(boardGUI[row - 1][col].equals(".") && !greenFallsThrough) {
-                            boardGUI[row - 1][col] = value;
-                            boardGUI[row][col] = ".";
-                        }
-                        else {
-                            break;
-                        }
-                        row--;
-                    }
-                }
-            }
-            if(!blueFallsThrough1) {
-                msg = "Tilted North";
-                if(greenSliderNumGUI == 0) {
-                    msg = "You win, congratulations!";
-                }
-
-            }
-            else {
-                msg = "Illegal move. A blue slider will fall through the hole!";
-                for(int row = 0; row < size; row++) {
-                    boardGUI[row] = original[row].clone();
-                }
-            }
+        int index = DIRECTION_COMMANDS.indexOf(direction);
+        if(index < 0) {
+            index = DIRECTION_COMMANDS.length() - 1;
         }
-        else if(direction.equals("E")) {
-            for(int col = size - 1; col > -1; col--) {
-                for(int row = size - 1; row > -1; row--) {
-                    if(board[row][col].equals("B") || board[row][col].equals("G")) {
-                        int[] arr = new int[]{row, col};
-                        queue2.add(arr);
-                    }
-                }
-            }
-            for(int[] curr : queue2) {
-                String value = boardGUI[curr[0]][curr[1]];
-                int row = curr[0];
-                int col = curr[1];
-                boolean greenFallsThrough = false;
-                if(col != size - 1) {
-                    while(col < size - 1) {
-                        if(col == size - 1) {
-                            break;
-                        }
-                        if(boardGUI[row][col + 1].equals("O")) {
-                            if(value.equals("G")) {
-                                greenSliderNumGUI--;
-                                boardGUI[row][col] = ".";
-                                greenFallsThrough = true;
-                            }
-                            else {
-                                blueFallsThrough2 = true;
-                            }
-                        }
-                        else if(boardGUI[row][col + 1].equals(".") && !greenFallsThrough) {
-                            boardGUI[row][col + 1] = value;
-                            boardGUI[row][col] = ".";
-                        }
-                        else {
-                            break;
-                        }
-                        col++;
-                    }
-                }
-            }
-            if(!blueFallsThrough2) {
-                msg = "Tilted East";
-                if(greenSliderNumGUI == 0) {
-                    msg = "You win, congratulations!";
-                }
-            }
-            else {
-                msg = "Illegal move. A blue slider will fall through the hole!";
-                for(int row = 0; row < size; row++) {
-                    boardGUI[row] = original[row].clone();
-                }
-            }
+        int[][] sliders = context.slide(blues, greens, index);
+        if(sliders == null) {
+            return "Illegal move. A blue slider will fall through the hole!";
         }
-        else if(direction.equals("S")) {
-            for(int row = size - 1; row > -1; row--) {
-                for(int col = size - 1; col > -1; col--) {
-                    if(board[row][col].equals("B") || board[row][col].equals("G")) {
-                        int[] arr = new int[]{row, col};
-                        queue3.add(arr);
-                    }
-                }
-            }
-            for(int[] curr : queue3) {
-                String value = boardGUI[curr[0]][curr[1]];
-                int row = curr[0];
-                int col = curr[1];
-                boolean greenFallsThrough = false;
-                if(row != size - 1) {
-                    while(row < size - 1) {
-                        if(boardGUI[row + 1][col].equals("O")) {
-                            if(value.equals("G")) {
-                                greenSliderNumGUI--;
-                                boardGUI[row][col] = ".";
-                                greenFallsThrough = true;
-                            }
-                            else {
-                                blueFallsThrough3 = true;
-                            }
-
-                        }
-                        else if(boardGUI[row + 1][col].equals(".") && !greenFallsThrough) {
-                            boardGUI[row + 1][col] = value;
-                            boardGUI[row][col] = ".";
-                        }
-                        else {
-                            break;
-                        }
-                        row++;
-                    }
-                }
-            }
-            if(!blueFallsThrough3) {
-                msg = "Tilted South";
-                if(greenSliderNumGUI == 0) {
-                    msg = "You win, congratulations!";
-                }
-            }
-            else {
-                msg = "Illegal move. A blue slider will fall through the hole!";
-                for(int row = 0; row < size; row++) {
-                    boardGUI[row] = original[row].clone();
-                }
-            }
-        }
-        else {
-            for(int col = 0; col < size; col++) {
-                for(int row = 0; row < size; row++) {
-                    if(board[row][col].equals("B") || board[row][col].equals("G")) {
-                        int[] arr = new int[]{row, col};
-                        queue4.add(arr);
-                    }
-                }
-            }
-            for(int[] curr : queue4) {
-                String value = boardGUI[curr[0]][curr[1]];
-                int row = curr[0];
-                int col = curr[1];
-                boolean greenFallsThrough = false;
-                if(col != 0) {
-                    while(col > -1) {
-                        if(col == 0) {
-                            break;
-                        }
-                        if(boardGUI[row][col - 1].equals("O")) {
-                            if(value.equals("G")) {
-                                greenSliderNumGUI--;
-                                boardGUI[row][col] = ".";
-                                greenFallsThrough = true;
-                            }
-                            else {
-                                blueFallsThrough4 = true;
-                            }
-                        }
-                        else if(boardGUI[row][col - 1].equals(".") && !greenFallsThrough) {
-                            boardGUI[row][col - 1] = value;
-                            boardGUI[row][col] = ".";
-                        }
-                        else {
-                            break;
-                        }
-                        col--;
-                    }
-                }
-            }
-            if(!blueFallsThrough4) {
-                msg = "Tiled West";
-                if(greenSliderNumGUI == 0) {
-                    msg = "You win, congratulations!";
-                }
-            }
-            else {
-                msg = "Illegal move. A blue slider will fall through the hole!";
-                for(int row = 0; row < size; row++) {
-                    boardGUI[row] = original[row].clone();
-                }
-            }
+        blues = sliders[0];
+        greens = sliders[1];
+        if(greens.length == 0) {
+            return "You win, congratulations!";
         }
-        return msg;
+        return "Tilted " + DIRECTION_NAMES[index];
     }
 
     /**
      * Checks if the current configuration is equal to the other
-     * configuration by comparing their boards.
+     * configuration by comparing their sliders and layouts.
      *
      * @param other Other configuration we are using to compare.
      * @return A boolean representing if both configurations are equal.
      */
     @Override
     public boolean equals(Object other) {
-        TiltConfig tiltConfig = (TiltConfig) other;
-        for (int row = 0; row < size; row++) {
-            for (int col = 0; col < size; col++) {
-                if (!this.board[row][col].equals(tiltConfig.board[row][col])) {
-                    return false;
-                }
-            }
+        if(!(other instanceof TiltConfig tiltConfig)) {
+            return false;
         }
-        return true;
+        return Arrays.equals(blues, tiltConfig.blues) && Arrays.equals(greens, tiltConfig.greens) &&
+                (context == tiltConfig.context || context.equals(tiltConfig.context));
     }
 
     /**
-     * Hashes the current configuration by using its size, number of
-     * green sliders, and board.
+     * Hashes the current configuration by using its sliders.
      *
      * @return An int representing the hash code of this configuration.
      */
     @Override
     public int hashCode() {
-        return Objects.hashCode(size) + Objects.hashCode(greenSliderNum) + Arrays.deepHashCode(board);
+        return Arrays.hashCode(blues) * 31 + Arrays.hashCode(greens);
     }
 
     /**
@@ -592,15 +465,67 @@ public class TiltConfig implements Configuration {
      */
     @Override
     public String toString() {
+        byte[] cells = encode();
+        int rows = getRows();
+        int cols = getCols();
         StringBuilder result = new StringBuilder();
-        for (int row = 0; row < size; row++) {
-            for (int col = 0; col < size; col++) {
-                result.append(board[row][col]).append(" ");
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                result.append(SYMBOLS[cells[row * cols + col]]).append(" ");
             }
-            if (row != size - 1) {
+            if (row != rows - 1) {
                 result.append(System.lineSeparator());
             }
         }
         return result.toString();
     }
+
+    /**
+     * Cursor over the four tilts of this configuration that packs the key
+     * of each tilt and only builds the neighbor when the solver asks for
+     * it.
+     */
+    private class TiltNeighborCursor implements NeighborCursor {
+        /** The direction the cursor is on.*/
+        private int direction = -1;
+        /** The sliders of the current neighbor.*/
+        private int[][] sliders;
+
+        /**
+         * Tilts the board in the next direction that does not drop a
+         * blue slider.
+         *
+         * @return A boolean representing if there is another neighbor.
+         */
+        @Override
+        public boolean advance() {
+            while(++direction < DIRECTIONS) {
+                sliders = context.slide(blues, greens, direction);
+                if(sliders != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * The key of the current neighbor.
+         *
+         * @return The key of the current neighbor.
+         */
+        @Override
+        public Object key() {
+            return packKey(context, sliders[0], sliders[1]);
+        }
+
+        /**
+         * Builds the current neighbor.
+         *
+         * @return The current neighbor.
+         */
+        @Override
+        public Configuration build() {
+            return new TiltConfig(context, sliders[0], sliders[1]);
+        }
+    }
 }
@@ -0,0 +1,496 @@
+package puzzles.tilt.model;
+
+import puzzles.common.PuzzleContext;
+
+import java.util.Arrays;
+
+/**
+ * The constant parts of a Tilt puzzle, shared by every TiltConfig of it:
+ * where the blocks and holes are, indexes of the blocks and holes of
+ * every row and column so a slider finds what stops it without walking
+ * the board, and a static analysis of which cells a green slider can
+ * never fall into a hole from, in the style of Sokoban dead squares.
+ *
+ * @author Boya Li
+ */
+public class TiltContext extends PuzzleContext {
+    /** The row direction of north, east, south, and west.*/
+    private static final int[] ROW_DELTAS = {-1, 0, 1, 0};
+    /** The column direction of north, east, south, and west.*/
+    private static final int[] COL_DELTAS = {0, 1, 0, -1};
+
+    /** The number of rows of the board.*/
+    private final int rows;
+    /** The number of columns of the board.*/
+    private final int cols;
+    /** Whether each cell, in row-major order, is a block.*/
+    private final boolean[] blocks;
+    /** Whether each cell, in row-major order, is a hole.*/
+    private final boolean[] holes;
+    /** The cell code of every cell, with sliders left out.*/
+    private final byte[] fixed;
+    /** The columns of the blocks and holes of every row, in order.*/
+    private final int[][] rowObstacles;
+    /** The rows of the blocks and holes of every column, in order.*/
+    private final int[][] colObstacles;
+    /** Cells a green slider can never fall into a hole from.*/
+    private final boolean[] dead;
+    /** Cells a green slider alone on the board can never fall into a hole from.*/
+    private final boolean[] soloDead;
+    /** The row-slide tables of the layout.*/
+    private final TiltSlideTables slides;
+    /** The pattern database of the layout, loaded the first time it is used.*/
+    private TiltPatternDatabase patterns;
+
+    /**
+     * Constructor for the Tilt context, which analyses the board once.
+     *
+     * @param board The board of the puzzle, which may be rectangular; Only
+     *              its blocks and holes are kept.
+     */
+    public TiltContext(String[][] board) {
+        super(board.length, board.length == 0 ? 0 : board[0].length);
+        this.rows = board.length;
+        this.cols = rows == 0 ? 0 : board[0].length;
+        this.blocks = new boolean[rows * cols];
+        this.holes = new boolean[rows * cols];
+        this.fixed = new byte[rows * cols];
+        int[] rowCounts = new int[rows];
+        int[] colCounts = new int[cols];
+        for(int row = 0; row < rows; row++) {
+            for(int col = 0; col < cols; col++) {
+                int cell = row * cols + col;
+                blocks[cell] = board[row][col].equals("*");
+                holes[cell] = board[row][col].equals("O");
+                fixed[cell] = blocks[cell] ? TiltConfig.BLOCK : holes[cell] ? TiltConfig.HOLE : TiltConfig.EMPTY;
+                if(fixed[cell] != TiltConfig.EMPTY) {
+                    rowCounts[row]++;
+                    colCounts[col]++;
+                }
+            }
+        }
+        this.rowObstacles = new int[rows][];
+        this.colObstacles = new int[cols][];
+        for(int row = 0; row < rows; row++) {
+            rowObstacles[row] = new int[rowCounts[row]];
+            rowCounts[row] = 0;
+        }
+        for(int col = 0; col < cols; col++) {
+            colObstacles[col] = new int[colCounts[col]];
+            colCounts[col] = 0;
+        }
+        for(int row = 0; row < rows; row++) {
+            for(int col = 0; col < cols; col++) {
+                if(fixed[row * cols + col] != TiltConfig.EMPTY) {
+                    rowObstacles[row][rowCounts[row]++] = col;
+                    colObstacles[col][colCounts[col]++] = row;
+                }
+            }
+        }
+        this.dead = findDeadCells();
+        this.soloDead = findSoloDeadCells();
+        this.slides = new TiltSlideTables(rows, cols, fixed);
+    }
+
+    /**
+     * Get method for the number of cells of the board.
+     *
+     * @return An int representing the number of cells.
+     */
+    public int getArea() { return rows * cols; }
+
+    /**
+     * Checks if a cell is a block.
+     *
+     * @param cell The cell, in row-major order.
+     * @return A boolean representing if the cell is a block.
+     */
+    public boolean isBlock(int cell) {
+        return blocks[cell];
+    }
+
+    /**
+     * Checks if a cell is a hole.
+     *
+     * @param cell The cell, in row-major order.
+     * @return A boolean representing if the cell is a hole.
+     */
+    public boolean isHole(int cell) {
+        return holes[cell];
+    }
+
+    /**
+     * Checks if a green slider on a cell can never fall into a hole, no
+     * matter where the other sliders are.
+     *
+     * @param cell The cell, in row-major order.
+     * @return A boolean representing if the cell is dead.
+     */
+    public boolean isDeadCell(int cell) {
+        return dead[cell];
+    }
+
+    /**
+     * Checks if a green slider on a cell can never fall into a hole when
+     * it is the only slider left on the board.
+     *
+     * @param cell The cell, in row-major order.
+     * @return A boolean representing if the cell is dead for a lone slider.
+     */
+    public boolean isSoloDeadCell(int cell) {
+        return soloDead[cell];
+    }
+
+    /**
+     * Tilts an array of cell codes in a single direction with the
+     * row-slide tables of the layout.
+     *
+     * @param cells The cell codes, in row-major order, which are updated.
+     * @param direction The index of the direction: north, east, south, west.
+     * @return The number of green sliders that fell through a hole, or -1
+     * if a blue slider would fall through a hole.
+     */
+    int slide(byte[] cells, int direction) {
+        return slides.slide(cells, direction);
+    }
+
+    /**
+     * Tilts sorted lists of sliders in a single direction. Small boards
+     * go through the row-slide tables; On larger boards the sliders are
+     * sorted by line, starting at the wall they are tilted towards, and
+     * each one stops after the closer of the last slider that stopped on
+     * its line and the block or hole closest to it on that side, so the
+     * cost depends on the number of sliders and not the size of the board.
+     *
+     * @param blues The cells of the blue sliders, in order.
+     * @param greens The cells of the green sliders, in order.
+     * @param direction The index of the direction: north, east, south, west.
+     * @return The cells of the blue and green sliders after the tilt, in
+     * order, or null if a blue slider would fall through a hole.
+     */
+    int[][] slide(int[] blues, int[] greens, int direction) {
+        if(slides.hasTables()) {
+            byte[] cells = encode(blues, greens);
+            if(slides.slide(cells, direction) < 0) {
+                return null;
+            }
+            return decode(cells);
+        }
+        long[] order = new long[blues.length + greens.length];
+        int count = 0;
+        for(int cell : blues) {
+            order[count++] = orderOf(cell, direction);
+        }
+        for(int cell : greens) {
+            order[count++] = orderOf(cell, direction) | 1;
+        }
+        Arrays.sort(order);
+
+        int[] newBlues = new int[blues.length];
+        int[] newGreens = new int[greens.length];
+        int blueCount = 0;
+        int greenCount = 0;
+        int line = -1;
+        int limit = -1;
+        for(long key : order) {
+            if((int) (key >>> 32) != line) {
+                line = (int) (key >>> 32);
+                limit = -1;
+            }
+            int position = (int) key >>> 1;
+            int obstacle = obstacleBefore(direction, line, position);
+            if(obstacle > limit && holes[cellAt(direction, line, obstacle)]) {
+                if((key & 1) == 0) {
+                    return null;
+                }
+                continue;
+            }
+            limit = Math.max(obstacle, limit) + 1;
+            if((key & 1) == 0) {
+                newBlues[blueCount++] = cellAt(direction, line, limit);
+            }
+            else {
+                newGreens[greenCount++] = cellAt(direction, line, limit);
+            }
+        }
+        Arrays.sort(newBlues);
+        newGreens = Arrays.copyOf(newGreens, greenCount);
+        Arrays.sort(newGreens);
+        return new int[][]{newBlues, newGreens};
+    }
+
+    /**
+     * Builds the cell codes of a board from its sliders.
+     *
+     * @param blues The cells of the blue sliders.
+     * @param greens The cells of the green sliders.
+     * @return The cell codes, in row-major order.
+     */
+    byte[] encode(int[] blues, int[] greens) {
+        byte[] cells = fixed.clone();
+        for(int cell : blues) {
+            cells[cell] = TiltConfig.BLUE;
+        }
+        for(int cell : greens) {
+            cells[cell] = TiltConfig.GREEN;
+        }
+        return cells;
+    }
+
+    /**
+     * Collects the sliders of an array of cell codes.
+     *
+     * @param cells The cell codes, in row-major order.
+     * @return The cells of the blue and green sliders, in order.
+     */
+    int[][] decode(byte[] cells) {
+        int blueCount = 0;
+        int greenCount = 0;
+        for(byte value : cells) {
+            if(value == TiltConfig.BLUE) {
+                blueCount++;
+            }
+            else if(value == TiltConfig.GREEN) {
+                greenCount++;
+            }
+        }
+        int[] newBlues = new int[blueCount];
+        int[] newGreens = new int[greenCount];
+        blueCount = 0;
+        greenCount = 0;
+        for(int cell = 0; cell < cells.length; cell++) {
+            if(cells[cell] == TiltConfig.BLUE) {
+                newBlues[blueCount++] = cell;
+            }
+            else if(cells[cell] == TiltConfig.GREEN) {
+                newGreens[greenCount++] = cell;
+            }
+        }
+        return new int[][]{newBlues, newGreens};
+    }
+
+    /**
+     * Get method for the pattern database of the layout, which is loaded
+     * or built the first time it is asked for.
+     *
+     * @return The TiltPatternDatabase of the blocks and holes, or null if
+     * the board has too many cells for one.
+     */
+    public synchronized TiltPatternDatabase getPatternDatabase() {
+        if(patterns == null && rows * cols <= TiltPatternDatabase.MAX_CELLS) {
+            patterns = new TiltPatternDatabase(rows, cols, TiltPatternDatabase.layoutOf(blocks, holes));
+        }
+        return patterns;
+    }
+
+    /**
+     * Gets the sort key of a slider for a tilt: the line it is on, then
+     * how far it is from the wall it is tilted towards, with the lowest
+     * bit left for its color.
+     *
+     * @param cell The cell of the slider.
+     * @param direction The index of the direction: north, east, south, west.
+     * @return The sort key.
+     */
+    private long orderOf(int cell, int direction) {
+        int row = cell / cols;
+        int col = cell % cols;
+        int line = ROW_DELTAS[direction] == 0 ? row : col;
+        int position = ROW_DELTAS[direction] < 0 ? row : ROW_DELTAS[direction] > 0 ? rows - 1 - row :
+                COL_DELTAS[direction] < 0 ? col : cols - 1 - col;
+        return (long) line << 32 | (long) position << 1;
+    }
+
+    /**
+     * Gets a cell of a line, counting from the wall the board is tilted
+     * towards: lines of north and south are columns, and lines of east
+     * and west are rows.
+     *
+     * @param direction The index of the direction: north, east, south, west.
+     * @param line The index of the row or column.
+     * @param position How far the cell is from the wall.
+     * @return The cell, in row-major order.
+     */
+    private int cellAt(int direction, int line, int position) {
+        int row = ROW_DELTAS[direction] == 0 ? line : ROW_DELTAS[direction] < 0 ? position : rows - 1 - position;
+        int col = COL_DELTAS[direction] == 0 ? line : COL_DELTAS[direction] < 0 ? position : cols - 1 - position;
+        return row * cols + col;
+    }
+
+    /**
+     * Finds the block or hole closest to a cell between it and the wall
+     * the board is tilted towards, with a binary search of its line.
+     *
+     * @param direction The index of the direction: north, east, south, west.
+     * @param line The index of the row or column.
+     * @param position How far the cell is from the wall.
+     * @return How far the block or hole is from the wall, or -1 if there
+     * is none.
+     */
+    private int obstacleBefore(int direction, int line, int position) {
+        boolean vertical = ROW_DELTAS[direction] != 0;
+        int[] obstacles = vertical ? colObstacles[line] : rowObstacles[line];
+        int length = vertical ? rows : cols;
+        boolean reversed = ROW_DELTAS[direction] > 0 || COL_DELTAS[direction] > 0;
+        int coordinate = reversed ? length - 1 - position : position;
+        int insertion = -Arrays.binarySearch(obstacles, coordinate) - 1;
+        if(!reversed) {
+            return insertion == 0 ? -1 : obstacles[insertion - 1];
+        }
+        return insertion == obstacles.length ? -1 : length - 1 - obstacles[insertion];
+    }
+
+    /**
+     * Finds the dead cells: Another slider can stop a green slider on any
+     * cell it passes, so a green slider can get from a cell to every cell
+     * of its region, the cells connected to it without crossing a block
+     * or a hole, and nowhere else. A cell is dead if no cell of its region
+     * is next to a hole.
+     *
+     * @return Whether each cell is dead, in row-major order.
+     */
+    private boolean[] findDeadCells() {
+        boolean[] live = new boolean[rows * cols];
+        int[] stack = new int[rows * cols];
+        int top = 0;
+        // Spread out from the cells next to a hole
+        for(int cell = 0; cell < rows * cols; cell++) {
+            if(!blocks[cell] && !holes[cell] && nextToHole(cell)) {
+                live[cell] = true;
+                stack[top++] = cell;
+            }
+        }
+        while(top > 0) {
+            int cell = stack[--top];
+            for(int direction = 0; direction < ROW_DELTAS.length; direction++) {
+                int next = step(cell, direction);
+                if(next >= 0 && !blocks[next] && !holes[next] && !live[next]) {
+                    live[next] = true;
+                    stack[top++] = next;
+                }
+            }
+        }
+        boolean[] deadCells = new boolean[rows * cols];
+        for(int cell = 0; cell < rows * cols; cell++) {
+            deadCells[cell] = !live[cell];
+        }
+        return deadCells;
+    }
+
+    /**
+     * Finds the dead cells of a lone slider, which always slides until it
+     * hits the wall or a block, or falls into a hole: A cell is live if
+     * one tilt drops the slider into a hole, or stops it on a live cell.
+     * The search goes backwards from the holes, and every time a cell
+     * turns out to be live, so does every cell that slides onto it, so
+     * each line is only walked once a direction.
+     *
+     * @return Whether each cell is dead for a lone slider, in row-major order.
+     */
+    private boolean[] findSoloDeadCells() {
+        boolean[] live = new boolean[rows * cols];
+        int[] stack = new int[rows * cols];
+        int top = 0;
+        for(int cell = 0; cell < rows * cols; cell++) {
+            if(holes[cell]) {
+                for(int direction = 0; direction < ROW_DELTAS.length; direction++) {
+                    top = spread(cell, direction, live, stack, top);
+                }
+            }
+        }
+        while(top > 0) {
+            int cell = stack[--top];
+            for(int direction = 0; direction < ROW_DELTAS.length; direction++) {
+                int next = step(cell, (direction + 2) % ROW_DELTAS.length);
+                if(next < 0 || blocks[next]) {
+                    top = spread(cell, direction, live, stack, top);
+                }
+            }
+        }
+        boolean[] deadCells = new boolean[rows * cols];
+        for(int cell = 0; cell < rows * cols; cell++) {
+            deadCells[cell] = !live[cell];
+        }
+        return deadCells;
+    }
+
+    /**
+     * Helper method used in findSoloDeadCells to mark the cells a lone
+     * slider slides from onto a cell, or into a hole: every free cell
+     * from it in a direction up to the next block, hole or wall.
+     *
+     * @param from The cell the sliders end up on, or the hole.
+     * @param direction The index of the direction the cells are in.
+     * @param live The cells found to be live, which is updated.
+     * @param stack The cells to search from, which is updated.
+     * @param top The number of cells on the stack.
+     * @return The number of cells on the stack after marking.
+     */
+    private int spread(int from, int direction, boolean[] live, int[] stack, int top) {
+        int cell = step(from, direction);
+        while(cell >= 0 && !blocks[cell] && !holes[cell]) {
+            if(!live[cell]) {
+                live[cell] = true;
+                stack[top++] = cell;
+            }
+            cell = step(cell, direction);
+        }
+        return top;
+    }
+
+    /**
+     * Checks if a cell is next to a hole.
+     *
+     * @param cell The cell, in row-major order.
+     * @return A boolean representing if a neighboring cell is a hole.
+     */
+    private boolean nextToHole(int cell) {
+        for(int direction = 0; direction < ROW_DELTAS.length; direction++) {
+            int next = step(cell, direction);
+            if(next >= 0 && holes[next]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the cell next to a cell in a direction.
+     *
+     * @param cell The cell, in row-major order.
+     * @param direction The index of the direction: north, east, south, west.
+     * @return The next cell, or -1 if it would be off the board.
+     */
+    private int step(int cell, int direction) {
+        int row = cell / cols + ROW_DELTAS[direction];
+        int col = cell % cols + COL_DELTAS[direction];
+        if(row < 0 || row >= rows || col < 0 || col >= cols) {
+            return -1;
+        }
+        return row * cols + col;
+    }
+
+    /**
+     * Checks if both contexts have the same blocks and holes.
+     *
+     * @param other Other context we are using to compare.
+     * @return A boolean representing if both contexts are equal.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if(other instanceof TiltContext otherContext) {
+            return cols == otherContext.cols && Arrays.equals(fixed, otherContext.fixed);
+        }
+        return false;
+    }
+
+    /**
+     * Hashes the blocks and holes of the context.
+     *
+     * @return An int representing the hash code of this context.
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(fixed) * 31 + cols;
+    }
+}
@@ -1,12 +1,21 @@
 package puzzles.tilt.model;
 
+import puzzles.common.Coordinates;
+import puzzles.common.History;
+import puzzles.common.ModelEvent;
+import puzzles.common.ModelEventBus;
 import puzzles.common.Observer;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SolveLimits;
+import puzzles.common.solver.SolveOutcome;
+import puzzles.common.solver.SolveStatus;
 import puzzles.common.solver.Solver;
+import puzzles.common.solver.SolverWorkspace;
 
 import java.io.*;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * The model for the Tilt puzzle.
@@ -14,12 +23,18 @@ import java.util.List;
  * @author Boya Li
  */
 public class TiltModel {
-    /** The collection of observers of this model.*/
-    private final List<Observer<TiltModel, String>> observers = new LinkedList<>();
-    /** The current configuration.*/
-    private TiltConfig currentConfig;
+    /** Milliseconds a hint may take before the search gives up.*/
+    private static final long HINT_TIME_LIMIT = 5000;
+    /** The observers of this model, and how each of them gets its events.*/
+    private final ModelEventBus<TiltModel> events = new ModelEventBus<>(this);
+    /** The solver tables, kept between hints so they do not grow again every time.*/
+    private final SolverWorkspace workspace = new SolverWorkspace();
+    /** The current configuration, which observers may read from another thread.*/
+    private volatile TiltConfig currentConfig;
     /** The current file.*/
     private String file;
+    /** Every configuration of the current game, for undo, redo, and reset.*/
+    private History<TiltConfig> history;
 
     /**
      * Constructor for the TiltModel.
@@ -52,20 +67,31 @@ public class TiltModel {
             return currentConfig;
         }
 
-        Solver solver = new Solver();
-        List<Configuration> result = (List<Configuration>) solver.solve(currentConfig);
+        Solver solver = new Solver(workspace);
+        SolveOutcome outcome = solver.trySolve(currentConfig, SolveLimits.timeout(HINT_TIME_LIMIT));
+        List<Configuration> result = outcome.getPath();
+        // Ran out of time before finishing
+        if (SolveLimits.DEADLINE_PASSED.equals(outcome.getReason())) {
+            alertObservers("Hint took too long.");
+            return null;
+        }
+        // Ran out of memory before finishing
+        if (outcome.getStatus() == SolveStatus.BUDGET_EXCEEDED) {
+            alertObservers("Puzzle is too large to solve.");
+            return null;
+        }
         if (result == null) {
             alertObservers("No solution.");
             return null;
         }
 
         TiltConfig updatedConfig = (TiltConfig) result.get(1);
-        currentConfig = updatedConfig;
-        if(currentConfig.isSolution()) {
-            alertObservers("You win, congratulations!");
+        history.push(updatedConfig);
+        if(updatedConfig.isSolution()) {
+            changeTo(updatedConfig, "You win, congratulations!");
         }
         else {
-            alertObservers("Next step!");
+            changeTo(updatedConfig, "Next step!");
         }
         return currentConfig;
     }
@@ -98,7 +124,7 @@ public class TiltModel {
     public boolean loadBoardFromFile(String fileName) {
         boolean loaded = loadBoardFromFile(new File(fileName));
         if(loaded) {
-            alertObservers("Loaded " + fileName);
+            events.publish(ModelEvent.loaded("Loaded " + fileName));
             return true;
         }
         return false;
@@ -107,9 +133,10 @@ public class TiltModel {
     /**
      * It would attempt to load a board from the specified file name
      * by reading the information from the file provided. If it was
-     * successful, then it'll get the size of the board, number of
-     * green sliders, board, and set the current configuration to a
-     * TiltConfig with everything that was obtained.
+     * successful, then it'll get the size of the board, which is either
+     * one number for a square board or the rows and columns of a
+     * rectangular one, then the board, and set the current configuration
+     * to a TiltConfig of that board.
      *
      * @param file The file that would be accessed.
      * @return A boolean representing if it loaded successfully or not.
@@ -118,20 +145,19 @@ public class TiltModel {
         this.file = "data/tilt/" + file.getName();
         try {
             BufferedReader br = new BufferedReader(new FileReader(this.file));
-            int size = Integer.parseInt(br.readLine());
-            int greenSliderNum = 0;
-            String[][] board = new String[size][size];
-            for (int row = 0; row < size; row++) {
+            String[] dimensions = br.readLine().trim().split("\\s+");
+            int rows = Integer.parseInt(dimensions[0]);
+            int cols = dimensions.length > 1 ? Integer.parseInt(dimensions[1]) : rows;
+            String[][] board = new String[rows][cols];
+            for (int row = 0; row < rows; row++) {
                 String[] rowValues = br.readLine().split(" ");
-                for (int col = 0; col < size; col++) {
-                    if(rowValues[col].equals("G")) {
-                        greenSliderNum++;
-                    }
+                for (int col = 0; col < cols; col++) {
                     board[row][col] = rowValues[col];
                 }
             }
 
-            currentConfig = new TiltConfig(size, greenSliderNum, board);
+            currentConfig = new TiltConfig(board);
+            history = new History<>(currentConfig);
         }
         catch (FileNotFoundException e) {
             alertObservers("Failed to load " + file.getName());
@@ -159,25 +185,20 @@ public class TiltModel {
             return;
         }
 
-        String msg = "";
         String[] args = command.split(" ");
         if(args.length == 1) {
             String direction = args[0];
             if(direction.equalsIgnoreCase("n")) {
-                msg = currentConfig.tilt("N");
-                alertObservers(msg);
+                tiltCurrent("N");
             }
             else if (direction.equalsIgnoreCase("s")) {
-                msg = currentConfig.tilt("S");
-                alertObservers(msg);
+                tiltCurrent("S");
             }
             else if (direction.equalsIgnoreCase("e")) {
-                msg = currentConfig.tilt("E");
-                alertObservers(msg);
+                tiltCurrent("E");
             }
             else if (direction.equalsIgnoreCase("w")){
-                msg = currentConfig.tilt("W");
-                alertObservers(msg);
+                tiltCurrent("W");
             }
             else {
                 alertObservers("Invalid command");
@@ -189,33 +210,125 @@ public class TiltModel {
     }
 
     /**
-     * This would reset the board to the original board.
+     * Tilts a copy of the current configuration, so the configurations in
+     * the history never change, and alerts the observers with the
+     * respective message of what was done or not. A tilt that changes
+     * nothing is not added to the history.
+     *
+     * @param direction The direction the board would be tilted in.
+     */
+    private void tiltCurrent(String direction) {
+        TiltConfig next = currentConfig.copy();
+        String msg = next.tilt(direction);
+        if(next.equals(currentConfig)) {
+            alertObservers(msg);
+        }
+        else {
+            history.push(next);
+            changeTo(next, msg);
+        }
+    }
+
+    /**
+     * Makes a configuration of the current board the current one, and
+     * alerts the observers with the cells that changed.
+     *
+     * @param next The new current configuration.
+     * @param message The message for the observers.
+     */
+    private void changeTo(TiltConfig next, String message) {
+        Set<Coordinates> changed = currentConfig.getChangedCells(next);
+        currentConfig = next;
+        events.publish(ModelEvent.changed(message, changed));
+    }
+
+    /**
+     * This would reset the board to the original board, which is kept in
+     * the history, so the file is not read again. The tilts can still be
+     * redone afterwards.
      *
      * @return A boolean representing whether the puzzle was successfully
-     * reset or not.
+     * reset or not, which it always is.
      */
     public boolean resetBoard() {
-        boolean loaded = loadBoardFromFile(new File(this.file));
-        alertObservers("Puzzle reset!");
-        return loaded;
+        changeTo(history.reset(), "Puzzle reset!");
+        return true;
+    }
+
+    /**
+     * Undoes the last tilt or hint, and alerts the observers whether
+     * there was one to undo.
+     */
+    public void undo() {
+        if(!history.canUndo()) {
+            alertObservers("Nothing to undo.");
+            return;
+        }
+        changeTo(history.undo(), "Undid a tilt.");
     }
 
     /**
-     * The view calls this to add itself as an observer.
+     * Redoes the last tilt that was undone, and alerts the observers
+     * whether there was one to redo.
+     */
+    public void redo() {
+        if(!history.canRedo()) {
+            alertObservers("Nothing to redo.");
+            return;
+        }
+        changeTo(history.redo(), "Redid a tilt.");
+    }
+
+    /**
+     * Goes to any step of the current game from the command of the user.
+     * The steps after it can still be redone.
+     *
+     * @param command The command from the user, with the step, where 0
+     * is the start.
+     */
+    public void jump(String command) {
+        String[] args = command.split(" ");
+        try {
+            int step = Integer.parseInt(args[1]);
+            if(args.length == 2 && step >= 0 && step < history.size()) {
+                changeTo(history.jump(step), "Went to step " + step + ".");
+                return;
+            }
+        }
+        catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            // Falls through to the invalid command below
+        }
+        alertObservers("Invalid command");
+    }
+
+    /**
+     * The view calls this to add itself as an observer. It is updated
+     * with every event right away, on the thread that changed the model.
+     *
+     * @param observer The view.
+     */
+    public void addObserver(Observer<TiltModel, ModelEvent> observer) {
+        events.subscribe(observer);
+    }
+
+    /**
+     * The view calls this to add itself as an observer that is updated on
+     * an executor, like Platform::runLater. Events that come before an
+     * update runs are merged into it.
      *
      * @param observer The view.
+     * @param executor Runs the updates of the view.
      */
-    public void addObserver(Observer<TiltModel, String> observer) {
-        this.observers.add(observer);
+    public void addObserver(Observer<TiltModel, ModelEvent> observer, Executor executor) {
+        events.subscribe(observer, executor);
     }
 
     /**
-     * The model's state has changed (the counter), so inform the view via
-     * the update method.
+     * Informs the views of a message, with nothing on the board changed.
+     *
+     * @param data The message.
      */
     private void alertObservers(String data) {
-        for (var observer : observers) {
-            observer.update(this, data);
-        }
+        events.publish(ModelEvent.message(data));
     }
 }
@@ -0,0 +1,321 @@
+package puzzles.tilt.model;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Admissible pattern database for the Tilt heuristic. The board is
+ * abstracted to a pair of green sliders, and every other slider is left
+ * out; Since the sliders left out could stop a green slider on any cell it
+ * passes, a tilt in the abstraction may leave each green slider on any of
+ * those cells, or drop it into the first hole in its way. A backward
+ * breadth-first search over every pair of positions finds how many tilts
+ * the pair needs to leave the board, which is never more than the real
+ * puzzle needs, so the largest value over every pair of green sliders is
+ * an admissible estimate.
+ * <p>
+ * The table has a byte for every pair of cells, plus a cell standing for
+ * "already fell", and only depends on where the blocks and holes are. It
+ * is saved to a file named after that layout and memory-mapped, so boards
+ * with the same layout share it across sessions, and a lookup is a single
+ * array access. The table grows with the square of the number of cells,
+ * so boards with more than MAX_CELLS cells do not get one.
+ *
+ * @author Boya Li
+ */
+public class TiltPatternDatabase {
+    /** System property with the directory the tables are saved in.*/
+    public static final String DIRECTORY_PROPERTY = "puzzles.tilt.patternDirectory";
+    /** The most cells a board can have to get a table.*/
+    public static final int MAX_CELLS = 256;
+    /** The value of a pair that can never leave the board.*/
+    public static final int UNREACHABLE = 255;
+    /** The row direction of north, east, south, and west.*/
+    private static final int[] ROW_DELTAS = {-1, 0, 1, 0};
+    /** The column direction of north, east, south, and west.*/
+    private static final int[] COL_DELTAS = {0, 1, 0, -1};
+    /** The first bytes of every table file.*/
+    private static final int MAGIC = 0x54504443;
+    /** The layout code of an empty cell.*/
+    private static final byte OPEN = 0;
+    /** The layout code of a block.*/
+    private static final byte BLOCK = 1;
+    /** The layout code of a hole.*/
+    private static final byte HOLE = 2;
+
+    /** The number of rows of the board.*/
+    private final int rows;
+    /** The number of columns of the board.*/
+    private final int cols;
+    /** The index standing for a slider that already fell into a hole.*/
+    private final int gone;
+    /** The tilts every pair needs, indexed by first * (gone + 1) + second.*/
+    private final ByteBuffer table;
+
+    /**
+     * Constructor for the pattern database of a layout. The table is read
+     * from its file if one was saved for the same layout, and built and
+     * saved otherwise; If the file cannot be used, the table is kept in
+     * memory only.
+     *
+     * @param rows The number of rows of the board.
+     * @param cols The number of columns of the board.
+     * @param layout The layout code of every cell in row-major order:
+     *               0 for open, 1 for a block, and 2 for a hole.
+     */
+    public TiltPatternDatabase(int rows, int cols, byte[] layout) {
+        this.rows = rows;
+        this.cols = cols;
+        this.gone = rows * cols;
+        ByteBuffer loaded = null;
+        Path file = fileFor(rows, cols, layout);
+        try {
+            loaded = load(file, layout);
+        }
+        catch(IOException e) {
+            // Rebuild it below
+        }
+        if(loaded == null) {
+            byte[] built = build(layout);
+            try {
+                save(file, layout, built);
+                loaded = load(file, layout);
+            }
+            catch(IOException e) {
+                // The table still works, it just is not shared
+            }
+            if(loaded == null) {
+                loaded = ByteBuffer.wrap(built);
+            }
+        }
+        this.table = loaded;
+    }
+
+    /**
+     * Builds the layout codes of a board of cell codes.
+     *
+     * @param blocks Whether each cell is a block, in row-major order.
+     * @param holes Whether each cell is a hole, in row-major order.
+     * @return The layout code of every cell.
+     */
+    public static byte[] layoutOf(boolean[] blocks, boolean[] holes) {
+        byte[] layout = new byte[blocks.length];
+        for(int cell = 0; cell < layout.length; cell++) {
+            layout[cell] = blocks[cell] ? BLOCK : holes[cell] ? HOLE : OPEN;
+        }
+        return layout;
+    }
+
+    /**
+     * Gets the tilts a single green slider needs to leave the board.
+     *
+     * @param cell The cell of the green slider.
+     * @return A lower bound on the tilts, or UNREACHABLE.
+     */
+    public int lookup(int cell) {
+        return table.get(cell * (gone + 1) + gone) & 0xFF;
+    }
+
+    /**
+     * Gets the tilts a pair of green sliders needs to leave the board.
+     *
+     * @param first The cell of the first green slider.
+     * @param second The cell of the second green slider.
+     * @return A lower bound on the tilts, or UNREACHABLE.
+     */
+    public int lookup(int first, int second) {
+        return table.get(first * (gone + 1) + second) & 0xFF;
+    }
+
+    /**
+     * Estimates the tilts needed to drop every green slider: the largest
+     * value over every pair of them.
+     *
+     * @param greens The cells of the green sliders.
+     * @param count The number of green sliders.
+     * @return A lower bound on the tilts, or UNREACHABLE.
+     */
+    public int estimate(int[] greens, int count) {
+        if(count == 1) {
+            return lookup(greens[0]);
+        }
+        int best = 0;
+        for(int i = 0; i < count; i++) {
+            for(int j = i + 1; j < count; j++) {
+                best = Math.max(best, lookup(greens[i], greens[j]));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Builds the table with a backward breadth-first search: the pair
+     * where both sliders fell needs no tilts, and every other pair needs
+     * one more tilt than the best pair a single tilt can take it to.
+     *
+     * @param layout The layout code of every cell.
+     * @return The table.
+     */
+    private byte[] build(byte[] layout) {
+        int[][][] moves = new int[gone + 1][ROW_DELTAS.length][];
+        for(int cell = 0; cell < gone; cell++) {
+            for(int direction = 0; direction < ROW_DELTAS.length; direction++) {
+                moves[cell][direction] = layout[cell] == OPEN ? slide(layout, cell, direction) : new int[0];
+            }
+        }
+        for(int direction = 0; direction < ROW_DELTAS.length; direction++) {
+            moves[gone][direction] = new int[]{gone};
+        }
+
+        int states = (gone + 1) * (gone + 1);
+        byte[] tilts = new byte[states];
+        Arrays.fill(tilts, (byte) UNREACHABLE);
+        tilts[gone * (gone + 1) + gone] = 0;
+        boolean changed = true;
+        for(int layer = 0; changed && layer < UNREACHABLE - 1; layer++) {
+            changed = false;
+            for(int state = 0; state < states; state++) {
+                if((tilts[state] & 0xFF) != UNREACHABLE) {
+                    continue;
+                }
+                if(reaches(moves, state / (gone + 1), state % (gone + 1), tilts, layer)) {
+                    tilts[state] = (byte) (layer + 1);
+                    changed = true;
+                }
+            }
+        }
+        return tilts;
+    }
+
+    /**
+     * Checks if a single tilt can take a pair to a pair in the given layer.
+     *
+     * @param moves The cells each cell can end up on after each tilt.
+     * @param first The cell of the first slider.
+     * @param second The cell of the second slider.
+     * @param tilts The table built so far.
+     * @param layer The layer of the backward search.
+     * @return A boolean representing if the pair is in the next layer.
+     */
+    private boolean reaches(int[][][] moves, int first, int second, byte[] tilts, int layer) {
+        for(int direction = 0; direction < ROW_DELTAS.length; direction++) {
+            for(int firstEnd : moves[first][direction]) {
+                for(int secondEnd : moves[second][direction]) {
+                    if((tilts[firstEnd * (gone + 1) + secondEnd] & 0xFF) == layer) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets every cell a green slider can end up on after a tilt, when
+     * other sliders may stop it on any cell it passes.
+     *
+     * @param layout The layout code of every cell.
+     * @param cell The cell of the slider.
+     * @param direction The index of the direction: north, east, south, west.
+     * @return The cells, with gone if it can fall into a hole.
+     */
+    private int[] slide(byte[] layout, int cell, int direction) {
+        int[] ends = new int[Math.max(rows, cols) + 1];
+        int count = 0;
+        ends[count++] = cell;
+        int row = cell / cols;
+        int col = cell % cols;
+        while(true) {
+            row += ROW_DELTAS[direction];
+            col += COL_DELTAS[direction];
+            if(row < 0 || row >= rows || col < 0 || col >= cols || layout[row * cols + col] == BLOCK) {
+                break;
+            }
+            if(layout[row * cols + col] == HOLE) {
+                ends[count++] = gone;
+                break;
+            }
+            ends[count++] = row * cols + col;
+        }
+        return Arrays.copyOf(ends, count);
+    }
+
+    /**
+     * Gets the file the table of a layout is saved in.
+     *
+     * @param rows The number of rows of the board.
+     * @param cols The number of columns of the board.
+     * @param layout The layout code of every cell.
+     * @return The path of the file.
+     */
+    private static Path fileFor(int rows, int cols, byte[] layout) {
+        String directory = System.getProperty(DIRECTORY_PROPERTY,
+                Paths.get(System.getProperty("java.io.tmpdir"), "tilt-patterns").toString());
+        long hash = 1125899906842597L;
+        for(byte code : layout) {
+            hash = 31 * hash + code;
+        }
+        return Paths.get(directory, "tilt-" + rows + "x" + cols + "-" + Long.toHexString(hash) + ".pdb");
+    }
+
+    /**
+     * Memory-maps a saved table, if the file is for the same layout.
+     *
+     * @param file The file of the table.
+     * @param layout The layout code of every cell.
+     * @return The table, or null if there is no table for the layout.
+     * @throws IOException If the file cannot be read.
+     */
+    private ByteBuffer load(Path file, byte[] layout) throws IOException {
+        if(!Files.exists(file)) {
+            return null;
+        }
+        int header = 3 * Integer.BYTES + layout.length;
+        int length = (gone + 1) * (gone + 1);
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(channel.size() != header + length) {
+                return null;
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, header + length);
+            if(mapped.getInt() != MAGIC || mapped.getInt() != rows || mapped.getInt() != cols) {
+                return null;
+            }
+            for(byte code : layout) {
+                if(mapped.get() != code) {
+                    return null;
+                }
+            }
+            return mapped.slice();
+        }
+    }
+
+    /**
+     * Saves a table for a layout, writing a temporary file first so other
+     * sessions never map a half-written one.
+     *
+     * @param file The file of the table.
+     * @param layout The layout code of every cell.
+     * @param tilts The table.
+     * @throws IOException If the file cannot be written.
+     */
+    private void save(Path file, byte[] layout, byte[] tilts) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temporary = Files.createTempFile(file.getParent(), "tilt-", ".tmp");
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(rows);
+            out.writeInt(cols);
+            out.write(layout);
+            out.write(tilts);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch(AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
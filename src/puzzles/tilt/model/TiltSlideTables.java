@@ -0,0 +1,264 @@
+package puzzles.tilt.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lookup tables that tilt a whole row or column of a Tilt board at once,
+ * in the style of 2048 engines. Every line is read from the wall the
+ * board is tilted towards, and its sliders are packed into two bits a
+ * cell (empty, blue, green), which indexes a table with the sliders of
+ * the line after the tilt, the number of green sliders that fell through
+ * a hole, and whether a blue slider fell through one. Blocks and holes
+ * never move, so they are not part of the index: each line has the table
+ * of its pattern of blocks and holes, shared by every line with the same
+ * pattern, and a tilt costs one lookup a line.
+ * <p>
+ * An entry is worked out the first time it is looked up. Entries are
+ * plain ints that only ever go from 0 to their one value, so threads
+ * that share the tables can only ever work an entry out twice.
+ *
+ * @author Boya Li
+ */
+final class TiltSlideTables {
+    /** The longest line that has tables; Boards with longer lines are tilted cell by cell.*/
+    static final int MAX_LINE = 8;
+    /** The number of directions the board can be tilted in.*/
+    private static final int DIRECTIONS = 4;
+    /** The row direction of north, east, south, and west.*/
+    private static final int[] ROW_DELTAS = {-1, 0, 1, 0};
+    /** The column direction of north, east, south, and west.*/
+    private static final int[] COL_DELTAS = {0, 1, 0, -1};
+    /** Bit of an entry that is set once it has been worked out.*/
+    private static final int KNOWN = 1;
+    /** Bit of an entry that is set if a blue slider falls through a hole.*/
+    private static final int BLUE_LOST = 1 << 1;
+    /** Shift of the number of green sliders that fell through a hole.*/
+    private static final int REMOVED_SHIFT = 2;
+    /** Mask of the number of green sliders that fell through a hole.*/
+    private static final int REMOVED_MASK = 0xF;
+    /** Shift of the sliders of the line after the tilt.*/
+    private static final int LINE_SHIFT = 8;
+
+    /** The number of rows of the board.*/
+    private final int rows;
+    /** The number of columns of the board.*/
+    private final int cols;
+    /** The cell code of every cell, with sliders left out.*/
+    private final byte[] fixed;
+    /** The cells of every line of every direction, starting at the wall.*/
+    private final int[][][] lines;
+    /** The table of every line of every direction.*/
+    private final int[][][] tables;
+
+    /**
+     * Constructor for the tables of a layout of blocks and holes.
+     *
+     * @param rows The number of rows of the board.
+     * @param cols The number of columns of the board.
+     * @param fixed The cell code of every cell in row-major order: BLOCK,
+     *              HOLE, or EMPTY for every other cell.
+     */
+    TiltSlideTables(int rows, int cols, byte[] fixed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.fixed = fixed;
+        this.lines = new int[DIRECTIONS][][];
+        this.tables = new int[DIRECTIONS][][];
+        if(!hasTables()) {
+            return;
+        }
+        Map<Integer, int[]> shared = new HashMap<>();
+        for(int direction = 0; direction < DIRECTIONS; direction++) {
+            boolean vertical = ROW_DELTAS[direction] != 0;
+            int length = vertical ? rows : cols;
+            lines[direction] = new int[vertical ? cols : rows][length];
+            tables[direction] = new int[lines[direction].length][];
+            for(int line = 0; line < lines[direction].length; line++) {
+                int pattern = 0;
+                for(int k = 0; k < length; k++) {
+                    int cell = cellOf(direction, line, k);
+                    lines[direction][line][k] = cell;
+                    pattern |= fixed[cell] << (3 * k);
+                }
+                // Rows and columns of different lengths never share a table
+                pattern |= length << (3 * MAX_LINE);
+                tables[direction][line] = shared.computeIfAbsent(pattern, p -> new int[1 << (2 * length)]);
+            }
+        }
+    }
+
+    /**
+     * Checks if the board is small enough to have tables.
+     *
+     * @return A boolean representing if no line is longer than MAX_LINE.
+     */
+    boolean hasTables() {
+        return rows <= MAX_LINE && cols <= MAX_LINE;
+    }
+
+    /**
+     * Tilts an array of cell codes in a single direction, one lookup a
+     * line.
+     *
+     * @param cells The cell codes, in row-major order, which are updated.
+     * @param direction The index of the direction: north, east, south, west.
+     * @return The number of green sliders that fell through a hole, or -1
+     * if a blue slider would fall through a hole.
+     */
+    int slide(byte[] cells, int direction) {
+        if(!hasTables()) {
+            return slideCells(cells, direction);
+        }
+        int removed = 0;
+        for(int line = 0; line < lines[direction].length; line++) {
+            int[] lineCells = lines[direction][line];
+            int sliders = 0;
+            for(int k = 0; k < lineCells.length; k++) {
+                byte value = cells[lineCells[k]];
+                if(value == TiltConfig.BLUE || value == TiltConfig.GREEN) {
+                    sliders |= value << (2 * k);
+                }
+            }
+            if(sliders == 0) {
+                continue;
+            }
+            int[] table = tables[direction][line];
+            int entry = table[sliders];
+            if(entry == 0) {
+                entry = slideLine(lineCells, sliders);
+                table[sliders] = entry;
+            }
+            if((entry & BLUE_LOST) != 0) {
+                return -1;
+            }
+            removed += (entry >>> REMOVED_SHIFT) & REMOVED_MASK;
+            int after = entry >>> LINE_SHIFT;
+            if(after != sliders) {
+                for(int k = 0; k < lineCells.length; k++) {
+                    if(fixed[lineCells[k]] == TiltConfig.EMPTY) {
+                        cells[lineCells[k]] = (byte) ((after >>> (2 * k)) & 3);
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Works out the table entry of a line: The sliders closest to the wall
+     * are moved first, so every slider stops against the wall, a block, or
+     * a slider that has already stopped.
+     *
+     * @param lineCells The cells of the line, starting at the wall.
+     * @param sliders The sliders of the line, two bits a cell.
+     * @return The table entry.
+     */
+    private int slideLine(int[] lineCells, int sliders) {
+        byte[] line = new byte[lineCells.length];
+        for(int k = 0; k < line.length; k++) {
+            byte value = fixed[lineCells[k]];
+            line[k] = value == TiltConfig.EMPTY ? (byte) ((sliders >>> (2 * k)) & 3) : value;
+        }
+        int removed = 0;
+        for(int k = 1; k < line.length; k++) {
+            byte value = line[k];
+            if(value != TiltConfig.BLUE && value != TiltConfig.GREEN) {
+                continue;
+            }
+            int curr = k;
+            while(curr > 0) {
+                if(line[curr - 1] == TiltConfig.HOLE) {
+                    if(value == TiltConfig.BLUE) {
+                        return KNOWN | BLUE_LOST;
+                    }
+                    removed++;
+                    line[curr] = TiltConfig.EMPTY;
+                    break;
+                }
+                else if(line[curr - 1] == TiltConfig.EMPTY) {
+                    line[curr - 1] = value;
+                    line[curr] = TiltConfig.EMPTY;
+                    curr--;
+                }
+                else {
+                    break;
+                }
+            }
+        }
+        int after = 0;
+        for(int k = 0; k < line.length; k++) {
+            if(line[k] == TiltConfig.BLUE || line[k] == TiltConfig.GREEN) {
+                after |= line[k] << (2 * k);
+            }
+        }
+        return KNOWN | removed << REMOVED_SHIFT | after << LINE_SHIFT;
+    }
+
+    /**
+     * Tilts an array of cell codes cell by cell, for boards whose lines
+     * are too long for tables. The sliders closest to the edge the board
+     * is tilted towards are moved first.
+     *
+     * @param cells The cell codes, in row-major order, which are updated.
+     * @param direction The index of the direction: north, east, south, west.
+     * @return The number of green sliders that fell through a hole, or -1
+     * if a blue slider would fall through a hole.
+     */
+    private int slideCells(byte[] cells, int direction) {
+        int dRow = ROW_DELTAS[direction];
+        int dCol = COL_DELTAS[direction];
+        int removed = 0;
+        for(int i = 0; i < rows; i++) {
+            int row = dRow == 1 ? rows - 1 - i : i;
+            for(int j = 0; j < cols; j++) {
+                int col = dCol == 1 ? cols - 1 - j : j;
+                byte value = cells[row * cols + col];
+                if(value != TiltConfig.BLUE && value != TiltConfig.GREEN) {
+                    continue;
+                }
+                int currRow = row;
+                int currCol = col;
+                while(currRow + dRow >= 0 && currRow + dRow < rows &&
+                        currCol + dCol >= 0 && currCol + dCol < cols) {
+                    int curr = currRow * cols + currCol;
+                    int next = (currRow + dRow) * cols + currCol + dCol;
+                    if(cells[next] == TiltConfig.HOLE) {
+                        if(value == TiltConfig.BLUE) {
+                            return -1;
+                        }
+                        removed++;
+                        cells[curr] = TiltConfig.EMPTY;
+                        break;
+                    }
+                    else if(cells[next] == TiltConfig.EMPTY) {
+                        cells[next] = value;
+                        cells[curr] = TiltConfig.EMPTY;
+                        currRow += dRow;
+                        currCol += dCol;
+                    }
+                    else {
+                        break;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Gets a cell of a line, counting from the wall the board is tilted
+     * towards: lines of north and south are columns, and lines of east
+     * and west are rows.
+     *
+     * @param direction The index of the direction: north, east, south, west.
+     * @param line The index of the row or column.
+     * @param k How far the cell is from the wall.
+     * @return The cell, in row-major order.
+     */
+    private int cellOf(int direction, int line, int k) {
+        int row = ROW_DELTAS[direction] == 0 ? line : ROW_DELTAS[direction] < 0 ? k : rows - 1 - k;
+        int col = COL_DELTAS[direction] == 0 ? line : COL_DELTAS[direction] < 0 ? k : cols - 1 - k;
+        return row * cols + col;
+    }
+}
@@ -0,0 +1,246 @@
+package puzzles.tilt.model;
+
+/**
+ * Ranks the configurations of a Tilt puzzle into dense integers. Blocks
+ * and holes never move and blue sliders never leave the board, so every
+ * configuration reachable from a start is a choice of which free cells
+ * (not blocks or holes) hold a slider, and which of those sliders are
+ * blue. With b blue and g green sliders on f free cells there are
+ * C(f, b + g) * C(b + g, b) of them; The configurations with fewer green
+ * sliders come first, and within them the cells and the blue sliders are
+ * ranked with the combinatorial number system. Every rank from 0 to
+ * size() - 1 is a configuration, so visited sets can be plain bitmaps.
+ * <p>
+ * The ranker reuses scratch arrays, so it must only be used by one
+ * thread at a time.
+ *
+ * @author Boya Li
+ */
+public class TiltStateRanker {
+    /** The context of the puzzle.*/
+    private final TiltContext context;
+    /** The number of blue sliders.*/
+    private final int blues;
+    /** The most green sliders a configuration can have.*/
+    private final int maxGreens;
+    /** The cell of every free cell, in row-major order.*/
+    private final int[] freeCells;
+    /** The index of every cell among the free cells, or -1.*/
+    private final int[] freeIndex;
+    /** Binomial coefficients, capped at Long.MAX_VALUE.*/
+    private final long[][] choose;
+    /** The rank of the first configuration with each number of green sliders.*/
+    private final long[] offsets;
+    /** Scratch cell codes.*/
+    private final byte[] cells;
+    /** Scratch slider positions.*/
+    private final int[] positions;
+
+    /**
+     * Constructor for the ranker of every configuration reachable from a
+     * start configuration.
+     *
+     * @param start The start configuration.
+     */
+    public TiltStateRanker(TiltConfig start) {
+        this.context = start.getContext();
+        byte[] startCells = start.encode();
+        int blueCount = 0;
+        int greenCount = 0;
+        int free = 0;
+        this.freeIndex = new int[context.getArea()];
+        for(int cell = 0; cell < startCells.length; cell++) {
+            if(startCells[cell] == TiltConfig.BLUE) {
+                blueCount++;
+            }
+            else if(startCells[cell] == TiltConfig.GREEN) {
+                greenCount++;
+            }
+            freeIndex[cell] = context.isBlock(cell) || context.isHole(cell) ? -1 : free++;
+        }
+        this.blues = blueCount;
+        this.maxGreens = greenCount;
+        this.freeCells = new int[free];
+        for(int cell = 0; cell < freeIndex.length; cell++) {
+            if(freeIndex[cell] >= 0) {
+                freeCells[freeIndex[cell]] = cell;
+            }
+        }
+
+        int sliders = blues + maxGreens;
+        this.choose = new long[free + 1][sliders + 1];
+        for(int n = 0; n <= free; n++) {
+            choose[n][0] = 1;
+            for(int k = 1; k <= Math.min(n, sliders); k++) {
+                choose[n][k] = saturatedAdd(choose[n - 1][k - 1], k <= n - 1 ? choose[n - 1][k] : 0);
+            }
+        }
+        this.offsets = new long[maxGreens + 2];
+        for(int greens = 0; greens <= maxGreens; greens++) {
+            offsets[greens + 1] = saturatedAdd(offsets[greens], count(greens));
+        }
+        this.cells = new byte[context.getArea()];
+        this.positions = new int[sliders];
+    }
+
+    /**
+     * Gets the number of ranks, which is the number of configurations with
+     * the same blue sliders and at most as many green sliders as the start.
+     *
+     * @return The number of ranks, or Long.MAX_VALUE if it does not fit.
+     */
+    public long size() {
+        return offsets[maxGreens + 1];
+    }
+
+    /**
+     * Ranks a configuration of the puzzle.
+     *
+     * @param config The configuration.
+     * @return The rank of the configuration.
+     */
+    public long rank(TiltConfig config) {
+        return rank(config.encode());
+    }
+
+    /**
+     * Builds the configuration of a rank.
+     *
+     * @param rank The rank.
+     * @return The configuration.
+     */
+    public TiltConfig unrank(long rank) {
+        unrank(rank, cells);
+        int[][] sliders = context.decode(cells);
+        return new TiltConfig(context, sliders[0], sliders[1]);
+    }
+
+    /**
+     * Gets the number of green sliders of a rank, without unranking it.
+     *
+     * @param rank The rank.
+     * @return The number of green sliders left.
+     */
+    public int greens(long rank) {
+        int greens = 0;
+        while(offsets[greens + 1] <= rank) {
+            greens++;
+        }
+        return greens;
+    }
+
+    /**
+     * Tilts the configuration of a rank in a direction.
+     *
+     * @param rank The rank.
+     * @param direction The index of the direction: north, east, south, west.
+     * @return The rank of the neighbor, or -1 if a blue slider would fall
+     * through a hole.
+     */
+    public long tilt(long rank, int direction) {
+        unrank(rank, cells);
+        if(context.slide(cells, direction) < 0) {
+            return -1;
+        }
+        return rank(cells);
+    }
+
+    /**
+     * Ranks an array of cell codes.
+     *
+     * @param codes The cell codes in row-major order.
+     * @return The rank.
+     */
+    private long rank(byte[] codes) {
+        int sliders = 0;
+        long cellRank = 0;
+        long blueRank = 0;
+        int blueSeen = 0;
+        for(int cell = 0; cell < codes.length; cell++) {
+            if(codes[cell] == TiltConfig.BLUE || codes[cell] == TiltConfig.GREEN) {
+                cellRank += choose[freeIndex[cell]][sliders + 1];
+                if(codes[cell] == TiltConfig.BLUE) {
+                    blueRank += choose[sliders][++blueSeen];
+                }
+                sliders++;
+            }
+        }
+        int greens = sliders - blues;
+        return offsets[greens] + cellRank * choose[sliders][blues] + blueRank;
+    }
+
+    /**
+     * Fills an array of cell codes with the configuration of a rank.
+     *
+     * @param rank The rank.
+     * @param codes The cell codes in row-major order, which are overwritten.
+     * @return The number of green sliders.
+     */
+    private int unrank(long rank, byte[] codes) {
+        int greens = greens(rank);
+        int sliders = blues + greens;
+        long within = rank - offsets[greens];
+        long cellRank = within / choose[sliders][blues];
+        long blueRank = within % choose[sliders][blues];
+
+        for(int cell = 0; cell < codes.length; cell++) {
+            codes[cell] = context.isBlock(cell) ? TiltConfig.BLOCK :
+                    context.isHole(cell) ? TiltConfig.HOLE : TiltConfig.EMPTY;
+        }
+        int bound = freeCells.length;
+        for(int k = sliders; k >= 1; k--) {
+            int position = bound - 1;
+            while(choose[position][k] > cellRank) {
+                position--;
+            }
+            cellRank -= choose[position][k];
+            positions[k - 1] = position;
+            bound = position;
+        }
+        for(int k = 0; k < sliders; k++) {
+            codes[freeCells[positions[k]]] = TiltConfig.GREEN;
+        }
+        bound = sliders;
+        for(int k = blues; k >= 1; k--) {
+            int ordinal = bound - 1;
+            while(choose[ordinal][k] > blueRank) {
+                ordinal--;
+            }
+            blueRank -= choose[ordinal][k];
+            codes[freeCells[positions[ordinal]]] = TiltConfig.BLUE;
+            bound = ordinal;
+        }
+        return greens;
+    }
+
+    /**
+     * Counts the configurations with a number of green sliders.
+     *
+     * @param greens The number of green sliders.
+     * @return The count, or Long.MAX_VALUE if it does not fit.
+     */
+    private long count(int greens) {
+        int sliders = blues + greens;
+        if(sliders > freeCells.length) {
+            return 0;
+        }
+        long cellChoices = choose[freeCells.length][sliders];
+        long blueChoices = choose[sliders][blues];
+        if(cellChoices != 0 && blueChoices > Long.MAX_VALUE / cellChoices) {
+            return Long.MAX_VALUE;
+        }
+        return cellChoices * blueChoices;
+    }
+
+    /**
+     * Adds two counts, capping the sum at Long.MAX_VALUE.
+     *
+     * @param a The first count.
+     * @param b The second count.
+     * @return The capped sum.
+     */
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+}
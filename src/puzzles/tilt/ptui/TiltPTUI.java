@@ -1,5 +1,6 @@
 package puzzles.tilt.ptui;
 
+import puzzles.common.ModelEvent;
 import puzzles.common.Observer;
 import puzzles.tilt.model.TiltModel;
 
@@ -10,7 +11,7 @@ import java.util.Scanner;
  *
  * @author Boya Li
  */
-public class TiltPTUI implements Observer<TiltModel, String> {
+public class TiltPTUI implements Observer<TiltModel, ModelEvent> {
     /** The model.*/
     private static TiltModel model;
     /** Scanner for user input.*/
@@ -41,18 +42,22 @@ public class TiltPTUI implements Observer<TiltModel, String> {
      *
      * @param model the object that wishes to inform this object
      *                about something that has happened.
-     * @param message optional data the server.model can send to the observer
+     * @param event What changed, with the message to display.
      *
      */
     @Override
-    public void update(TiltModel model, String message) {
+    public void update(TiltModel model, ModelEvent event) {
+        String message = event.getMessage();
         if(gameOn) {
             if(message.equals("Invalid command")) {
                 System.out.println("h(int)              -- hint next move\n" +
                         "l(oad) filename     -- load new puzzle file\n" +
                         "t(ilt) {N|S|E|W}    -- tilt the board in the given direction\n" +
                         "q(uit)              -- quit the game\n" +
-                        "r(eset)             -- reset the current game");
+                        "r(eset)             -- reset the current game\n" +
+                        "u(ndo)              -- undo the last move\n" +
+                        "re(do)              -- redo the last undone move\n" +
+                        "j(ump) step         -- go to a step of the current game, 0 being the start");
             }
             else {
                 System.out.println(message + "\n");
@@ -91,7 +96,10 @@ public class TiltPTUI implements Observer<TiltModel, String> {
                "l(oad) filename     -- load new puzzle file\n" +
                "t(ilt) {N|S|E|W}    -- tilt the board in the given direction\n" +
                "q(uit)              -- quit the game\n" +
-               "r(eset)             -- reset the current game");
+               "r(eset)             -- reset the current game\n" +
+               "u(ndo)              -- undo the last move\n" +
+               "re(do)              -- redo the last undone move\n" +
+               "j(ump) step         -- go to a step of the current game, 0 being the start");
        gameOn = true;
     }
 
@@ -103,7 +111,7 @@ public class TiltPTUI implements Observer<TiltModel, String> {
     private void gameLoop() {
         while(true) {
             System.out.println("Enter N E S W to tile the board in the specific direction," +
-                    " (H)int, (R)eset, or (Q)uit to main menu.");
+                    " (H)int, (R)eset, (U)ndo, (Re)do, (J)ump, or (Q)uit to main menu.");
             String command = in.nextLine();
             if(command.equalsIgnoreCase("q") || command.equalsIgnoreCase("quit")) {
                 System.out.println("Quitting.");
@@ -117,8 +125,21 @@ public class TiltPTUI implements Observer<TiltModel, String> {
                 model.getHint();
             }
             else if(command.equalsIgnoreCase("r") || command.equalsIgnoreCase("reset")) {
+                gameOn = true;
                 model.resetBoard();
             }
+            else if(command.equalsIgnoreCase("u") || command.equalsIgnoreCase("undo")) {
+                gameOn = true;
+                model.undo();
+            }
+            else if(command.equalsIgnoreCase("re") || command.equalsIgnoreCase("redo")) {
+                gameOn = true;
+                model.redo();
+            }
+            else if(command.split(" ")[0].equalsIgnoreCase("j") || command.split(" ")[0].equalsIgnoreCase("jump")) {
+                gameOn = true;
+                model.jump(command);
+            }
             else if(command.equalsIgnoreCase("n") ||
                     command.equalsIgnoreCase("e") ||
                     command.equalsIgnoreCase("s") ||
@@ -1,6 +1,12 @@
 package puzzles.tilt.solver;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.LayeredSolver;
+import puzzles.common.solver.PortfolioSolver;
+import puzzles.common.solver.SolveLimits;
+import puzzles.common.solver.SolveMode;
+import puzzles.common.solver.SolveOutcome;
+import puzzles.common.solver.SolveStatus;
 import puzzles.common.solver.Solver;
 import puzzles.tilt.model.TiltConfig;
 
@@ -18,19 +24,27 @@ public class Tilt {
     /**
      * Run an instance of the tilt puzzle.
      *
-     * @param args [0]: the file the program would access;
+     * @param args [0]: the file the program would access, whose first
+     *             line is the size of a square board or the rows and
+     *             columns of a rectangular one;
+     *             [1]: optional "any" to find any solution instead of a
+     *             shortest one, "ranked" to find a shortest one with
+     *             the ranked breadth-first search, "portfolio" to race
+     *             several searches for a shortest one and print which one
+     *             won, or "layered" to find a shortest one a number of
+     *             green sliders gone at a time and print the size of the
+     *             largest level.
      */
     public static void main(String[] args) throws IOException {
-        if (args.length != 1) {
-            System.out.println("Usage: java Tilt filename");
+        if (args.length != 1 && !(args.length == 2 && (args[1].equals("any") || args[1].equals("ranked") ||
+                args[1].equals("portfolio") || args[1].equals("layered")))) {
+            System.out.println("Usage: java Tilt filename [any|ranked|portfolio|layered]");
         }
         else {
             FileReader file = null;
-            int size = 0;
             String[][] board = new String[0][];
             int row = 0;
             int col = 0;
-            int greenSliderNum = 0;
 
             try {
                 file = new FileReader(args[0]);
@@ -44,16 +58,14 @@ public class Tilt {
             String line;
 
             if((line = in.readLine()) != null) {
-                size = Integer.parseInt(line);
-                board = new String[size][size];
+                String[] dimensions = line.trim().split("\\s+");
+                int rows = Integer.parseInt(dimensions[0]);
+                board = new String[rows][dimensions.length > 1 ? Integer.parseInt(dimensions[1]) : rows];
             }
 
             while((line = in.readLine()) != null) {
                 String[] line1 = line.split(" ");
                 for(String value : line1) {
-                    if(value.equals("G")) {
-                        greenSliderNum++;
-                    }
                     board[row][col] = value;
                     col++;
                 }
@@ -64,19 +76,38 @@ public class Tilt {
             file.close();
             in.close();
 
-            TiltConfig start = new TiltConfig(size, greenSliderNum, board);
+            TiltConfig start = new TiltConfig(board);
 
             System.out.println(start);
 
-            Solver solver = new Solver();
-
-            Collection<Configuration> path = solver.solve(start);
+            SolveOutcome outcome;
+            if(args.length == 2 && args[1].equals("ranked")) {
+                outcome = new TiltRankedSolver().trySolve(start);
+            }
+            else if(args.length == 2 && args[1].equals("portfolio")) {
+                PortfolioSolver portfolio = PortfolioSolver.standard(Runtime.getRuntime().availableProcessors(), false);
+                outcome = portfolio.trySolve(start);
+                System.out.println("Winner: " + portfolio.getWinner());
+            }
+            else if(args.length == 2 && args[1].equals("layered")) {
+                LayeredSolver layered = new LayeredSolver();
+                outcome = layered.trySolve(start);
+                System.out.println("Peak level size: " + layered.getPeakLevelSize());
+            }
+            else {
+                SolveMode mode = args.length == 2 ? SolveMode.SATISFICING : SolveMode.OPTIMAL;
+                outcome = new Solver().trySolve(start, SolveLimits.NONE, mode);
+            }
+            Collection<Configuration> path = outcome.getPath();
 
-            System.out.println("Total configs: " + solver.getConfigCount() +
-                    "\nUnique configs: " + solver.getUniqueConfigCount());
+            System.out.println("Total configs: " + outcome.getConfigCount() +
+                    "\nUnique configs: " + outcome.getUniqueConfigCount());
 
 
-            if (path == null) {
+            if (outcome.getStatus() == SolveStatus.BUDGET_EXCEEDED) {
+                System.out.println("Memory budget exceeded");
+            }
+            else if (path == null) {
                 System.out.println("No solution");
             }
             if (path != null && path.size() >= 1) {
@@ -0,0 +1,219 @@
+package puzzles.tilt.solver;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SolveLimits;
+import puzzles.common.solver.SolveOutcome;
+import puzzles.common.solver.SolveStatus;
+import puzzles.tilt.model.TiltConfig;
+import puzzles.tilt.model.TiltStateRanker;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Breadth-first solver for Tilt that works on the ranks of configurations
+ * instead of configuration objects. The visited set is a bitmap with one
+ * bit for every rank, and the move that first reached every rank is kept
+ * as a 2-bit code. The queue holds the ranks in the order they were found,
+ * with the start of every layer, so a path is rebuilt by looking in the
+ * previous layer for the configuration whose tilt in the recorded
+ * direction gives the current one.
+ *
+ * @author Boya Li
+ */
+public class TiltRankedSolver {
+    /** The most ranks the bitmaps may cover, about 400MB of bitmaps.*/
+    public static final long MAX_STATES = 1L << 30;
+    /** Reason given when the puzzle has too many ranks for the bitmaps.*/
+    public static final String TOO_MANY_STATES = "too many states to rank";
+    /** Name of the strategy.*/
+    private static final String STRATEGY = "ranked breadth-first search";
+    /** The number of directions the board can be tilted in.*/
+    private static final int DIRECTIONS = 4;
+
+    /** The number of configurations created.*/
+    private int configCount;
+    /** The number of unique configurations created.*/
+    private int uniqueConfigCount;
+    /** The number of configurations expanded.*/
+    private long expandedCount;
+
+    /**
+     * Solves the puzzle without any limits.
+     *
+     * @param start The start configuration.
+     * @return The outcome of the search.
+     */
+    public SolveOutcome trySolve(TiltConfig start) {
+        return trySolve(start, SolveLimits.NONE);
+    }
+
+    /**
+     * Solves the puzzle within the given limits with a breadth-first search
+     * over ranks, checking every neighbor for the solution as soon as it
+     * is found.
+     *
+     * @param start The start configuration.
+     * @param limits The deadline, node limit and cancellation token.
+     * @return The outcome of the search, with a shortest path if solved.
+     */
+    public SolveOutcome trySolve(TiltConfig start, SolveLimits limits) {
+        long startMillis = System.currentTimeMillis();
+        configCount = 1;
+        uniqueConfigCount = 1;
+        expandedCount = 0;
+        TiltStateRanker ranker = new TiltStateRanker(start);
+        long states = ranker.size();
+        if(states > MAX_STATES) {
+            return outcome(SolveStatus.BUDGET_EXCEEDED, null, TOO_MANY_STATES, startMillis);
+        }
+        if(start.isSolution()) {
+            return outcome(SolveStatus.SOLVED, new LinkedList<>(List.of(start)), null, startMillis);
+        }
+
+        long[] visited = new long[(int) ((states + 63) / 64)];
+        long[] moves = new long[(int) ((states + 31) / 32)];
+        long[] queue = new long[16];
+        int[] layerStarts = new int[16];
+        int layers = 1;
+        int tail = 0;
+
+        long startRank = ranker.rank(start);
+        mark(visited, startRank);
+        queue[tail++] = startRank;
+        layerStarts[1] = tail;
+
+        for(int head = 0; head < tail; head++) {
+            if(head == layerStarts[layers]) {
+                layers++;
+                if(layers == layerStarts.length) {
+                    layerStarts = Arrays.copyOf(layerStarts, layerStarts.length * 2);
+                }
+                layerStarts[layers] = tail;
+            }
+            String stopReason = limits.stopReason(expandedCount);
+            if(stopReason != null) {
+                return outcome(SolveLimits.statusFor(stopReason), null, stopReason, startMillis);
+            }
+            expandedCount++;
+            long current = queue[head];
+            for(int direction = 0; direction < DIRECTIONS; direction++) {
+                long neighbor = ranker.tilt(current, direction);
+                if(neighbor < 0) {
+                    continue;
+                }
+                configCount++;
+                if(isMarked(visited, neighbor)) {
+                    continue;
+                }
+                mark(visited, neighbor);
+                setMove(moves, neighbor, direction);
+                uniqueConfigCount++;
+                if(ranker.greens(neighbor) == 0) {
+                    return outcome(SolveStatus.SOLVED,
+                            constructPath(ranker, queue, layerStarts, layers - 1, head, neighbor, moves),
+                            null, startMillis);
+                }
+                if(tail == queue.length) {
+                    queue = Arrays.copyOf(queue, queue.length * 2);
+                }
+                queue[tail++] = neighbor;
+            }
+        }
+        return outcome(SolveStatus.UNSOLVABLE, null, null, startMillis);
+    }
+
+    /**
+     * Helper method used in trySolve to rebuild the path: the parent of a
+     * rank is in the layer before it, and is the one whose tilt in the
+     * recorded direction gives the rank.
+     *
+     * @param ranker The ranker of the puzzle.
+     * @param queue The ranks in the order they were found.
+     * @param layerStarts The index in the queue where every layer starts.
+     * @param layer The layer of the parent of the solution.
+     * @param parentIndex The index of the parent of the solution in the queue.
+     * @param solution The rank of the solution.
+     * @param moves The 2-bit move that first reached every rank.
+     * @return List of configurations from the start to the solution.
+     */
+    private List<Configuration> constructPath(TiltStateRanker ranker, long[] queue, int[] layerStarts, int layer,
+                                              int parentIndex, long solution, long[] moves) {
+        LinkedList<Configuration> path = new LinkedList<>();
+        path.addFirst(ranker.unrank(solution));
+        int index = parentIndex;
+        while(layer > 0) {
+            long current = queue[index];
+            path.addFirst(ranker.unrank(current));
+            int direction = getMove(moves, current);
+            for(int candidate = layerStarts[layer - 1]; candidate < layerStarts[layer]; candidate++) {
+                if(ranker.tilt(queue[candidate], direction) == current) {
+                    index = candidate;
+                    break;
+                }
+            }
+            layer--;
+        }
+        path.addFirst(ranker.unrank(queue[0]));
+        return path;
+    }
+
+    /**
+     * Helper method used in trySolve to create the outcome with the
+     * statistics of the search.
+     *
+     * @param status How the search ended.
+     * @param path Path to a solution, or null if none was found.
+     * @param reason Why the search stopped early, or null if it finished.
+     * @param startMillis Time the search started.
+     * @return The outcome.
+     */
+    private SolveOutcome outcome(SolveStatus status, List<Configuration> path, String reason, long startMillis) {
+        return new SolveOutcome(status, path, reason, configCount, uniqueConfigCount, expandedCount,
+                System.currentTimeMillis() - startMillis, STRATEGY);
+    }
+
+    /**
+     * Checks the bit of a rank.
+     *
+     * @param bits The bitmap.
+     * @param rank The rank.
+     * @return A boolean representing if the bit is set.
+     */
+    private static boolean isMarked(long[] bits, long rank) {
+        return (bits[(int) (rank >>> 6)] & 1L << rank) != 0;
+    }
+
+    /**
+     * Sets the bit of a rank.
+     *
+     * @param bits The bitmap.
+     * @param rank The rank.
+     */
+    private static void mark(long[] bits, long rank) {
+        bits[(int) (rank >>> 6)] |= 1L << rank;
+    }
+
+    /**
+     * Gets the 2-bit move code of a rank.
+     *
+     * @param codes The move codes, 32 to a long.
+     * @param rank The rank.
+     * @return The direction that first reached the rank.
+     */
+    private static int getMove(long[] codes, long rank) {
+        return (int) (codes[(int) (rank >>> 5)] >>> ((rank & 31) * 2)) & 3;
+    }
+
+    /**
+     * Sets the 2-bit move code of a rank, which must not be set yet.
+     *
+     * @param codes The move codes, 32 to a long.
+     * @param rank The rank.
+     * @param direction The direction that first reached the rank.
+     */
+    private static void setMove(long[] codes, long rank, int direction) {
+        codes[(int) (rank >>> 5)] |= (long) direction << ((rank & 31) * 2);
+    }
+}
@@ -3,18 +3,23 @@ package puzzles.tipover.gui;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
 import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.FileChooser;
 import puzzles.common.Coordinates;
+import puzzles.common.ModelEvent;
 import puzzles.common.Observer;
 import puzzles.tipover.model.TipOverConfig;
 import puzzles.tipover.model.TipOverModel;
+import puzzles.tipover.solver.TipOverDistances;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import java.io.File;
+import java.util.Set;
 
 /**
  * Class that creates the GUi for the game, Tip Over; Acts as the
@@ -22,7 +27,7 @@ import java.io.File;
  *
  * @author Ricky Leung
  */
-public class TipOverGUI extends Application implements Observer<TipOverModel, String> {
+public class TipOverGUI extends Application implements Observer<TipOverModel, ModelEvent> {
     /** Model of the game */
     private TipOverModel model;
     /** Message that is displayed to the user */
@@ -39,15 +44,18 @@ public class TipOverGUI extends Application implements Observer<TipOverModel, St
     private static String fontName = "Ariel";
     /** Universal size */
     private static int SIZE = 30;
+    /** Whether the moves to the goal are shown instead of the heights */
+    private boolean showDistances = false;
 
     /**
-     * Creates the model and adds the GUI as an observer
+     * Creates the model and adds the GUI as an observer, which is updated
+     * on the JavaFX thread with the changes since its last update
      */
     public void init() {
         originalLoad = getParameters().getRaw().get(0);
         this.model = new TipOverModel();
         this.model.loadBoardFromFile(originalLoad);
-        model.addObserver(this);
+        model.addObserver(this, Platform::runLater);
     }
 
     /**
@@ -57,7 +65,7 @@ public class TipOverGUI extends Application implements Observer<TipOverModel, St
      *              - Gridpane for crates/towers at center
      *              - VBox at right:
      *                  - Gridpane for move buttons
-     *                  - Buttons for Load, Reset, and Hint
+     *                  - Buttons for Load, Reset, Hint, Undo, Redo, and Distances
      *
      * @param stage the primary stage for this application, onto which
      * the application scene can be set.
@@ -132,7 +140,23 @@ public class TipOverGUI extends Application implements Observer<TipOverModel, St
         hint.setOnAction(event -> {
             model.getHint();
         });
-        rightPanel.getChildren().addAll(arrows, load, reset, hint);
+        Button undo = new Button("Undo");
+        undo.setMinSize(SIZE * 3, SIZE);
+        undo.setOnAction(event -> {
+            model.undo();
+        });
+        Button redo = new Button("Redo");
+        redo.setMinSize(SIZE * 3, SIZE);
+        redo.setOnAction(event -> {
+            model.redo();
+        });
+        Button distances = new Button("Distances");
+        distances.setMinSize(SIZE * 3, SIZE);
+        distances.setOnAction(event -> {
+            showDistances = !showDistances;
+            displayBoard();
+        });
+        rightPanel.getChildren().addAll(arrows, load, reset, hint, undo, redo, distances);
 
 
         fullGUI = new BorderPane();
@@ -148,40 +172,79 @@ public class TipOverGUI extends Application implements Observer<TipOverModel, St
 
     /**
      * Method used for updating the gridpane of crates/towers based on the board
-     * once a button is pressed
+     * once a button is pressed; With distances shown, each location shows the
+     * fewest moves to the goal from it instead, or "_" if there is no way;
+     * The heights are shown until the model has found the distances
      */
     public void displayBoard() {
         TipOverConfig currentConfig = this.model.getConfig();
-        int[][] currentBoard = currentConfig.getBoard();
-        Coordinates goal = currentConfig.getGOAL();
-        Coordinates currentLocation = currentConfig.getCurrentLocation();
+        int[][] distances = showDistances ? model.getDistances() : null;
+        if (showDistances && distances == null) {
+            this.message.setText(model.areDistancesTooLarge() ? "Distances: too large" : "Finding the distances...");
+        }
         for (int row = 0; row < currentConfig.getRows(); row++) {
             for (int col = 0; col < currentConfig.getCols(); col++) {
-                Label val = (Label) crates.getChildren().get(row * currentConfig.getCols() + col);
-                if (goal.row() == row && goal.col() == col) {
-                    val.setStyle("-fx-background-color: red");
-                } else if (currentLocation.row() == row && currentLocation.col() == col) {
-                    val.setStyle("-fx-background-color: #ea9797");
-                } else {
-                    val.setStyle("-fx-background-color: white");
-                }
-                val.setText(Integer.toString(currentBoard[row][col]));
-
+                displayCell(currentConfig, distances, row, col);
             }
         }
     }
 
+    /**
+     * Method used for updating only the locations that changed, with the
+     * heights shown
+     *
+     * @param cells The locations that changed
+     */
+    private void displayCells(Set<Coordinates> cells) {
+        TipOverConfig currentConfig = this.model.getConfig();
+        for (Coordinates cell : cells) {
+            displayCell(currentConfig, null, cell.row(), cell.col());
+        }
+    }
+
+    /**
+     * Helper method used in displayBoard and displayCells to update the
+     * label of a location
+     *
+     * @param currentConfig The configuration to show
+     * @param distances The fewest moves to the goal from each location, or null to show the heights
+     * @param row Row of the location
+     * @param col Column of the location
+     */
+    private void displayCell(TipOverConfig currentConfig, int[][] distances, int row, int col) {
+        Coordinates goal = currentConfig.getGOAL();
+        Coordinates currentLocation = currentConfig.getCurrentLocation();
+        Label val = (Label) crates.getChildren().get(row * currentConfig.getCols() + col);
+        if (goal.row() == row && goal.col() == col) {
+            val.setStyle("-fx-background-color: red");
+        } else if (currentLocation.row() == row && currentLocation.col() == col) {
+            val.setStyle("-fx-background-color: #ea9797");
+        } else {
+            val.setStyle("-fx-background-color: white");
+        }
+        if (distances == null) {
+            val.setTextFill(Color.BLACK);
+            val.setText(Integer.toString(currentConfig.getHeight(row, col)));
+        } else {
+            val.setTextFill(Color.BLUE);
+            int distance = distances[row][col];
+            val.setText(distance == TipOverDistances.UNREACHABLE ? "_" : Integer.toString(distance));
+        }
+    }
+
     /**
      * Updates the message label and crates gridpane based on the button
-     * that was pressed by the user
+     * that was pressed by the user; Only the locations that changed are
+     * updated, unless a board was loaded or the distances are shown, which
+     * can all change with a single tip
      *
      * @param tipOverModel the object that wishes to inform this object
      *                about something that has happened.
-     * @param message optional data the server.model can send to the observer
+     * @param event what changed since the last update, with the latest message
      */
     @Override
-    public void update(TipOverModel tipOverModel, String message) {
-        if (message.startsWith("Loaded")) {
+    public void update(TipOverModel tipOverModel, ModelEvent event) {
+        if (event.isLoaded()) {
             this.crates = new GridPane();
             this.crates.setStyle("-fx-border-color: black");
             this.crates.setHgap(10);
@@ -198,8 +261,12 @@ public class TipOverGUI extends Application implements Observer<TipOverModel, St
 
             stage.setHeight(Math.max(225, model.getConfig().getRows() * 55));
         }
-        this.message.setText(message);
-        displayBoard();
+        this.message.setText(event.getMessage());
+        if (showDistances || event.isEveryCellChanged()) {
+            displayBoard();
+        } else {
+            displayCells(event.getChangedCells());
+        }
     }
 
     /**
@@ -2,24 +2,42 @@ package puzzles.tipover.model;
 
 import puzzles.common.Coordinates;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.LazyNeighborIterator;
+import puzzles.common.solver.NeighborCursor;
+import puzzles.common.solver.PackedKey;
 import java.util.*;
 
 /**
- * Configuration class for the game, Tip Over
+ * Configuration class for the game, Tip Over; A configuration only keeps
+ * its location and how each tower has been tipped, and reads the height
+ * of a location from the sparse board of its context, so moves cost time
+ * in the height of a tower and not the size of the board
  *
  * @author Ricky Leung
  */
 public class TipOverConfig implements Configuration {
-    /** Coordinates of the starting position of the initial configuration */
-    private final Coordinates INITIAL;
-    /** Coordinates of the final position you're trying to go to */
-    private final Coordinates GOAL;
-    /** 2d array representing the height at each coordinate */
-    private int[][] board;
+    /** Number of possible moves from a location: 4 hops and 4 tips */
+    private static final int MOVES = 8;
+    /** Row direction of north, south, east, and west */
+    private static final int[] ROW_DELTAS = {-1, 1, 0, 0};
+    /** Column direction of north, south, east, and west */
+    private static final int[] COL_DELTAS = {0, 0, 1, -1};
+    /** Number of bits used to record how a single tower was tipped */
+    private static final int BITS_PER_TIP = TipOverContext.BITS_PER_TIP;
+    /** Number of towers whose tips are packed into a single long */
+    private static final int TIPS_PER_WORD = TipOverContext.TIPS_PER_WORD;
+    /** The constant parts of the puzzle, shared by every configuration */
+    private final TipOverContext context;
     /** Coordinate of your current location */
     private Coordinates currentLocation;
     /** The height from your current location */
     private int currentHeight;
+    /** How each tower has been tipped: one bit for each direction, set if tipped that way */
+    private long[] tips;
+    /** Whether deadEnd has been worked out for the current tips */
+    private boolean deadEndKnown;
+    /** Whether the goal can no longer be reached with the current tips */
+    private boolean deadEnd;
 
     /**
      * Constructor for the configuration of the game, Tip Over
@@ -30,11 +48,25 @@ public class TipOverConfig implements Configuration {
      * @param currentLocation Your current location on the board
      */
     public TipOverConfig(Coordinates INITIAL, Coordinates GOAL, int[][] board, Coordinates currentLocation) {
-        this.INITIAL = INITIAL;
-        this.GOAL = GOAL;
-        this.board = board;
+        this.context = new TipOverContext(INITIAL, GOAL, board);
+        this.currentLocation = context.getCoordinates(currentLocation.row(), currentLocation.col());
+        this.tips = new long[(context.getTowers() + TIPS_PER_WORD - 1) / TIPS_PER_WORD];
+        this.currentHeight = heightAt(currentLocation.row(), currentLocation.col());
+    }
+
+    /**
+     * Constructor for a neighbor, which shares the context of the
+     * configuration it came from
+     *
+     * @param context The constant parts of the puzzle
+     * @param currentLocation Your current location on the board
+     * @param tips How each tower has been tipped
+     */
+    private TipOverConfig(TipOverContext context, Coordinates currentLocation, long[] tips) {
+        this.context = context;
         this.currentLocation = currentLocation;
-        this.currentHeight = board[currentLocation.row()][currentLocation.col()];
+        this.tips = tips;
+        this.currentHeight = heightAt(currentLocation.row(), currentLocation.col());
     }
 
     /**
@@ -46,8 +78,9 @@ public class TipOverConfig implements Configuration {
      */
     @Override
     public boolean isSolution() {
-        return currentLocation.row() == GOAL.row() &&
-                currentLocation.col() == GOAL.col();
+        Coordinates goal = context.getGOAL();
+        return currentLocation.row() == goal.row() &&
+                currentLocation.col() == goal.col();
     }
 
     /**
@@ -63,141 +96,357 @@ public class TipOverConfig implements Configuration {
     @Override
     public Collection<Configuration> getNeighbors() {
         ArrayList<Configuration> result = new ArrayList<>();
-        // Current row
-        int row = currentLocation.row();
-        // Current col
-        int col = currentLocation.col();
-
-        // North hop
-        if (row > 0 && board[row - 1][col] > 0) {
-            Coordinates newLocation = new Coordinates(row - 1, col);
-            result.add(new TipOverConfig(this.INITIAL, this.GOAL, board, newLocation));
-        }
-        // South hop
-        if (row < board.length - 1 && board[row + 1][col] > 0) {
-            Coordinates newLocation = new Coordinates(row + 1, col);
-            result.add(new TipOverConfig(this.INITIAL, this.GOAL, board, newLocation));
-        }
-        // East hop
-        if (col < board[0].length - 1 && board[row][col + 1] > 0) {
-            Coordinates newLocation = new Coordinates(row, col + 1);
-            result.add(new TipOverConfig(this.INITIAL, this.GOAL, board, newLocation));
-        }
-        // West hop
-        if (col > 0 && board[row][col - 1] > 0) {
-            Coordinates newLocation = new Coordinates(row, col - 1);
-            result.add(new TipOverConfig(this.INITIAL, this.GOAL, board, newLocation));
+        Iterator<Configuration> neighbors = neighborIterator();
+        while (neighbors.hasNext()) {
+            result.add(neighbors.next());
         }
+        return result;
+    }
 
-        // North tower tip over
-        if (board[row][col] > 1 && row - board[row][col] >= 0) {
-            // Deep copy
-            int[][] newBoard = new int[board.length][];
-            for (int i = 0; i < board.length; i++) {
-                newBoard[i] = board[i].clone();
-            }
+    /**
+     * Lazily walks the neighbors of the current configuration, building
+     * each one only when it is asked for
+     *
+     * @return Iterator over the neighbors of the current configuration
+     */
+    @Override
+    public Iterator<Configuration> neighborIterator() {
+        return new LazyNeighborIterator(MOVES, move -> isLegal(move) ? buildNeighbor(move) : null);
+    }
+
+    /**
+     * Gets the neighbors reached by hopping onto a neighboring crate/tower;
+     * They share the tips of the current configuration
+     *
+     * @return List of the hop neighbors
+     */
+    public List<TipOverConfig> getHops() {
+        return movesBetween(0, 4);
+    }
+
+    /**
+     * Gets the neighbors reached by tipping over the current tower
+     *
+     * @return List of the tip neighbors
+     */
+    public List<TipOverConfig> getTips() {
+        return movesBetween(4, MOVES);
+    }
 
-            // Check there are no crates
-            boolean clear = true;
-            for (int i = 1; i <= board[row][col]; i++) {
-                if (board[row - i][col] != 0) {
-                    clear = false;
-                    break;
+    /**
+     * Gets the configurations one move before this one: a hop onto the
+     * current location from a crate/tower next to it, or a tip of a tower
+     * next to it that fell onto the current location; Each of them was a
+     * legal move with the tips before it
+     *
+     * @return List of the configurations that can move to this one
+     */
+    public List<TipOverConfig> getPredecessors() {
+        List<TipOverConfig> result = new ArrayList<>();
+        for (int direction = 0; direction < 4; direction++) {
+            int row = currentLocation.row() - ROW_DELTAS[direction];
+            int col = currentLocation.col() - COL_DELTAS[direction];
+            if (row < 0 || row >= getRows() || col < 0 || col >= getCols()) {
+                continue;
+            }
+            Coordinates location = context.getCoordinates(row, col);
+            if (currentHeight != 0 && heightAt(row, col) != 0) {
+                result.add(new TipOverConfig(context, location, tips));
+            }
+            int tower = context.getTowerIndex(row, col);
+            if (tower >= 0 && TipOverContext.tipOf(tips, tower) == direction + 1) {
+                long[] before = tips.clone();
+                before[tower / TIPS_PER_WORD] &= ~(1L << (tower % TIPS_PER_WORD * BITS_PER_TIP + direction));
+                if (context.canTip(tower, direction, before)) {
+                    result.add(new TipOverConfig(context, location, before));
                 }
-                newBoard[row - i][col] = 1;
             }
+        }
+        return result;
+    }
 
-            if (clear) {
-                // Update original location to 0 since tower was tipped
-                newBoard[row][col] = 0;
+    /**
+     * Gets a configuration with the same board as this one, but with the
+     * player at another location
+     *
+     * @param row Row of the location
+     * @param col Column of the location
+     * @return The configuration with the player at the location
+     */
+    public TipOverConfig startingAt(int row, int col) {
+        return new TipOverConfig(context, context.getCoordinates(row, col), tips);
+    }
 
-                Coordinates newLocation = new Coordinates(row - 1, col);
-                result.add(new TipOverConfig(this.INITIAL, this.GOAL, newBoard, newLocation));
+    /**
+     * Helper method used in getHops and getTips to build the legal moves
+     * in a range of move indexes
+     *
+     * @param first First move index
+     * @param end Move index after the last one
+     * @return List of the neighbors
+     */
+    private List<TipOverConfig> movesBetween(int first, int end) {
+        List<TipOverConfig> result = new ArrayList<>();
+        for (int move = first; move < end; move++) {
+            if (isLegal(move)) {
+                result.add(buildNeighbor(move));
             }
         }
+        return result;
+    }
 
-        // South tower tip over
-        if (board[row][col] > 1 && row + board[row][col] < board.length) {
-            // Deep copy
-            int[][] newBoard = new int[board.length][];
-            for (int i = 0; i < board.length; i++) {
-                newBoard[i] = board[i].clone();
-            }
+    /**
+     * Walks the neighbors of the current configuration key-first; The key
+     * of a neighbor is its location and how each tower has been tipped, so
+     * a neighbor is only built when the solver has not seen it
+     *
+     * @return Cursor over the neighbors of the current configuration
+     */
+    @Override
+    public NeighborCursor neighborCursor() {
+        return new TipOverNeighborCursor();
+    }
 
-            // Check there are no crates
-            boolean clear = true;
-            for (int i = 1; i <= board[row][col]; i++) {
-                if (board[row + i][col] != 0) {
-                    clear = false;
-                    break;
-                }
-                newBoard[row + i][col] = 1;
-            }
+    /**
+     * The key of the current configuration: its location and how each
+     * tower has been tipped, which together decide the whole board
+     *
+     * @return Key of the current configuration
+     */
+    @Override
+    public Object getKey() {
+        return packKey(currentLocation.row(), currentLocation.col(), tips);
+    }
 
-            if (clear) {
-                // Update original location to 0 since tower was tipped
-                newBoard[row][col] = 0;
+    /**
+     * Estimates the moves to the goal as the Manhattan distance to it,
+     * which is never too many since a hop and a tip both move the player
+     * one cell
+     *
+     * @return Lower bound on the moves to the goal
+     */
+    @Override
+    public int estimate() {
+        Coordinates goal = context.getGOAL();
+        return Math.abs(goal.row() - currentLocation.row()) + Math.abs(goal.col() - currentLocation.col());
+    }
 
-                Coordinates newLocation = new Coordinates(row + 1, col);
-                result.add(new TipOverConfig(this.INITIAL, this.GOAL, newBoard, newLocation));
-            }
+    /**
+     * Checks if the goal can no longer be reached: it is not connected to
+     * the current location through cells that have a crate or tower, or
+     * could still get one from a tip that is not blocked for good; Only a
+     * tip changes this, so hops keep the answer of the configuration they
+     * came from
+     *
+     * @return True if the goal can no longer be reached
+     */
+    @Override
+    public boolean isDeadEnd() {
+        if (!deadEndKnown) {
+            deadEnd = !context.canReachGoal(currentLocation.row(), currentLocation.col(), tips);
+            deadEndKnown = true;
         }
+        return deadEnd;
+    }
 
-        // East tower tip over
-        if (board[row][col] > 1 && col + board[row][col] < board[0].length) {
-            // Deep copy
-            int[][] newBoard = new int[board.length][];
-            for (int i = 0; i < board.length; i++) {
-                newBoard[i] = board[i].clone();
-            }
+    /**
+     * The progress of the current configuration: how many towers have been
+     * tipped, which never goes down since a tip cannot be undone
+     *
+     * @return Number of tipped towers
+     */
+    @Override
+    public int getProgress() {
+        int tipped = 0;
+        for (long word : tips) {
+            tipped += Long.bitCount(word);
+        }
+        return tipped;
+    }
 
-            // Check there are no crates
-            boolean clear = true;
-            for (int i = 1; i <= board[row][col]; i++) {
-                if (board[row][col + i] != 0) {
-                    clear = false;
-                    break;
-                }
-                newBoard[row][col + i] = 1;
-            }
+    /**
+     * The key of how each tower has been tipped, without the location;
+     * Configurations that only hopped apart share it
+     *
+     * @return Key of the tips of the current configuration
+     */
+    public Object getTipsKey() {
+        return new PackedKey(tips);
+    }
 
-            if (clear) {
-                // Update original location to 0 since tower was tipped
-                newBoard[row][col] = 0;
+    /**
+     * Estimates the bytes kept for this configuration: the object, its
+     * tips, and its packed key; The board is only kept in the context
+     *
+     * @return Approximate size of this configuration in bytes
+     */
+    @Override
+    public int estimatedBytes() {
+        int tipBytes = 16 + 8 * tips.length;
+        int keyBytes = 32 + 8 * (tips.length + 1);
+        return 32 + tipBytes + keyBytes;
+    }
 
-                Coordinates newLocation = new Coordinates(row, col + 1);
-                result.add(new TipOverConfig(this.INITIAL, this.GOAL, newBoard, newLocation));
-            }
+    /**
+     * Checks if a single move is legal:
+     *      - moves 0 to 3 are hops north, south, east, and west
+     *      - moves 4 to 7 are tips north, south, east, and west
+     *
+     * @param move Index of the move
+     * @return True if the move is legal
+     */
+    private boolean isLegal(int move) {
+        int dRow = ROW_DELTAS[move % 4];
+        int dCol = COL_DELTAS[move % 4];
+        if (move < 4) {
+            return canHop(dRow, dCol);
         }
+        return canTip(move % 4);
+    }
 
-        // West tower tip over
-        if (board[row][col] > 1 && col - board[row][col] >= 0) {
-            // Deep copy
-            int[][] newBoard = new int[board.length][];
-            for (int i = 0; i < board.length; i++) {
-                newBoard[i] = board[i].clone();
-            }
+    /**
+     * Checks if there is a crate/tower next to the current location in
+     * the given direction to hop onto
+     *
+     * @param dRow Row direction of the hop
+     * @param dCol Column direction of the hop
+     * @return True if the hop is legal
+     */
+    private boolean canHop(int dRow, int dCol) {
+        int row = currentLocation.row() + dRow;
+        int col = currentLocation.col() + dCol;
+        return row >= 0 && row < getRows() && col >= 0 && col < getCols() && heightAt(row, col) != 0;
+    }
 
-            // Check there are no crates
-            boolean clear = true;
-            for (int i = 1; i <= board[row][col]; i++) {
-                if (board[row][col - i] != 0) {
-                    clear = false;
-                    break;
-                }
-                newBoard[row][col - i] = 1;
-            }
+    /**
+     * Checks if the tower at the current location can be tipped over in
+     * the given direction: there is enough space and there are no crates;
+     * The context checks it against the clearance mask of the tip
+     *
+     * @param direction Index of the direction: north, south, east, or west
+     * @return True if the tip is legal
+     */
+    private boolean canTip(int direction) {
+        if (currentHeight <= 1) {
+            return false;
+        }
+        int tower = context.getTowerIndex(currentLocation.row(), currentLocation.col());
+        return context.canTip(tower, direction, tips);
+    }
 
-            if (clear) {
-                // Update original location to 0 since tower was tipped
-                newBoard[row][col] = 0;
+    /**
+     * Builds the key of the neighbor reached by a legal move without
+     * building the neighbor itself
+     *
+     * @param move Index of the move
+     * @return Key of the neighbor
+     */
+    private PackedKey neighborKey(int move) {
+        int row = currentLocation.row() + ROW_DELTAS[move % 4];
+        int col = currentLocation.col() + COL_DELTAS[move % 4];
+        if (move < 4) {
+            return packKey(row, col, tips);
+        }
+        return packKey(row, col, withTip(move % 4));
+    }
 
-                Coordinates newLocation = new Coordinates(row, col - 1);
-                result.add(new TipOverConfig(this.INITIAL, this.GOAL, newBoard, newLocation));
-            }
+    /**
+     * Builds the neighbor reached by a legal move; Hops share the tips,
+     * and tips record the tower as tipped, which is all it takes to tip it
+     * over on the board of the neighbor
+     *
+     * @param move Index of the move
+     * @return The neighbor
+     */
+    private TipOverConfig buildNeighbor(int move) {
+        int row = currentLocation.row() + ROW_DELTAS[move % 4];
+        int col = currentLocation.col() + COL_DELTAS[move % 4];
+        Coordinates newLocation = context.getCoordinates(row, col);
+        if (move < 4) {
+            // A hop stays on cells connected to the same ones, so whether
+            // the goal can be reached does not change
+            TipOverConfig neighbor = new TipOverConfig(context, newLocation, tips);
+            neighbor.deadEndKnown = deadEndKnown;
+            neighbor.deadEnd = deadEnd;
+            return neighbor;
         }
+        return new TipOverConfig(context, newLocation, withTip(move % 4));
+    }
 
-        return result;
+    /**
+     * Gets the height of a location on the board of this configuration
+     *
+     * @param row Row of the location, which must be on the board
+     * @param col Column of the location, which must be on the board
+     * @return Height of the location
+     */
+    private int heightAt(int row, int col) {
+        return context.getHeight(row, col, tips);
+    }
+
+    /**
+     * Copies the tips of this configuration and records the tower at the
+     * current location as tipped in the given direction
+     *
+     * @param direction Index of the direction: north, south, east, or west
+     * @return The new tips
+     */
+    private long[] withTip(int direction) {
+        int tower = context.getTowerIndex(currentLocation.row(), currentLocation.col());
+        long[] newTips = tips.clone();
+        newTips[tower / TIPS_PER_WORD] |= 1L << (tower % TIPS_PER_WORD * BITS_PER_TIP + direction);
+        return newTips;
+    }
+
+    /**
+     * Packs a location and the tips into a key
+     *
+     * @param row Row of the location
+     * @param col Column of the location
+     * @param tips How each tower has been tipped
+     * @return The key
+     */
+    private PackedKey packKey(int row, int col, long[] tips) {
+        long[] words = new long[tips.length + 1];
+        words[0] = (long) row * getCols() + col;
+        System.arraycopy(tips, 0, words, 1, tips.length);
+        return new PackedKey(words);
+    }
+
+    /**
+     * Gets the locations whose heights or player differ between this
+     * configuration and another one of the same board, so a view only has
+     * to redraw those
+     *
+     * @param other The other configuration
+     * @return The locations that differ, or null if the other configuration
+     * is of another board
+     */
+    public Set<Coordinates> getChangedCells(TipOverConfig other) {
+        if (other.context != context) {
+            return null;
+        }
+        Set<Coordinates> cells = context.getChangedCells(tips, other.tips);
+        if (!currentLocation.equals(other.currentLocation)) {
+            cells.add(currentLocation);
+            cells.add(other.currentLocation);
+        }
+        return cells;
+    }
+
+    /**
+     * Copies the current configuration, so it can be moved without
+     * changing this one; The copy shares the context and the tips, which
+     * a move replaces instead of changing, so copying does not depend on
+     * the size of the board
+     *
+     * @return The copy
+     */
+    public TipOverConfig copy() {
+        TipOverConfig copy = new TipOverConfig(context, currentLocation, tips);
+        copy.deadEndKnown = deadEndKnown;
+        copy.deadEnd = deadEnd;
+        return copy;
     }
 
     /**
@@ -221,14 +470,14 @@ public class TipOverConfig implements Configuration {
         if (direction.equals("N")) {
             // Check if current location is at edge of board
             if (row > 0) {
-                Coordinates newLocation = new Coordinates(row - 1, col);
-                if (board[row - 1][col] != 0) {
+                Coordinates newLocation = context.getCoordinates(row - 1, col);
+                if (heightAt(row - 1, col) != 0) {
                     currentLocation = newLocation;
-                    currentHeight = board[currentLocation.row()][currentLocation.col()];
+                    currentHeight = heightAt(currentLocation.row(), currentLocation.col());
                     if (isSolution()) {
                         msg = "I WON!";
                     }
-                } else if (board[row][col] > 1 && validNorthTip()) {
+                } else if (currentHeight > 1 && validNorthTip()) {
                     performNorthTip();
                     currentLocation = newLocation;
                     currentHeight = 1;
@@ -238,7 +487,7 @@ public class TipOverConfig implements Configuration {
                         msg = "A tower has been tipped over.";
                     }
                 } else {
-                    if (board[row][col] > 1 && !validNorthTip()) {
+                    if (currentHeight > 1 && !validNorthTip()) {
                         msg = "Tower cannot be tipped over.";
                     } else {
                         msg = "No crate or tower there.";
@@ -250,15 +499,15 @@ public class TipOverConfig implements Configuration {
         // South move
         } else if (direction.equals("S")) {
             // Check if current location is at edge of board
-            if (row < board.length - 1) {
-                Coordinates newLocation = new Coordinates(row + 1, col);
-                if (board[row + 1][col] != 0) {
+            if (row < getRows() - 1) {
+                Coordinates newLocation = context.getCoordinates(row + 1, col);
+                if (heightAt(row + 1, col) != 0) {
                     currentLocation = newLocation;
-                    currentHeight = board[currentLocation.row()][currentLocation.col()];
+                    currentHeight = heightAt(currentLocation.row(), currentLocation.col());
                     if (isSolution()) {
                         msg = "I WON!";
                     }
-                } else if (board[row][col] > 1 && validSouthTip()) {
+                } else if (currentHeight > 1 && validSouthTip()) {
                     performSouthTip();
                     currentLocation = newLocation;
                     currentHeight = 1;
@@ -268,7 +517,7 @@ public class TipOverConfig implements Configuration {
                         msg = "A tower has been tipped over.";
                     }
                 } else {
-                    if (board[row][col] > 1 && !validSouthTip()) {
+                    if (currentHeight > 1 && !validSouthTip()) {
                         msg = "Tower cannot be tipped over.";
                     } else {
                         msg = "No crate or tower there.";
@@ -280,15 +529,15 @@ public class TipOverConfig implements Configuration {
         // East move
         } else if (direction.equals("E")) {
             // Check if current location is at edge of board
-            if (col < board[0].length - 1) {
-                Coordinates newLocation = new Coordinates(row, col + 1);
-                if (board[row][col + 1] != 0) {
+            if (col < getCols() - 1) {
+                Coordinates newLocation = context.getCoordinates(row, col + 1);
+                if (heightAt(row, col + 1) != 0) {
                     currentLocation = newLocation;
-                    currentHeight = board[currentLocation.row()][currentLocation.col()];
+                    currentHeight = heightAt(currentLocation.row(), currentLocation.col());
                     if (isSolution()) {
                         msg = "I WON!";
                     }
-                } else if (board[row][col] > 1 && validEastTip()) {
+                } else if (currentHeight > 1 && validEastTip()) {
                     performEastTip();
                     currentLocation = newLocation;
                     currentHeight = 1;
@@ -298,7 +547,7 @@ public class TipOverConfig implements Configuration {
                         msg = "A tower has been tipped over.";
                     }
                 } else {
-                    if (board[row][col] > 1 && !validEastTip()) {
+                    if (currentHeight > 1 && !validEastTip()) {
                         msg = "Tower cannot be tipped over.";
                     } else {
                         msg = "No crate or tower there.";
@@ -311,14 +560,14 @@ public class TipOverConfig implements Configuration {
         } else {
             // Check if current location is at edge of board
             if (col > 0) {
-                Coordinates newLocation = new Coordinates(row, col - 1);
-                if (board[row][col - 1] != 0) {
+                Coordinates newLocation = context.getCoordinates(row, col - 1);
+                if (heightAt(row, col - 1) != 0) {
                     currentLocation = newLocation;
-                    currentHeight = board[currentLocation.row()][currentLocation.col()];
+                    currentHeight = heightAt(currentLocation.row(), currentLocation.col());
                     if (isSolution()) {
                         msg = "I WON!";
                     }
-                } else if (board[row][col] > 1 && validWestTip()) {
+                } else if (currentHeight > 1 && validWestTip()) {
                     performWestTip();
                     currentLocation = newLocation;
                     currentHeight = 1;
@@ -328,7 +577,7 @@ public class TipOverConfig implements Configuration {
                         msg = "A tower has been tipped over.";
                     }
                 } else {
-                    if (board[row][col] > 1 && !validWestTip()) {
+                    if (currentHeight > 1 && !validWestTip()) {
                         msg = "Tower cannot be tipped over.";
                     } else {
                         msg = "No crate or tower there.";
@@ -350,14 +599,7 @@ public class TipOverConfig implements Configuration {
      * @return True if there is space north
      */
     public boolean validNorthTip() {
-        int row = currentLocation.row();
-        int col = currentLocation.col();
-        for (int i = 1; i <= board[row][col]; i++) {
-            if (row - i < 0 || board[row - i][col] != 0) {
-                return false;
-            }
-        }
-        return true;
+        return canTip(0);
     }
 
     /**
@@ -365,15 +607,12 @@ public class TipOverConfig implements Configuration {
      *      - for n = height of current location:
      *          - iterate n spaces upward and set each height to 1
      *          - update height of current location to 0
+     * Both come from recording the tower as tipped
      */
     public void performNorthTip() {
-        int row = currentLocation.row();
-        int col = currentLocation.col();
-        int height = board[row][col];
-        board[row][col] = 0;
-        for (int i = 1; i <= height; i++) {
-            board[row - i][col] = 1;
-        }
+        tips = withTip(0);
+        currentHeight = 0;
+        deadEndKnown = false;
     }
 
     /**
@@ -384,29 +623,19 @@ public class TipOverConfig implements Configuration {
      * @return True if there is space south
      */
     public boolean validSouthTip() {
-        int row = currentLocation.row();
-        int col = currentLocation.col();
-        for (int i = 1; i <= board[row][col]; i++) {
-            if (row + i >= board.length || board[row + i][col] != 0) {
-                return false;
-            }
-        }
-        return true;
+        return canTip(1);
     }
     /**
      * Performs the south tip over by:
      *      - for n = height of current location:
      *          - iterate n spaces downward and set each height to 1
      *          - update height of current location to 0
+     * Both come from recording the tower as tipped
      */
     public void performSouthTip() {
-        int row = currentLocation.row();
-        int col = currentLocation.col();
-        int height = board[row][col];
-        board[row][col] = 0;
-        for (int i = 1; i <= height; i++) {
-            board[row + i][col] = 1;
-        }
+        tips = withTip(1);
+        currentHeight = 0;
+        deadEndKnown = false;
     }
 
     /**
@@ -417,29 +646,19 @@ public class TipOverConfig implements Configuration {
      * @return True if there is space east
      */
     public boolean validEastTip() {
-        int row = currentLocation.row();
-        int col = currentLocation.col();
-        for (int i = 1; i <= board[row][col]; i++) {
-            if (col + i >= board[0].length || board[row][col + i] != 0) {
-                return false;
-            }
-        }
-        return true;
+        return canTip(2);
     }
     /**
      * Performs the east tip over by:
      *      - for n = height of current location:
      *          - iterate n spaces rightward and set each height to 1
      *          - update height of current location to 0
+     * Both come from recording the tower as tipped
      */
     public void performEastTip() {
-        int row = currentLocation.row();
-        int col = currentLocation.col();
-        int height = board[row][col];
-        board[row][col] = 0;
-        for (int i = 1; i <= height; i++) {
-            board[row][col + i] = 1;
-        }
+        tips = withTip(2);
+        currentHeight = 0;
+        deadEndKnown = false;
     }
 
     /**
@@ -450,38 +669,40 @@ public class TipOverConfig implements Configuration {
      * @return True if there is space west
      */
     public boolean validWestTip() {
-        int row = currentLocation.row();
-        int col = currentLocation.col();
-        for (int i = 1; i <= board[row][col]; i++) {
-            if (col - i < 0 || board[row][col - i] != 0) {
-                return false;
-            }
-        }
-        return true;
+        return canTip(3);
     }
     /**
      * Performs the west tip over by:
      *      - for n = height of current location:
      *          - iterate n spaces leftward and set each height to 1
      *          - update height of current location to 0
+     * Both come from recording the tower as tipped
      */
     public void performWestTip() {
-        int row = currentLocation.row();
-        int col = currentLocation.col();
-        int height = board[row][col];
-        board[row][col] = 0;
-        for (int i = 1; i <= height; i++) {
-            board[row][col - i] = 1;
-        }
+        tips = withTip(3);
+        currentHeight = 0;
+        deadEndKnown = false;
     }
 
     /**
-     * Getter method for the current board
+     * Getter method for the current board, which is built from the sparse
+     * board of the context every time it is asked for
      *
      * @return 2d array of heights
      */
     public int[][] getBoard() {
-        return board;
+        return context.buildBoard(tips);
+    }
+
+    /**
+     * Getter method for the height of a location on the current board
+     *
+     * @param row Row of the location
+     * @param col Column of the location
+     * @return Height of the location
+     */
+    public int getHeight(int row, int col) {
+        return heightAt(row, col);
     }
 
     /**
@@ -490,7 +711,7 @@ public class TipOverConfig implements Configuration {
      * @return int of rows on board
      */
     public int getRows() {
-        return board.length;
+        return context.getRows();
     }
 
     /**
@@ -499,7 +720,7 @@ public class TipOverConfig implements Configuration {
      * @return int of columns on board
      */
     public int getCols() {
-        return board[0].length;
+        return context.getCols();
     }
 
     /**
@@ -508,7 +729,16 @@ public class TipOverConfig implements Configuration {
      * @return COORDINATES of the goal
      */
     public Coordinates getGOAL() {
-        return this.GOAL;
+        return context.getGOAL();
+    }
+
+    /**
+     * Getter method for the constant parts of the puzzle
+     *
+     * @return Context shared by every configuration of the puzzle
+     */
+    public TipOverContext getContext() {
+        return context;
     }
 
     /**
@@ -522,7 +752,9 @@ public class TipOverConfig implements Configuration {
 
     /**
      * Overriden equals method that is used when trying to generate
-     * the best path with Solver class; Checks if every attribute is the same
+     * the best path with Solver class; The board is decided by how each
+     * tower has been tipped, so only the location and the tips are
+     * compared, along with the context when it is not the same object
      *
      * @param other TipOverConfig that is being compared to
      * @return boolean representing if this and other TipOverConfig is the same
@@ -531,29 +763,23 @@ public class TipOverConfig implements Configuration {
     public boolean equals(Object other) {
         if (other instanceof TipOverConfig) {
             TipOverConfig otherConfig = (TipOverConfig) other;
-            return this.INITIAL.equals(otherConfig.INITIAL) &&
-                    this.GOAL.equals(otherConfig.GOAL) &&
-                    Arrays.deepEquals(this.board, otherConfig.board) &&
-                    this.currentLocation.equals(otherConfig.currentLocation) &&
-                    this.currentHeight == otherConfig.currentHeight;
+            return this.currentLocation.equals(otherConfig.currentLocation) &&
+                    Arrays.equals(this.tips, otherConfig.tips) &&
+                    (this.context == otherConfig.context || this.context.equals(otherConfig.context));
         }
         return false;
     }
 
     /**
      * Overriden hashCode method that is used when trying to generate the
-     * best path with Solver class; Hash codes every attribute of this class
-     * and adds them
+     * best path with Solver class; Hash codes the location and the tips,
+     * which are the only attributes that change between configurations
      *
      * @return int of the hash code of this class
      */
     @Override
     public int hashCode() {
-        return this.INITIAL.hashCode() +
-                this.GOAL.hashCode() +
-                Arrays.deepHashCode(this.board) +
-                this.currentLocation.hashCode() +
-                Objects.hashCode(this.currentHeight);
+        return this.currentLocation.hashCode() * 31 + Arrays.hashCode(this.tips);
     }
 
     /**
@@ -563,33 +789,76 @@ public class TipOverConfig implements Configuration {
      */
     @Override
     public String toString() {
-        String result = "    ";
+        int[][] board = getBoard();
+        StringBuilder result = new StringBuilder("    ");
         for (int i = 0; i < board[0].length; i++) {
-            result += "  " + i;
+            result.append("  ").append(i);
         }
         String temp = "___";
-        result += "\n    " + temp.repeat(board[0].length);
+        result.append("\n    ").append(temp.repeat(board[0].length));
 
         for (int row = 0; row < board.length; row++) {
-            result += "\n " + row + " |";
+            result.append("\n ").append(row).append(" |");
             for (int col = 0; col < board[0].length; col++) {
-                result += " ";
+                result.append(" ");
                 if (currentLocation.row() == row && currentLocation.col() == col) {
-                    result += "*";
-                } else if (GOAL.row() == row && GOAL.col() == col) {
-                    result += "!";
+                    result.append("*");
+                } else if (context.getGOAL().row() == row && context.getGOAL().col() == col) {
+                    result.append("!");
                 } else {
-                    result += " ";
+                    result.append(" ");
                 }
                 if (board[row][col] == 0) {
-                    result += "_";
+                    result.append("_");
                 } else {
-                    result += board[row][col];
+                    result.append(board[row][col]);
                 }
             }
         }
-        result += "\n";
+        result.append("\n");
 
-        return result;
+        return result.toString();
+    }
+
+    /**
+     * Cursor over the moves of this configuration that only builds a
+     * neighbor when the solver asks for it
+     */
+    private class TipOverNeighborCursor implements NeighborCursor {
+        /** The move the cursor is on */
+        private int move = -1;
+
+        /**
+         * Moves to the next legal move
+         *
+         * @return True if there is another legal move
+         */
+        @Override
+        public boolean advance() {
+            do {
+                move++;
+            } while (move < MOVES && !isLegal(move));
+            return move < MOVES;
+        }
+
+        /**
+         * Key of the neighbor reached by the current move
+         *
+         * @return Key of the neighbor
+         */
+        @Override
+        public Object key() {
+            return neighborKey(move);
+        }
+
+        /**
+         * Builds the neighbor reached by the current move
+         *
+         * @return The neighbor
+         */
+        @Override
+        public Configuration build() {
+            return buildNeighbor(move);
+        }
     }
 }
@@ -0,0 +1,582 @@
+package puzzles.tipover.model;
+
+import puzzles.common.Coordinates;
+import puzzles.common.PuzzleContext;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The constant parts of a Tip Over puzzle, shared by every TipOverConfig
+ * of it: the initial and goal locations, the board the puzzle started
+ * with, and the numbering of its towers
+ * <p>
+ * The board is kept sparse, since real boards are mostly empty: a hashed
+ * table holds every cell that had a crate or tower at the start, or that
+ * a tower could fall onto, along with the towers that could fall onto it.
+ * How each tower has been tipped decides the rest, so the height of any
+ * cell of a configuration is a single lookup, whatever the size of the
+ * board
+ * <p>
+ * Every tower has one bit for each direction it can be tipped in, so
+ * tipping a tower sets a single bit. Each tower and direction also has a
+ * clearance mask of the bits of every other tip that would cover the
+ * cells it falls onto, so checking a tip only ANDs a few words of the
+ * tips with its mask
+ *
+ * @author Ricky Leung
+ */
+public class TipOverContext extends PuzzleContext {
+    /** Number of bits used to record how a single tower was tipped: one for each direction */
+    static final int BITS_PER_TIP = 4;
+    /** Number of towers whose tips are packed into a single long */
+    static final int TIPS_PER_WORD = Long.SIZE / BITS_PER_TIP;
+    /** Row direction of north, south, east, and west */
+    private static final int[] ROW_DELTAS = {-1, 1, 0, 0};
+    /** Column direction of north, south, east, and west */
+    private static final int[] COL_DELTAS = {0, 0, 1, -1};
+
+    /** Coordinates of the starting position of the initial configuration */
+    private final Coordinates INITIAL;
+    /** Coordinates of the final position you're trying to go to */
+    private final Coordinates GOAL;
+    /** Cells(row * cols + col) with a crate or tower when the puzzle started, in order */
+    private final int[] startCells;
+    /** Height of each of the starting cells */
+    private final int[] startHeights;
+    /** Cell of every tower(height > 1), in the order the towers are numbered */
+    private final int[] towerCells;
+    /** Cell + 1 kept in each slot of the table, or 0 for an empty slot */
+    private final int[] slotCells;
+    /** Starting height of the cell in each slot */
+    private final int[] slotHeights;
+    /** Index of the tower that started in each slot, or -1 */
+    private final int[] slotTowers;
+    /** Index into falls of the first tower that could fall onto each slot */
+    private final int[] slotFalls;
+    /** Towers that could fall onto each slot, as tower * 4 + direction, grouped by slot */
+    private final int[] falls;
+    /** Whether the board has room for each tip, as tower * 4 + direction */
+    private final boolean[] roomy;
+    /** Index into clearWords of the first word of the clearance mask of each tip */
+    private final int[] clearStarts;
+    /** Index into tips of each word of the clearance masks */
+    private final int[] clearWords;
+    /** Bits of the tips that would block a tip, for each word of the clearance masks */
+    private final long[] clearBits;
+    /** Index into pathTowers of the first tower in the way of each tip */
+    private final int[] pathStarts;
+    /** Towers in the way of each tip, which have to be tipped first, grouped by tip */
+    private final int[] pathTowers;
+
+    /**
+     * Constructor for the Tip Over context; Only the crates and towers of
+     * the board are kept, so the context does not change when a
+     * configuration changes
+     *
+     * @param INITIAL The initial location
+     * @param GOAL The final location
+     * @param board 2d array of ints representing the height at each location
+     */
+    public TipOverContext(Coordinates INITIAL, Coordinates GOAL, int[][] board) {
+        super(board.length, board[0].length);
+        this.INITIAL = INITIAL;
+        this.GOAL = GOAL;
+        int rows = board.length;
+        int cols = board[0].length;
+
+        int occupied = 0;
+        int towers = 0;
+        for (int[] boardRow : board) {
+            for (int height : boardRow) {
+                if (height != 0) {
+                    occupied++;
+                }
+                if (height > 1) {
+                    towers++;
+                }
+            }
+        }
+        this.startCells = new int[occupied];
+        this.startHeights = new int[occupied];
+        this.towerCells = new int[towers];
+        occupied = 0;
+        towers = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (board[row][col] != 0) {
+                    startCells[occupied] = row * cols + col;
+                    startHeights[occupied++] = board[row][col];
+                }
+                if (board[row][col] > 1) {
+                    towerCells[towers++] = row * cols + col;
+                }
+            }
+        }
+
+        // Every cell a tower could fall onto: the whole tower fits on the
+        // board, and no crate is in the way, since crates never move
+        long[] landings = new long[16];
+        int landingCount = 0;
+        this.roomy = new boolean[towers * 4];
+        for (int tower = 0; tower < towerCells.length; tower++) {
+            int row = towerCells[tower] / cols;
+            int col = towerCells[tower] % cols;
+            int height = board[row][col];
+            for (int direction = 0; direction < ROW_DELTAS.length; direction++) {
+                int endRow = row + ROW_DELTAS[direction] * height;
+                int endCol = col + COL_DELTAS[direction] * height;
+                if (endRow < 0 || endRow >= rows || endCol < 0 || endCol >= cols) {
+                    continue;
+                }
+                boolean blocked = false;
+                for (int i = 1; i <= height && !blocked; i++) {
+                    blocked = board[row + ROW_DELTAS[direction] * i][col + COL_DELTAS[direction] * i] == 1;
+                }
+                roomy[tower * 4 + direction] = !blocked;
+                for (int i = 1; i <= height && !blocked; i++) {
+                    if (landingCount == landings.length) {
+                        landings = Arrays.copyOf(landings, landingCount * 2);
+                    }
+                    int cell = (row + ROW_DELTAS[direction] * i) * cols + col + COL_DELTAS[direction] * i;
+                    landings[landingCount++] = (long) cell << 32 | tower * 4L + direction;
+                }
+            }
+        }
+        Arrays.sort(landings, 0, landingCount);
+
+        int capacity = Integer.highestOneBit(Math.max(1, (occupied + landingCount) * 2 - 1)) * 2;
+        this.slotCells = new int[capacity];
+        this.slotHeights = new int[capacity];
+        this.slotTowers = new int[capacity];
+        this.slotFalls = new int[capacity + 1];
+        this.falls = new int[landingCount];
+        Arrays.fill(slotTowers, -1);
+        for (int i = 0; i < occupied; i++) {
+            int slot = insert(startCells[i]);
+            slotHeights[slot] = startHeights[i];
+        }
+        for (int tower = 0; tower < towerCells.length; tower++) {
+            slotTowers[insert(towerCells[tower])] = tower;
+        }
+        // Count the landings of each slot, then lay them out slot by slot
+        int[] fallCounts = new int[capacity];
+        for (int i = 0; i < landingCount; i++) {
+            fallCounts[insert((int) (landings[i] >>> 32))]++;
+        }
+        for (int slot = 0; slot < capacity; slot++) {
+            slotFalls[slot + 1] = slotFalls[slot] + fallCounts[slot];
+            fallCounts[slot] = slotFalls[slot];
+        }
+        for (int i = 0; i < landingCount; i++) {
+            falls[fallCounts[slotOf((int) (landings[i] >>> 32))]++] = (int) landings[i];
+        }
+
+        // The clearance mask of a tip holds every other tip that covers a
+        // cell it falls onto, merged into words of the tips
+        this.clearStarts = new int[towers * 4 + 1];
+        this.pathStarts = new int[towers * 4 + 1];
+        int[] words = new int[16];
+        long[] bits = new long[16];
+        int[] paths = new int[16];
+        int wordCount = 0;
+        int pathCount = 0;
+        int[] blockers = new int[16];
+        for (int tip = 0; tip < towers * 4; tip++) {
+            clearStarts[tip] = wordCount;
+            pathStarts[tip] = pathCount;
+            if (!roomy[tip]) {
+                continue;
+            }
+            int tower = tip / 4;
+            int row = towerCells[tower] / cols;
+            int col = towerCells[tower] % cols;
+            int height = board[row][col];
+            int blockerCount = 0;
+            for (int i = 1; i <= height; i++) {
+                int slot = slotOf((row + ROW_DELTAS[tip % 4] * i) * cols + col + COL_DELTAS[tip % 4] * i);
+                if (slotTowers[slot] >= 0) {
+                    if (pathCount == paths.length) {
+                        paths = Arrays.copyOf(paths, pathCount * 2);
+                    }
+                    paths[pathCount++] = slotTowers[slot];
+                }
+                for (int j = slotFalls[slot]; j < slotFalls[slot + 1]; j++) {
+                    if (falls[j] / 4 != tower) {
+                        if (blockerCount == blockers.length) {
+                            blockers = Arrays.copyOf(blockers, blockerCount * 2);
+                        }
+                        blockers[blockerCount++] = falls[j];
+                    }
+                }
+            }
+            Arrays.sort(blockers, 0, blockerCount);
+            for (int i = 0; i < blockerCount; i++) {
+                int word = blockers[i] / Long.SIZE;
+                if (wordCount == clearStarts[tip] || words[wordCount - 1] != word) {
+                    if (wordCount == words.length) {
+                        words = Arrays.copyOf(words, wordCount * 2);
+                        bits = Arrays.copyOf(bits, wordCount * 2);
+                    }
+                    words[wordCount] = word;
+                    bits[wordCount++] = 0;
+                }
+                bits[wordCount - 1] |= 1L << (blockers[i] % Long.SIZE);
+            }
+        }
+        clearStarts[towers * 4] = wordCount;
+        pathStarts[towers * 4] = pathCount;
+        this.clearWords = Arrays.copyOf(words, wordCount);
+        this.clearBits = Arrays.copyOf(bits, wordCount);
+        this.pathTowers = Arrays.copyOf(paths, pathCount);
+    }
+
+    /**
+     * Getter method for the coordinates of the initial location
+     *
+     * @return COORDINATES of the initial location
+     */
+    public Coordinates getINITIAL() {
+        return INITIAL;
+    }
+
+    /**
+     * Getter method for the coordinates of the goal
+     *
+     * @return COORDINATES of the goal
+     */
+    public Coordinates getGOAL() {
+        return GOAL;
+    }
+
+    /**
+     * Gets the index of the tower that started at a location
+     *
+     * @param row Row of the location
+     * @param col Column of the location
+     * @return Index of the tower, or -1 if there was no tower there
+     */
+    public int getTowerIndex(int row, int col) {
+        int slot = slotOf(row * getCols() + col);
+        return slot < 0 ? -1 : slotTowers[slot];
+    }
+
+    /**
+     * Getter method for the number of towers on the starting board
+     *
+     * @return Number of towers
+     */
+    public int getTowers() {
+        return towerCells.length;
+    }
+
+    /**
+     * Gets the height of a location after the towers have been tipped:
+     *      - a tower that has been tipped leaves its location empty
+     *      - a tipped tower leaves a crate on every location it fell onto
+     *      - every other location keeps its starting height
+     *
+     * @param row Row of the location, which must be on the board
+     * @param col Column of the location, which must be on the board
+     * @param tips How each tower has been tipped
+     * @return Height of the location
+     */
+    public int getHeight(int row, int col, long[] tips) {
+        int slot = slotOf(row * getCols() + col);
+        return slot < 0 ? 0 : heightOf(slot, tips);
+    }
+
+    /**
+     * Gets the height of the cell in a slot of the table after the towers
+     * have been tipped
+     *
+     * @param slot Slot of the cell
+     * @param tips How each tower has been tipped
+     * @return Height of the cell
+     */
+    private int heightOf(int slot, long[] tips) {
+        int tower = slotTowers[slot];
+        if (tower >= 0 && tipOf(tips, tower) == 0) {
+            return slotHeights[slot];
+        }
+        if (tower < 0 && slotHeights[slot] != 0) {
+            return slotHeights[slot];
+        }
+        for (int i = slotFalls[slot]; i < slotFalls[slot + 1]; i++) {
+            if ((tips[falls[i] / Long.SIZE] & 1L << (falls[i] % Long.SIZE)) != 0) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Checks if a tower that has not been tipped can be tipped over in a
+     * direction: the whole tower fits on the board, no crate or tower is
+     * in the way, and no other tower has fallen onto the cells it falls
+     * onto
+     *
+     * @param tower Index of the tower
+     * @param direction Index of the direction: north, south, east, or west
+     * @param tips How each tower has been tipped
+     * @return True if the tip is legal
+     */
+    public boolean canTip(int tower, int direction, long[] tips) {
+        int tip = tower * 4 + direction;
+        if (isBlockedForGood(tip, tips)) {
+            return false;
+        }
+        for (int i = pathStarts[tip]; i < pathStarts[tip + 1]; i++) {
+            if (tipOf(tips, pathTowers[i]) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a tip can never be made again: the board has no room for
+     * it, the tower was already tipped, or another tower has fallen onto
+     * its path, since a crate is only ever cleared from the cell a tower
+     * started on
+     *
+     * @param tip The tip, as tower * 4 + direction
+     * @param tips How each tower has been tipped
+     * @return True if the tip is blocked for good
+     */
+    private boolean isBlockedForGood(int tip, long[] tips) {
+        if (!roomy[tip] || tipOf(tips, tip / 4) != 0) {
+            return true;
+        }
+        for (int i = clearStarts[tip]; i < clearStarts[tip + 1]; i++) {
+            if ((tips[clearWords[i]] & clearBits[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the goal could still be reached from a location: the goal
+     * is connected to it through cells that either have a crate or tower
+     * now, or could get a crate from a tip that is not blocked for good;
+     * The player only ever stands on such cells, so the goal cannot be
+     * reached if it is not connected
+     *
+     * @param row Row of the location
+     * @param col Column of the location
+     * @param tips How each tower has been tipped
+     * @return True if the goal is connected to the location
+     */
+    public boolean canReachGoal(int row, int col, long[] tips) {
+        int cols = getCols();
+        int goal = GOAL.row() * cols + GOAL.col();
+        long[] visited = new long[(slotCells.length + Long.SIZE - 1) / Long.SIZE];
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = row * cols + col;
+        int start = slotOf(row * cols + col);
+        if (start >= 0) {
+            visited[start / Long.SIZE] |= 1L << (start % Long.SIZE);
+        }
+        while (size > 0) {
+            int cell = stack[--size];
+            if (cell == goal) {
+                return true;
+            }
+            int cellRow = cell / cols;
+            int cellCol = cell % cols;
+            for (int direction = 0; direction < ROW_DELTAS.length; direction++) {
+                int nextRow = cellRow + ROW_DELTAS[direction];
+                int nextCol = cellCol + COL_DELTAS[direction];
+                if (nextRow < 0 || nextRow >= getRows() || nextCol < 0 || nextCol >= cols) {
+                    continue;
+                }
+                int slot = slotOf(nextRow * cols + nextCol);
+                if (slot < 0 || (visited[slot / Long.SIZE] & 1L << (slot % Long.SIZE)) != 0 || !canHoldCrate(slot, tips)) {
+                    continue;
+                }
+                visited[slot / Long.SIZE] |= 1L << (slot % Long.SIZE);
+                if (size == stack.length) {
+                    stack = Arrays.copyOf(stack, size * 2);
+                }
+                stack[size++] = nextRow * cols + nextCol;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the cell in a slot of the table has a crate or tower now,
+     * or could get a crate from a tip that is not blocked for good
+     *
+     * @param slot Slot of the cell
+     * @param tips How each tower has been tipped
+     * @return True if the player could ever stand on the cell
+     */
+    private boolean canHoldCrate(int slot, long[] tips) {
+        if (heightOf(slot, tips) != 0) {
+            return true;
+        }
+        for (int i = slotFalls[slot]; i < slotFalls[slot + 1]; i++) {
+            if (!isBlockedForGood(falls[i], tips)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the locations whose heights can differ between two ways the
+     * towers have been tipped, without building either board: the location
+     * of every tower that was tipped differently, and every location it
+     * fell onto in either of them
+     *
+     * @param before How each tower had been tipped
+     * @param after How each tower has been tipped
+     * @return The locations, which a caller may add to
+     */
+    public Set<Coordinates> getChangedCells(long[] before, long[] after) {
+        Set<Coordinates> cells = new HashSet<>();
+        int cols = getCols();
+        for (int word = 0; word < before.length; word++) {
+            long differ = before[word] ^ after[word];
+            while (differ != 0) {
+                int shift = Long.numberOfTrailingZeros(differ) / BITS_PER_TIP * BITS_PER_TIP;
+                differ &= ~(((1L << BITS_PER_TIP) - 1) << shift);
+                int tower = word * TIPS_PER_WORD + shift / BITS_PER_TIP;
+                int row = towerCells[tower] / cols;
+                int col = towerCells[tower] % cols;
+                int height = slotHeights[slotOf(towerCells[tower])];
+                cells.add(getCoordinates(row, col));
+                for (int tip : new int[]{tipOf(before, tower), tipOf(after, tower)}) {
+                    for (int i = 1; tip != 0 && i <= height; i++) {
+                        cells.add(getCoordinates(row + ROW_DELTAS[tip - 1] * i, col + COL_DELTAS[tip - 1] * i));
+                    }
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Builds the whole board after the towers have been tipped, for
+     * displaying it
+     *
+     * @param tips How each tower has been tipped
+     * @return 2d array of heights
+     */
+    public int[][] buildBoard(long[] tips) {
+        int cols = getCols();
+        int[][] board = new int[getRows()][cols];
+        for (int i = 0; i < startCells.length; i++) {
+            board[startCells[i] / cols][startCells[i] % cols] = startHeights[i];
+        }
+        // A tower may have fallen onto a tower tipped before it, so every
+        // tipped tower is cleared before any of them is laid down
+        int[] heights = new int[towerCells.length];
+        for (int tower = 0; tower < towerCells.length; tower++) {
+            heights[tower] = board[towerCells[tower] / cols][towerCells[tower] % cols];
+            if (tipOf(tips, tower) != 0) {
+                board[towerCells[tower] / cols][towerCells[tower] % cols] = 0;
+            }
+        }
+        for (int tower = 0; tower < towerCells.length; tower++) {
+            int tip = tipOf(tips, tower);
+            int row = towerCells[tower] / cols;
+            int col = towerCells[tower] % cols;
+            for (int i = 1; tip != 0 && i <= heights[tower]; i++) {
+                board[row + ROW_DELTAS[tip - 1] * i][col + COL_DELTAS[tip - 1] * i] = 1;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Gets how a tower has been tipped
+     *
+     * @param tips How each tower has been tipped
+     * @param tower Index of the tower
+     * @return 0 if not tipped, otherwise the tip direction + 1
+     */
+    static int tipOf(long[] tips, int tower) {
+        int bits = (int) (tips[tower / TIPS_PER_WORD] >>> (tower % TIPS_PER_WORD * BITS_PER_TIP)) & ((1 << BITS_PER_TIP) - 1);
+        return bits == 0 ? 0 : Integer.numberOfTrailingZeros(bits) + 1;
+    }
+
+    /**
+     * Finds the slot of a cell in the table
+     *
+     * @param cell The cell, as row * cols + col
+     * @return Slot of the cell, or -1 if it is not in the table
+     */
+    private int slotOf(int cell) {
+        int mask = slotCells.length - 1;
+        for (int slot = hash(cell) & mask; ; slot = (slot + 1) & mask) {
+            if (slotCells[slot] == cell + 1) {
+                return slot;
+            }
+            if (slotCells[slot] == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Finds the slot of a cell in the table, adding it if it is not there
+     *
+     * @param cell The cell, as row * cols + col
+     * @return Slot of the cell
+     */
+    private int insert(int cell) {
+        int mask = slotCells.length - 1;
+        int slot = hash(cell) & mask;
+        while (slotCells[slot] != 0 && slotCells[slot] != cell + 1) {
+            slot = (slot + 1) & mask;
+        }
+        slotCells[slot] = cell + 1;
+        return slot;
+    }
+
+    /**
+     * Spreads the bits of a cell so neighboring cells land in different
+     * parts of the table
+     *
+     * @param cell The cell
+     * @return Hash of the cell
+     */
+    private static int hash(int cell) {
+        int mixed = cell * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    /**
+     * Checks if both contexts describe the same puzzle
+     *
+     * @param other Other context we are using to compare
+     * @return True if every attribute is the same
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof TipOverContext otherContext) {
+            return this.INITIAL.equals(otherContext.INITIAL) &&
+                    this.GOAL.equals(otherContext.GOAL) &&
+                    this.getRows() == otherContext.getRows() &&
+                    this.getCols() == otherContext.getCols() &&
+                    Arrays.equals(this.startCells, otherContext.startCells) &&
+                    Arrays.equals(this.startHeights, otherContext.startHeights);
+        }
+        return false;
+    }
+
+    /**
+     * Hashes every attribute of the context
+     *
+     * @return Hash code of this context
+     */
+    @Override
+    public int hashCode() {
+        return INITIAL.hashCode() + GOAL.hashCode() + Arrays.hashCode(startCells) * 31 + Arrays.hashCode(startHeights);
+    }
+}
@@ -1,13 +1,25 @@
 package puzzles.tipover.model;
 
 import puzzles.common.Coordinates;
+import puzzles.common.History;
+import puzzles.common.ModelEvent;
+import puzzles.common.ModelEventBus;
 import puzzles.common.Observer;
+import puzzles.common.solver.CancellationToken;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SolveLimits;
+import puzzles.common.solver.SolveOutcome;
+import puzzles.common.solver.SolveStatus;
 import puzzles.common.solver.Solver;
+import puzzles.common.solver.SolverWorkspace;
+import puzzles.tipover.solver.TipOverDistances;
 
 import java.io.*;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Model for the MVC pattern of the game, Tip Over; Implements the game rules of the game
@@ -17,12 +29,34 @@ import java.util.List;
  * @author Ricky Leung
  */
 public class TipOverModel {
-    /** the collection of observers of this model */
-    private final List<Observer<TipOverModel, String>> observers = new LinkedList<>();
-    /** the current configuration */
-    private TipOverConfig currentConfig;
+    /** Milliseconds a hint may take before the search gives up */
+    private static final long HINT_TIME_LIMIT = 5000;
+    /** Milliseconds finding the distances may take before the search gives up */
+    private static final long DISTANCES_TIME_LIMIT = 5000;
+    /** the observers of this model, and how each of them gets its events */
+    private final ModelEventBus<TipOverModel> events = new ModelEventBus<>(this);
+    /** the solver tables, kept between hints so they do not grow again every time*/
+    private final SolverWorkspace workspace = new SolverWorkspace();
+    /** the current configuration, which observers may read from another thread */
+    private volatile TipOverConfig currentConfig;
     /** Name of the file that is currently loaded */
     private String dataFile;
+    /** Every configuration of the current game, for undo, redo, and reset */
+    private History<TipOverConfig> history;
+    /** finds the distances off the thread of the views, one at a time */
+    private final ExecutorService distanceFinder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tipover-distances");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** the tips the cached distances were found for, or null if none were found yet */
+    private Object distancesKey;
+    /** the cached distances, or null if they were too large to find */
+    private int[][] distances;
+    /** the tips the distances are being found for, or null if none are */
+    private Object pendingKey;
+    /** cancels finding distances that are no longer needed */
+    private CancellationToken distancesToken;
 
     /**
      * Constructor of the model
@@ -53,8 +87,19 @@ public class TipOverModel {
             return currentConfig;
         }
 
-        Solver solver = new Solver();
-        List<Configuration> result = (List<Configuration>) solver.solve(currentConfig);
+        Solver solver = new Solver(workspace);
+        SolveOutcome outcome = solver.trySolve(currentConfig, SolveLimits.timeout(HINT_TIME_LIMIT));
+        List<Configuration> result = outcome.getPath();
+        // Ran out of time before finishing
+        if (SolveLimits.DEADLINE_PASSED.equals(outcome.getReason())) {
+            alertObservers("Hint took too long.");
+            return null;
+        }
+        // Ran out of memory before finishing
+        if (outcome.getStatus() == SolveStatus.BUDGET_EXCEEDED) {
+            alertObservers("Puzzle is too large to solve.");
+            return null;
+        }
         // No solution found
         if (result == null) {
             alertObservers("No solution.");
@@ -63,15 +108,97 @@ public class TipOverModel {
 
         // Solution found
         TipOverConfig updatedConfig = (TipOverConfig) result.get(1);
-        currentConfig = updatedConfig;
-        if (currentConfig.isSolution()) {
-            alertObservers("I WON!");
+        history.push(updatedConfig);
+        if (updatedConfig.isSolution()) {
+            changeTo(updatedConfig, "I WON!");
         } else {
-            alertObservers("Next step!");
+            changeTo(updatedConfig, "Next step!");
         }
         return currentConfig;
     }
 
+    /**
+     * Method used to get the fewest moves to the goal from every location
+     * of the current board, with the towers tipped as they are now; Only a
+     * tip changes them, so they are kept until the next one. They are found
+     * in the background, and the observers are alerted once they are ready
+     *
+     * @return 2d array of the moves from each location, or
+     * TipOverDistances.UNREACHABLE; null if they are not found yet or were
+     * too large to find
+     */
+    public synchronized int[][] getDistances() {
+        TipOverConfig config = currentConfig;
+        Object key = config.getTipsKey();
+        if (key.equals(distancesKey)) {
+            return distances;
+        }
+        if (!key.equals(pendingKey)) {
+            // The tips changed, so the distances being found are no longer needed
+            if (distancesToken != null) {
+                distancesToken.cancel();
+            }
+            CancellationToken token = new CancellationToken();
+            distancesToken = token;
+            pendingKey = key;
+            distanceFinder.execute(() -> findDistances(config, key, token));
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the distances of the current board were too large to find
+     * within the time limit and the memory budget
+     *
+     * @return True if the search for them gave up
+     */
+    public synchronized boolean areDistancesTooLarge() {
+        return currentConfig.getTipsKey().equals(distancesKey) && distances == null;
+    }
+
+    /**
+     * Helper method used in getDistances to find the distances in the
+     * background and keep them, unless they are no longer needed by then
+     *      - alerts all observers once the distances are found or too large
+     *
+     * @param config The configuration to find the distances of
+     * @param key The tips of the configuration
+     * @param token Cancels the search once the distances are no longer needed
+     */
+    private void findDistances(TipOverConfig config, Object key, CancellationToken token) {
+        TipOverDistances finder = new TipOverDistances();
+        SolveLimits limits = new SolveLimits(System.currentTimeMillis() + DISTANCES_TIME_LIMIT,
+                Long.MAX_VALUE, token);
+        int[][] found = finder.compute(config, limits);
+        synchronized (this) {
+            if (token.isCancelled() || !key.equals(pendingKey)) {
+                return;
+            }
+            distancesKey = key;
+            distances = found;
+            pendingKey = null;
+        }
+        if (found == null) {
+            events.publish(ModelEvent.changed("Puzzle is too large to find the distances.", null));
+        } else {
+            events.publish(ModelEvent.changed("Found the distances.", null));
+        }
+    }
+
+    /**
+     * Helper method used when a board is loaded to drop the distances of
+     * the board before it
+     */
+    private synchronized void clearDistances() {
+        if (distancesToken != null) {
+            distancesToken.cancel();
+        }
+        distancesToken = null;
+        pendingKey = null;
+        distancesKey = null;
+        distances = null;
+    }
+
     /**
      * Method used to load a file from the given command
      *
@@ -99,7 +226,7 @@ public class TipOverModel {
     public boolean loadBoardFromFile(String fileName) {
         boolean loaded = loadBoardFromFile(new File(fileName));
         if (loaded) {
-            alertObservers("Loaded: " + fileName);
+            events.publish(ModelEvent.loaded("Loaded: " + fileName));
             return true;
         }
         return false;
@@ -131,6 +258,8 @@ public class TipOverModel {
             }
 
             currentConfig = new TipOverConfig(initialPos, goal, board, currentPos);
+            history = new History<>(currentConfig);
+            clearDistances();
         } catch (FileNotFoundException e) {
             alertObservers("Failed to load: " + file.getName());
             return false;
@@ -155,22 +284,17 @@ public class TipOverModel {
             return;
         }
 
-        String msg = "";
         String[] args = command.split(" ");
         if (args.length == 2) {
             String direction = args[1];
             if (direction.equalsIgnoreCase("n")) {
-                msg = currentConfig.move("N");
-                alertObservers(msg);
+                moveCurrent("N");
             } else if (direction.equalsIgnoreCase("s")) {
-                msg = currentConfig.move("S");
-                alertObservers(msg);
+                moveCurrent("S");
             } else if (direction.equalsIgnoreCase("e")) {
-                msg = currentConfig.move("E");
-                alertObservers(msg);
+                moveCurrent("E");
             } else if (direction.equalsIgnoreCase("w")){
-                msg = currentConfig.move("W");
-                alertObservers(msg);
+                moveCurrent("W");
             } else {
                 alertObservers("Invalid command");
             }
@@ -180,34 +304,123 @@ public class TipOverModel {
     }
 
     /**
-     * Method used to reset the board by loading the initial file
-     * of the current configuration
+     * Helper method used in move to move a copy of the current
+     * configuration, so the configurations in the history never change;
+     * A move that changes nothing is not added to the history
+     *      - alerts all observers of what occurs when you try to move
+     *
+     * @param direction String of "N", "E", "S", or "W"
+     */
+    private void moveCurrent(String direction) {
+        TipOverConfig next = currentConfig.copy();
+        String msg = next.move(direction);
+        if (next.equals(currentConfig)) {
+            alertObservers(msg);
+        } else {
+            history.push(next);
+            changeTo(next, msg);
+        }
+    }
+
+    /**
+     * Helper method used to make a configuration of the current board the
+     * current one, alerting all observers of the locations that changed
+     *
+     * @param next The new current configuration
+     * @param message Message for the observers
+     */
+    private void changeTo(TipOverConfig next, String message) {
+        Set<Coordinates> changed = currentConfig.getChangedCells(next);
+        currentConfig = next;
+        events.publish(ModelEvent.changed(message, changed));
+    }
+
+    /**
+     * Method used to reset the board to the start of the current game,
+     * which is kept in the history, so the file is not read again; The
+     * moves can still be redone afterwards
      *      - alerts all observers that the puzzle has been reset
      *
-     * @return
+     * @return True, since the start is always kept
      */
     public boolean resetBoard() {
-        boolean loaded = loadBoardFromFile(new File(this.dataFile));
-        alertObservers("Puzzle reset!");
-        return loaded;
+        changeTo(history.reset(), "Puzzle reset!");
+        return true;
     }
 
     /**
-     * The view calls this to add itself as an observer.
+     * Method used to undo the last move or hint
+     *      - alerts all observers of whether there was a move to undo
+     */
+    public void undo() {
+        if (!history.canUndo()) {
+            alertObservers("Nothing to undo.");
+            return;
+        }
+        changeTo(history.undo(), "Undid a move.");
+    }
+
+    /**
+     * Method used to redo the last move that was undone
+     *      - alerts all observers of whether there was a move to redo
+     */
+    public void redo() {
+        if (!history.canRedo()) {
+            alertObservers("Nothing to redo.");
+            return;
+        }
+        changeTo(history.redo(), "Redid a move.");
+    }
+
+    /**
+     * Method used to go to any step of the current game from the given
+     * command; The steps after it can still be redone
+     *      - alerts all observers of whether there is such a step
+     *
+     * @param command The command that is ran(contains the step, where 0 is the start)
+     */
+    public void jump(String command) {
+        String[] args = command.split(" ");
+        try {
+            int step = Integer.parseInt(args[1]);
+            if (args.length == 2 && step >= 0 && step < history.size()) {
+                changeTo(history.jump(step), "Went to step " + step + ".");
+                return;
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            // Falls through to the invalid command below
+        }
+        alertObservers("Invalid command");
+    }
+
+    /**
+     * The view calls this to add itself as an observer; It is updated with
+     * every event right away, on the thread that changed the model
      *
      * @param observer the view
      */
-    public void addObserver(Observer<TipOverModel, String> observer) {
-        this.observers.add(observer);
+    public void addObserver(Observer<TipOverModel, ModelEvent> observer) {
+        events.subscribe(observer);
     }
 
     /**
-     * The model's state has changed (the counter), so inform the view via
-     * the update method
+     * The view calls this to add itself as an observer that is updated on
+     * an executor, like Platform::runLater; Events that come before an
+     * update runs are merged into it
+     *
+     * @param observer the view
+     * @param executor runs the updates of the view
+     */
+    public void addObserver(Observer<TipOverModel, ModelEvent> observer, Executor executor) {
+        events.subscribe(observer, executor);
+    }
+
+    /**
+     * Informs the views of a message, with nothing on the board changed
+     *
+     * @param data the message
      */
     private void alertObservers(String data) {
-        for (var observer : observers) {
-            observer.update(this, data);
-        }
+        events.publish(ModelEvent.message(data));
     }
 }
@@ -1,5 +1,6 @@
 package puzzles.tipover.ptui;
 
+import puzzles.common.ModelEvent;
 import puzzles.common.Observer;
 import puzzles.tipover.model.TipOverModel;
 
@@ -10,7 +11,7 @@ import java.util.Scanner;
  *
  * @author Ricky Leung
  */
-public class TipOverPTUI implements Observer<TipOverModel, String> {
+public class TipOverPTUI implements Observer<TipOverModel, ModelEvent> {
     /**`Model of the game */
     private static TipOverModel model;
     /** Scanner used to take in user input */
@@ -41,18 +42,22 @@ public class TipOverPTUI implements Observer<TipOverModel, String> {
      *
      * @param model the object that wishes to inform this object
      *                about something that has happened.
-     * @param message optional data the server.model can send to the observer
+     * @param event what changed, with the message to display
      *
      */
     @Override
-    public void update(TipOverModel model, String message) {
+    public void update(TipOverModel model, ModelEvent event) {
+        String message = event.getMessage();
         if (gameOn) {
             if (message.equals("Invalid command")) {
                 System.out.println("h(int)              -- hint next move\n" +
                         "l(oad) filename     -- load new puzzle file\n" +
                         "m(ove) {N|S|E|W}    -- move the tipper in the given direction\n" +
                         "q(uit)              -- quit the game\n" +
-                        "r(eset)             -- reset the current game");
+                        "r(eset)             -- reset the current game\n" +
+                        "u(ndo)              -- undo the last move\n" +
+                        "re(do)              -- redo the last undone move\n" +
+                        "j(ump) step         -- go to a step of the current game, 0 being the start");
             } else {
                 System.out.println(message + "\n");
                 if (message.equals("I WON!")) {
@@ -90,7 +95,10 @@ public class TipOverPTUI implements Observer<TipOverModel, String> {
                 "l(oad) filename     -- load new puzzle file\n" +
                 "m(ove) {N|S|E|W}    -- move the tipper in the given direction\n" +
                 "q(uit)              -- quit the game\n" +
-                "r(eset)             -- reset the current game");
+                "r(eset)             -- reset the current game\n" +
+                "u(ndo)              -- undo the last move\n" +
+                "re(do)              -- redo the last undone move\n" +
+                "j(ump) step         -- go to a step of the current game, 0 being the start");
 
         gameOn = true;
     }
@@ -118,6 +126,15 @@ public class TipOverPTUI implements Observer<TipOverModel, String> {
                 model.load(command);
             } else if (command.equalsIgnoreCase("h") || command.equalsIgnoreCase("hint")) {
                 model.getHint();
+            } else if (command.equalsIgnoreCase("u") || command.equalsIgnoreCase("undo")) {
+                gameOn = true;
+                model.undo();
+            } else if (command.equalsIgnoreCase("re") || command.equalsIgnoreCase("redo")) {
+                gameOn = true;
+                model.redo();
+            } else if (command.split(" ")[0].equalsIgnoreCase("j") || command.split(" ")[0].equalsIgnoreCase("jump")) {
+                gameOn = true;
+                model.jump(command);
             } else {
                 gameStart();
             }
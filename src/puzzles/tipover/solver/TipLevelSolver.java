@@ -0,0 +1,213 @@
+package puzzles.tipover.solver;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SolveLimits;
+import puzzles.common.solver.SolveOutcome;
+import puzzles.common.solver.SolveStatus;
+import puzzles.tipover.model.TipOverConfig;
+
+import java.util.*;
+
+/**
+ * Solver for Tip Over that searches over tips instead of single moves.
+ * Hops never change the board, so all the ways of hopping between two
+ * tips lead to the same place; Instead of searching every interleaving of
+ * hops and tips, every configuration right after a tip is expanded once,
+ * with a small breadth-first search over hops that finds the fewest hops
+ * to every tower that can be tipped next and to the goal. The tip-level
+ * configurations are searched in order of moves so far (Dijkstra), so
+ * the path found is still a shortest one in moves.
+ *
+ * @author Ricky Leung
+ */
+public class TipLevelSolver {
+    /** Name of the strategy */
+    private static final String STRATEGY = "tip-level search";
+
+    /** The number of configurations created */
+    private int configCount;
+    /** The number of tip-level configurations expanded */
+    private int uniqueConfigCount;
+    /** The number of tip-level configurations expanded, as the limits count them */
+    private long expandedCount;
+
+    /**
+     * Solves the puzzle without any limits
+     *
+     * @param start The start configuration
+     * @return The outcome of the search
+     */
+    public SolveOutcome trySolve(TipOverConfig start) {
+        return trySolve(start, SolveLimits.NONE);
+    }
+
+    /**
+     * Solves the puzzle within the given limits
+     *
+     * @param start The start configuration
+     * @param limits The deadline, node limit and cancellation token
+     * @return The outcome of the search; The path has every hop and tip
+     */
+    public SolveOutcome trySolve(TipOverConfig start, SolveLimits limits) {
+        long startMillis = System.currentTimeMillis();
+        configCount = 1;
+        uniqueConfigCount = 0;
+        expandedCount = 0;
+
+        Set<Object> expanded = new HashSet<>();
+        PriorityQueue<Step> open = new PriorityQueue<>(Comparator.comparingInt(step -> step.moves));
+        open.add(new Step(start, 0, null, null, false));
+
+        while (!open.isEmpty()) {
+            Step step = open.remove();
+            if (step.goal) {
+                return new SolveOutcome(SolveStatus.SOLVED, step.path(), null, configCount, uniqueConfigCount,
+                        expandedCount, System.currentTimeMillis() - startMillis, STRATEGY);
+            }
+            if (!expanded.add(step.config.getKey())) {
+                continue;
+            }
+            String stopReason = limits.stopReason(expandedCount);
+            if (stopReason != null) {
+                return new SolveOutcome(SolveLimits.statusFor(stopReason), null, stopReason, configCount,
+                        uniqueConfigCount, expandedCount, System.currentTimeMillis() - startMillis, STRATEGY);
+            }
+            expandedCount++;
+            uniqueConfigCount++;
+            expandHops(step, expanded, open);
+        }
+        return new SolveOutcome(SolveStatus.UNSOLVABLE, null, null, configCount, uniqueConfigCount,
+                expandedCount, System.currentTimeMillis() - startMillis, STRATEGY);
+    }
+
+    /**
+     * Helper method used in trySolve to hop breadth-first from a tip-level
+     * configuration, adding a goal step for the goal and a step for every
+     * tip that can be made from a location that can be hopped to
+     *
+     * @param step The step being expanded
+     * @param expanded Keys of the tip-level configurations already expanded
+     * @param open The steps waiting to be expanded
+     */
+    private void expandHops(Step step, Set<Object> expanded, PriorityQueue<Step> open) {
+        Set<Object> seen = new HashSet<>();
+        Queue<Hop> hops = new LinkedList<>();
+        Hop root = new Hop(step.config, null, 0);
+        seen.add(step.config.getKey());
+        hops.add(root);
+
+        while (!hops.isEmpty()) {
+            Hop hop = hops.remove();
+            int moves = step.moves + hop.count;
+            if (hop.config.isSolution()) {
+                open.add(new Step(hop.config, moves, step, hop, true));
+                // Every location after this one takes more moves than the goal
+                return;
+            }
+            for (TipOverConfig tip : hop.config.getTips()) {
+                configCount++;
+                if (!expanded.contains(tip.getKey())) {
+                    open.add(new Step(tip, moves + 1, step, hop, false));
+                }
+            }
+            for (TipOverConfig next : hop.config.getHops()) {
+                configCount++;
+                if (seen.add(next.getKey())) {
+                    hops.add(new Hop(next, hop, hop.count + 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * A configuration reached by hopping from a tip-level configuration
+     */
+    private static class Hop {
+        /** The configuration */
+        private final TipOverConfig config;
+        /** Hop it was reached from, or null for the tip-level configuration */
+        private final Hop previous;
+        /** Number of hops from the tip-level configuration */
+        private final int count;
+
+        /**
+         * Constructor for a hop
+         *
+         * @param config The configuration
+         * @param previous Hop it was reached from, or null
+         * @param count Number of hops from the tip-level configuration
+         */
+        private Hop(TipOverConfig config, Hop previous, int count) {
+            this.config = config;
+            this.previous = previous;
+            this.count = count;
+        }
+    }
+
+    /**
+     * A tip-level configuration, reached by hopping from the previous step
+     * and then tipping, or the goal, reached by hopping from the previous step
+     */
+    private static class Step {
+        /** The configuration after the tip, or the goal */
+        private final TipOverConfig config;
+        /** Moves from the start */
+        private final int moves;
+        /** Step it was reached from, or null for the start */
+        private final Step previous;
+        /** Last hop before the tip, or the goal itself */
+        private final Hop via;
+        /** Whether this step reaches the goal */
+        private final boolean goal;
+
+        /**
+         * Constructor for a step
+         *
+         * @param config The configuration after the tip, or the goal
+         * @param moves Moves from the start
+         * @param previous Step it was reached from, or null for the start
+         * @param via Last hop before the tip, or the goal itself
+         * @param goal Whether this step reaches the goal
+         */
+        private Step(TipOverConfig config, int moves, Step previous, Hop via, boolean goal) {
+            this.config = config;
+            this.moves = moves;
+            this.previous = previous;
+            this.via = via;
+            this.goal = goal;
+        }
+
+        /**
+         * Builds the path from the start to this step, with every hop and tip
+         *
+         * @return List of configurations from the start to this one
+         */
+        private List<Configuration> path() {
+            LinkedList<Configuration> path = new LinkedList<>();
+            for (Step step = this; step.previous != null; step = step.previous) {
+                if (!step.goal) {
+                    path.addFirst(step.config);
+                }
+                // The first hop is the previous step's own configuration
+                for (Hop hop = step.via; hop.previous != null; hop = hop.previous) {
+                    path.addFirst(hop.config);
+                }
+            }
+            path.addFirst(startOf(this));
+            return path;
+        }
+
+        /**
+         * Helper method used in path to find the start configuration
+         *
+         * @param step Any step
+         * @return Configuration of the first step
+         */
+        private static TipOverConfig startOf(Step step) {
+            while (step.previous != null) {
+                step = step.previous;
+            }
+            return step.config;
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package puzzles.tipover.solver;
 
 import puzzles.common.Coordinates;
+import puzzles.common.solver.BeamSearchSolver;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.LayeredSolver;
+import puzzles.common.solver.PortfolioSolver;
+import puzzles.common.solver.SolveLimits;
+import puzzles.common.solver.SolveMode;
+import puzzles.common.solver.SolveOutcome;
+import puzzles.common.solver.SolveStatus;
 import puzzles.common.solver.Solver;
 import puzzles.tipover.model.TipOverConfig;
 
@@ -17,14 +24,27 @@ import java.util.Collection;
  * @author Ricky Leung
  */
 public class TipOver {
+    /** How the program is run */
+    private static final String USAGE = "Usage: java TipOver filename [seconds|any|tips|portfolio|layered|distances]";
+
     /**
-     * The main function used to solve the game
+     * The main function used to solve the game; With a number of seconds
+     * after the filename, it searches for any solution with beam search
+     * instead, printing every shorter one it finds within that time, and
+     * with "any" it finds any solution, or that there is none, as fast as
+     * it can; With "tips" it finds a shortest solution searching over tips
+     * instead of single moves; With "portfolio" it races several searches
+     * for a shortest solution and prints which one won; With "layered" it
+     * finds a shortest solution one number of tipped towers at a time,
+     * dropping each level once it is done, and prints the size of the
+     * largest level; With "distances" it prints the fewest moves to the
+     * goal from every location instead
      *
-     * @param args filename
+     * @param args filename [seconds|any|tips|portfolio|layered|distances]
      */
     public static void main(String[] args){
-        if (args.length != 1) {
-            System.out.println("Usage: java TipOver filename");
+        if (args.length != 1 && args.length != 2) {
+            System.out.println(USAGE);
         } else {
             System.out.println("File: " + args[0]);
             try {
@@ -44,18 +64,56 @@ public class TipOver {
                     }
                 }
 
-                // Solve the configuration
-                Solver solver = new Solver();
                 TipOverConfig start = new TipOverConfig(initialPos, goal, board, currentPos);
                 System.out.println(start);
-                Collection<Configuration> result = solver.solve(start);
+                String option = args.length == 2 ? args[1] : "";
+
+                // Solve the configuration
+                SolveOutcome outcome;
+                switch (option) {
+                    case "distances":
+                        printDistances(start);
+                        return;
+                    case "":
+                        outcome = new Solver().trySolve(start);
+                        break;
+                    case "any":
+                        outcome = new Solver().trySolve(start, SolveLimits.NONE, SolveMode.SATISFICING);
+                        break;
+                    case "tips":
+                        outcome = new TipLevelSolver().trySolve(start);
+                        break;
+                    case "portfolio":
+                        PortfolioSolver portfolio = PortfolioSolver.standard(Runtime.getRuntime().availableProcessors(), false);
+                        outcome = portfolio.trySolve(start);
+                        System.out.println("Winner: " + portfolio.getWinner());
+                        break;
+                    case "layered":
+                        LayeredSolver layered = new LayeredSolver();
+                        outcome = layered.trySolve(start);
+                        System.out.println("Peak level size: " + layered.getPeakLevelSize());
+                        break;
+                    default:
+                        long seconds;
+                        try {
+                            seconds = Long.parseLong(option);
+                        } catch (NumberFormatException e) {
+                            System.out.println(USAGE);
+                            return;
+                        }
+                        solveAnytime(start, seconds * 1000);
+                        return;
+                }
+                Collection<Configuration> result = outcome.getPath();
 
                 // Print out configuration count
-                System.out.println("Total configs: " + solver.getConfigCount());
-                System.out.println("Unique configs: " + solver.getUniqueConfigCount());
+                System.out.println("Total configs: " + outcome.getConfigCount());
+                System.out.println("Unique configs: " + outcome.getUniqueConfigCount());
 
                 // Print out result
-                if (result == null) {
+                if (outcome.getStatus() == SolveStatus.BUDGET_EXCEEDED) {
+                    System.out.println("Memory budget exceeded");
+                } else if (result == null) {
                     System.out.println("No solution");
                 } else {
                     // Print out steps if a solution is found
@@ -73,4 +131,60 @@ public class TipOver {
             }
         }
     }
+
+    /**
+     * Prints the fewest moves to the goal from every location of the
+     * board, or "_" where the goal cannot be reached from
+     *
+     * @param start The start configuration
+     */
+    private static void printDistances(TipOverConfig start) {
+        TipOverDistances finder = new TipOverDistances();
+        int[][] distances = finder.compute(start);
+
+        System.out.println("Total configs: " + finder.getConfigCount());
+        System.out.println("Unique configs: " + finder.getUniqueConfigCount());
+        if (distances == null) {
+            System.out.println("Puzzle is too large: " + finder.getReason());
+            return;
+        }
+        StringBuilder result = new StringBuilder("Moves to the goal:\n    ");
+        for (int col = 0; col < start.getCols(); col++) {
+            result.append(String.format("%4d", col));
+        }
+        result.append("\n    ").append("____".repeat(start.getCols()));
+        for (int row = 0; row < start.getRows(); row++) {
+            result.append(String.format("%n%2d |", row));
+            for (int col = 0; col < start.getCols(); col++) {
+                int distance = distances[row][col];
+                result.append(String.format("%4s", distance == TipOverDistances.UNREACHABLE ? "_" : distance));
+            }
+        }
+        System.out.println(result);
+    }
+
+    /**
+     * Solves the configuration with beam search until the time runs out,
+     * printing the length of every better solution and then the best one
+     *
+     * @param start The start configuration
+     * @param millis Milliseconds the search may run for
+     */
+    private static void solveAnytime(TipOverConfig start, long millis) {
+        BeamSearchSolver solver = new BeamSearchSolver();
+        Collection<Configuration> result = solver.solve(start, SolveLimits.timeout(millis),
+                path -> System.out.println("Found a solution with " + (path.size() - 1) + " moves"));
+
+        System.out.println("Total configs: " + solver.getConfigCount());
+        if (result == null) {
+            System.out.println(solver.isOptimal() ? "No solution" : "No solution found in time");
+        } else {
+            System.out.println(solver.isOptimal() ? "Shortest solution" : "Best solution found in time");
+            int step = 0;
+            for (Configuration c: result) {
+                System.out.println("Step " + step + ": \n" + c);
+                step++;
+            }
+        }
+    }
 }
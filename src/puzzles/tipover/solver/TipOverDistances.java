@@ -0,0 +1,220 @@
+package puzzles.tipover.solver;
+
+import puzzles.common.solver.NeighborCursor;
+import puzzles.common.solver.SolveLimits;
+import puzzles.common.solver.Solver;
+import puzzles.tipover.model.TipOverConfig;
+
+import java.util.*;
+
+/**
+ * Finds the fewest moves to the goal from every location of a Tip Over
+ * board at once, instead of solving the puzzle again for each location.
+ * The configurations that can be reached from every location with a crate
+ * or tower are found with a single search started from all of them; Then
+ * a breadth-first search backwards from every configuration at the goal,
+ * over the moves that lead into each configuration, gives the fewest
+ * moves to the goal from all of them, and so from every location. Like
+ * the Solver, the search stops when its limits or memory budget run out.
+ *
+ * @author Ricky Leung
+ */
+public class TipOverDistances {
+    /** Distance of a location the goal cannot be reached from */
+    public static final int UNREACHABLE = -1;
+    /** Estimated bytes of the map entry and list slot kept for every configuration found */
+    private static final int ENTRY_BYTES = 64;
+
+    /** The number of configurations created */
+    private int configCount;
+    /** The number of different configurations found */
+    private int uniqueConfigCount;
+    /** The number of configurations expanded by the last compute */
+    private long expandedCount;
+    /** Estimated bytes taken up by the configurations found so far */
+    private long usedBytes;
+    /** The most bytes the configurations found may take up */
+    private long memoryBudget = Solver.defaultMemoryBudget();
+    /** Why the last compute stopped early, or null if it finished */
+    private String reason;
+
+    /**
+     * Finds the fewest moves to the goal from every location, with the
+     * towers tipped as they are in the given configuration, without any
+     * limits other than the memory budget
+     *
+     * @param config Any configuration of the board; Where its player is does not matter
+     * @return The fewest moves to the goal from each location, or UNREACHABLE;
+     * null if the memory budget ran out
+     * @see #compute(TipOverConfig, SolveLimits)
+     */
+    public int[][] compute(TipOverConfig config) {
+        return compute(config, SolveLimits.NONE);
+    }
+
+    /**
+     * Finds the fewest moves to the goal from every location, with the
+     * towers tipped as they are in the given configuration; Gives up when
+     * the limits or the memory budget run out, since the search goes
+     * through every configuration reachable from every location
+     *
+     * @param config Any configuration of the board; Where its player is does not matter
+     * @param limits The deadline, node limit and cancellation token
+     * @return The fewest moves to the goal from each location, or UNREACHABLE;
+     * null if the search stopped early, with the reason in getReason
+     */
+    public int[][] compute(TipOverConfig config, SolveLimits limits) {
+        int rows = config.getRows();
+        int cols = config.getCols();
+        Map<Object, Integer> indexes = new HashMap<>();
+        List<TipOverConfig> found = new ArrayList<>();
+        int[][] starts = new int[rows][cols];
+        configCount = 0;
+        expandedCount = 0;
+        usedBytes = 0;
+        reason = null;
+
+        // Every location with a crate or tower is a start; A start that
+        // can be hopped to from an earlier one was already found
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                starts[row][col] = -1;
+                if (config.getHeight(row, col) == 0) {
+                    continue;
+                }
+                TipOverConfig start = config.startingAt(row, col);
+                configCount++;
+                Integer index = indexes.get(start.getKey());
+                if (index == null) {
+                    index = found.size();
+                    indexes.put(start.getKey(), index);
+                    found.add(start);
+                    usedBytes += start.estimatedBytes() + ENTRY_BYTES;
+                    reason = search(found, indexes, limits);
+                    if (reason != null) {
+                        uniqueConfigCount = found.size();
+                        return null;
+                    }
+                }
+                starts[row][col] = index;
+            }
+        }
+        uniqueConfigCount = found.size();
+
+        // Backwards from every configuration at the goal
+        int[] distances = new int[found.size()];
+        Arrays.fill(distances, UNREACHABLE);
+        int[] queue = new int[found.size()];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < found.size(); i++) {
+            if (found.get(i).isSolution()) {
+                distances[i] = 0;
+                queue[tail++] = i;
+            }
+        }
+        while (head < tail) {
+            int current = queue[head++];
+            for (TipOverConfig before : found.get(current).getPredecessors()) {
+                Integer index = indexes.get(before.getKey());
+                if (index != null && distances[index] == UNREACHABLE) {
+                    distances[index] = distances[current] + 1;
+                    queue[tail++] = index;
+                }
+            }
+        }
+
+        int[][] result = new int[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                result[row][col] = starts[row][col] < 0 ? UNREACHABLE : distances[starts[row][col]];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Helper method used in compute to find every configuration that can
+     * be reached from the ones found so far; Configurations at the goal
+     * are not searched past, and dead ends are left out, since the goal
+     * cannot be reached from them
+     *
+     * @param found The configurations found so far, in the order they were found
+     * @param indexes Index in found of the key of each configuration
+     * @param limits The deadline, node limit and cancellation token
+     * @return Why the search stopped early, or null if it finished
+     */
+    private String search(List<TipOverConfig> found, Map<Object, Integer> indexes, SolveLimits limits) {
+        for (int i = found.size() - 1; i < found.size(); i++) {
+            String stopReason = limits.stopReason(expandedCount);
+            if (stopReason != null) {
+                return stopReason;
+            }
+            TipOverConfig current = found.get(i);
+            if (current.isSolution() || current.isDeadEnd()) {
+                continue;
+            }
+            expandedCount++;
+            NeighborCursor cursor = current.neighborCursor();
+            while (cursor.advance()) {
+                configCount++;
+                Object key = cursor.key();
+                if (!indexes.containsKey(key)) {
+                    indexes.put(key, found.size());
+                    TipOverConfig neighbor = (TipOverConfig) cursor.build();
+                    found.add(neighbor);
+                    usedBytes += neighbor.estimatedBytes() + ENTRY_BYTES;
+                    if (usedBytes > memoryBudget) {
+                        return Solver.MEMORY_BUDGET_EXCEEDED;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Getter method for why the last compute stopped early
+     *
+     * @return Reason such as "deadline passed", or null if it finished
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Getter method for the memory budget
+     *
+     * @return Most bytes the configurations found may take up
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Setter method for the memory budget
+     *
+     * @param memoryBudget Most bytes the configurations found may take up
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Getter method for the number of configurations created by the last compute
+     *
+     * @return Number of configurations created
+     */
+    public int getConfigCount() {
+        return configCount;
+    }
+
+    /**
+     * Getter method for the number of different configurations found by the last compute
+     *
+     * @return Number of different configurations
+     */
+    public int getUniqueConfigCount() {
+        return uniqueConfigCount;
+    }
+}
@@ -2,6 +2,7 @@ package puzzles.water;
 
 import puzzles.clock.ClockConfig;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SolveAllResult;
 import puzzles.common.solver.Solver;
 
 import java.util.*;
@@ -16,17 +17,19 @@ public class Water {
     /**
      * Run an instance of the water buckets puzzle.
      *
-     * @param args [0]: desired amount of water to be collected;
+     * @param args [0]: desired amount of water to be collected, or "all"
+     *             for the fewest steps to every amount that can be collected;
      *             [1..N]: the capacities of the N available buckets.
      */
     public static void main(String[] args) {
         if (args.length < 2) {
             System.out.println(
-                    ("Usage: java Water amount bucket1 bucket2 ...")
+                    ("Usage: java Water amount|all bucket1 bucket2 ...")
             );
         } else {
             int index = 0;
-            int DESIRED_AMOUNT = Integer.parseInt(args[index]);
+            boolean all = args[index].equals("all");
+            int DESIRED_AMOUNT = all ? -1 : Integer.parseInt(args[index]);
             ArrayList<Integer> capacityList = new ArrayList<>();
             ArrayList<Integer> amountList = new ArrayList<>();
 
@@ -43,6 +46,11 @@ public class Water {
             System.out.println("Amount: " + args[0] +
                     ", Buckets: " + capacityList );
 
+            if (all) {
+                solveAll(new WaterConfig(DESIRED_AMOUNT, capacityList, amountList));
+                return;
+            }
+
             Solver solver = new Solver();
             Collection<Configuration> result = solver.solve(new WaterConfig(DESIRED_AMOUNT, capacityList, amountList));
 
@@ -62,4 +70,39 @@ public class Water {
             }
         }
     }
+
+    /**
+     * Finds the fewest steps to every amount that can be collected in a
+     * single bucket, with one search, and prints the steps for each amount
+     *
+     * @param start The start configuration, with every bucket empty
+     */
+    private static void solveAll(WaterConfig start) {
+        Solver solver = new Solver();
+        SolveAllResult<Integer> result = solver.solveAll(start, c -> {
+            List<Integer> amounts = new ArrayList<>();
+            for (int amount : ((WaterConfig) c).getAmounts()) {
+                amounts.add(amount);
+            }
+            return amounts;
+        });
+
+        // Print out Configuration counts
+        System.out.println("Total configs: " + result.getConfigCount());
+        System.out.println("Unique configs: " + result.getUniqueConfigCount());
+
+        List<Integer> amounts = new ArrayList<>(result.getGoals());
+        Collections.sort(amounts);
+        for (int amount : amounts) {
+            if (amount == 0) {
+                continue;
+            }
+            System.out.println("Amount " + amount + " in " + result.getMoves(amount) + " steps:");
+            int step = 0;
+            for (Configuration c: result.getPath(amount)) {
+                System.out.println("Step " + step + ": " + c);
+                step++;
+            }
+        }
+    }
 }
\ No newline at end of file
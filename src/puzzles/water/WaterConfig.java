@@ -1,6 +1,7 @@
 package puzzles.water;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.PackedKey;
 
 import java.util.*;
 
@@ -11,12 +12,10 @@ import java.util.*;
  * @author Ricky Leung & Boya Li
  */
 public class WaterConfig implements Configuration {
-    /** The amount of water desired in a single bucket */
-    private final int DESIRED_AMOUNT;
-    /** List representing the max amount of water possible in each bucket */
-    private final List<Integer> capacityList;
-    /*8 List representing the amount of water in each bucket */
-    private List<Integer> amountList;
+    /** The constant parts of the puzzle, shared by every configuration */
+    private final WaterContext context;
+    /** The amount of water in each bucket */
+    private final int[] amounts;
 
     /**
      * Constructor for the Water Configuration class
@@ -26,9 +25,23 @@ public class WaterConfig implements Configuration {
      * @param amountList List of current amount of water in each bucket
      */
     public WaterConfig(int DESIRED_AMOUNT, List<Integer> capacityList, List<Integer> amountList) {
-        this.DESIRED_AMOUNT = DESIRED_AMOUNT;
-        this.capacityList = capacityList;
-        this.amountList = amountList;
+        this.context = new WaterContext(DESIRED_AMOUNT, capacityList);
+        this.amounts = new int[amountList.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = amountList.get(i);
+        }
+    }
+
+    /**
+     * Constructor for a Water Configuration that shares the context of
+     * another configuration
+     *
+     * @param context The constant parts of the puzzle
+     * @param amounts The amount of water in each bucket
+     */
+    private WaterConfig(WaterContext context, int[] amounts) {
+        this.context = context;
+        this.amounts = amounts;
     }
 
     /**
@@ -40,7 +53,12 @@ public class WaterConfig implements Configuration {
      */
     @Override
     public boolean isSolution() {
-        return amountList.contains(DESIRED_AMOUNT);
+        for (int amount : amounts) {
+            if (amount == context.getDesiredAmount()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -55,46 +73,103 @@ public class WaterConfig implements Configuration {
         ArrayList<Configuration> result = new ArrayList<>();
 
         // Pouring between buckets
-        for (int current = 0; current < amountList.size(); current++) {
+        for (int current = 0; current < amounts.length; current++) {
+            int currentCapacity = context.getCapacity(current);
+
             // Filling buckets
-            if (amountList.get(current) != capacityList.get(current)) {
-                ArrayList<Integer> newAmountsList = new ArrayList<>(amountList);
-                newAmountsList.set(current, capacityList.get(current));
-                result.add(new WaterConfig(DESIRED_AMOUNT, capacityList, newAmountsList));
+            if (amounts[current] != currentCapacity) {
+                int[] newAmounts = amounts.clone();
+                newAmounts[current] = currentCapacity;
+                result.add(new WaterConfig(context, newAmounts));
             }
 
             // Dumping buckets
-            if (amountList.get(current) != 0) {
-                ArrayList<Integer> newAmountsList = new ArrayList<>(amountList);
-                newAmountsList.set(current, 0);
-                result.add(new WaterConfig(DESIRED_AMOUNT, capacityList, newAmountsList));
+            if (amounts[current] != 0) {
+                int[] newAmounts = amounts.clone();
+                newAmounts[current] = 0;
+                result.add(new WaterConfig(context, newAmounts));
             }
 
-            for (int other = 0; other < amountList.size(); other++) {
-                int currentAmount = amountList.get(current);
-                int currentCapacity = capacityList.get(current);
-                int otherAmount = amountList.get(other);
+            for (int other = 0; other < amounts.length; other++) {
+                int currentAmount = amounts[current];
+                int otherAmount = amounts[other];
                 if (current != other && otherAmount != 0 && currentAmount != currentCapacity) {
-                    ArrayList<Integer> newAmountsList = new ArrayList<>(amountList);
+                    int[] newAmounts = amounts.clone();
                     int currentNewAmount = otherAmount + currentAmount;
                     int otherNewAmount = 0;
                     if (currentNewAmount > currentCapacity) {
                         otherNewAmount = currentNewAmount - currentCapacity;
                         currentNewAmount = currentCapacity;
                     }
-                    newAmountsList.set(current, currentNewAmount);
-                    newAmountsList.set(other, otherNewAmount);
+                    newAmounts[current] = currentNewAmount;
+                    newAmounts[other] = otherNewAmount;
 
-                    result.add(new WaterConfig(DESIRED_AMOUNT, capacityList, newAmountsList));
+                    result.add(new WaterConfig(context, newAmounts));
                 }
             }
         }
         return result;
     }
 
+    /**
+     * The key of the current configuration: the amount in each bucket,
+     * with the amounts of every group of buckets with the same capacity
+     * sorted, since swapping what two such buckets hold only swaps the
+     * buckets in every step after it; The configuration itself keeps the
+     * real buckets, so a path still names them
+     *
+     * @return Key of the current configuration
+     */
+    @Override
+    public Object getKey() {
+        int[][] groups = context.getSameCapacityGroups();
+        if (groups.length == 0) {
+            return this;
+        }
+        long[] words = new long[amounts.length];
+        for (int bucket = 0; bucket < amounts.length; bucket++) {
+            words[bucket] = amounts[bucket];
+        }
+        for (int[] group : groups) {
+            int[] sorted = new int[group.length];
+            for (int i = 0; i < group.length; i++) {
+                sorted[i] = amounts[group[i]];
+            }
+            Arrays.sort(sorted);
+            for (int i = 0; i < group.length; i++) {
+                words[group[i]] = sorted[i];
+            }
+        }
+        return new PackedKey(words);
+    }
+
+    /**
+     * Estimates the bytes kept for this configuration: the object, the
+     * amount in each bucket, and its key when it is not the configuration
+     * itself
+     *
+     * @return Approximate size of this configuration in bytes
+     */
+    @Override
+    public int estimatedBytes() {
+        int keyBytes = context.getSameCapacityGroups().length == 0 ? 0 : 32 + 16 + 8 * amounts.length;
+        return 24 + 16 + 4 * amounts.length + keyBytes;
+    }
+
+    /**
+     * Getter method for the amount of water in each bucket
+     *
+     * @return Copy of the amounts, in the order of the buckets
+     */
+    public int[] getAmounts() {
+        return amounts.clone();
+    }
+
     /**
      * Checks if the current configuration is equal to the other
-     * configuration by comparing all attributes
+     * configuration by comparing the amounts in each bucket; The contexts
+     * are only compared attribute by attribute when they are not the same
+     * object
      *
      * @param other Other configuration we are using to compare
      * @return Boolean representing if both configurations are equal
@@ -103,21 +178,20 @@ public class WaterConfig implements Configuration {
     public boolean equals(Object other) {
         if (other instanceof WaterConfig) {
             WaterConfig otherConfig = (WaterConfig) other;
-            return this.DESIRED_AMOUNT == otherConfig.DESIRED_AMOUNT &&
-                    this.capacityList.equals(otherConfig.capacityList) &&
-                    this.amountList.equals(otherConfig.amountList);
+            return Arrays.equals(this.amounts, otherConfig.amounts) &&
+                    (this.context == otherConfig.context || this.context.equals(otherConfig.context));
         }
         return false;
     }
 
     /**
-     * Hashes the current configuration by hashing all of its attributes
+     * Hashes the current configuration by hashing the amount in each bucket
      *
      * @return Hash code of this configuration
      */
     @Override
     public int hashCode() {
-        return Objects.hashCode(DESIRED_AMOUNT) + capacityList.hashCode() + amountList.hashCode();
+        return Arrays.hashCode(amounts);
     }
 
     /**
@@ -128,6 +202,6 @@ public class WaterConfig implements Configuration {
      */
     @Override
     public String toString() {
-        return amountList.toString();
+        return Arrays.toString(amounts);
     }
-}
\ No newline at end of file
+}
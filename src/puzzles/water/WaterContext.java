@@ -0,0 +1,117 @@
+package puzzles.water;
+
+import puzzles.common.PuzzleContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The constant parts of a Water puzzle, shared by every WaterConfig of it
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class WaterContext extends PuzzleContext {
+    /** The amount of water desired in a single bucket */
+    private final int DESIRED_AMOUNT;
+    /** The max amount of water possible in each bucket */
+    private final int[] capacities;
+    /** Indexes of the buckets of every group of two or more buckets with the same capacity */
+    private final int[][] sameCapacityGroups;
+
+    /**
+     * Constructor for the Water context
+     *
+     * @param DESIRED_AMOUNT Desired amount in a single bucket
+     * @param capacityList List of max water possible for each bucket
+     */
+    public WaterContext(int DESIRED_AMOUNT, List<Integer> capacityList) {
+        this.DESIRED_AMOUNT = DESIRED_AMOUNT;
+        this.capacities = new int[capacityList.size()];
+        for (int i = 0; i < capacities.length; i++) {
+            capacities[i] = capacityList.get(i);
+        }
+
+        List<int[]> groups = new ArrayList<>();
+        boolean[] grouped = new boolean[capacities.length];
+        for (int first = 0; first < capacities.length; first++) {
+            if (grouped[first]) {
+                continue;
+            }
+            List<Integer> group = new ArrayList<>();
+            for (int bucket = first; bucket < capacities.length; bucket++) {
+                if (capacities[bucket] == capacities[first]) {
+                    grouped[bucket] = true;
+                    group.add(bucket);
+                }
+            }
+            if (group.size() > 1) {
+                groups.add(group.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+        this.sameCapacityGroups = groups.toArray(new int[0][]);
+    }
+
+    /**
+     * Getter method for the desired amount
+     *
+     * @return Desired amount in a single bucket
+     */
+    public int getDesiredAmount() {
+        return DESIRED_AMOUNT;
+    }
+
+    /**
+     * Getter method for the number of buckets
+     *
+     * @return Number of buckets
+     */
+    public int getBuckets() {
+        return capacities.length;
+    }
+
+    /**
+     * Getter method for the capacity of a bucket
+     *
+     * @param bucket Index of the bucket
+     * @return Max amount of water possible in the bucket
+     */
+    public int getCapacity(int bucket) {
+        return capacities[bucket];
+    }
+
+    /**
+     * Getter method for the groups of buckets with the same capacity
+     *
+     * @return Indexes of the buckets of every group of two or more
+     * buckets with the same capacity, in order
+     */
+    public int[][] getSameCapacityGroups() {
+        return sameCapacityGroups;
+    }
+
+    /**
+     * Checks if both contexts describe the same puzzle
+     *
+     * @param other Other context we are using to compare
+     * @return True if every attribute is the same
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof WaterContext otherContext) {
+            return this.DESIRED_AMOUNT == otherContext.DESIRED_AMOUNT &&
+                    Arrays.equals(this.capacities, otherContext.capacities);
+        }
+        return false;
+    }
+
+    /**
+     * Hashes every attribute of the context
+     *
+     * @return Hash code of this context
+     */
+    @Override
+    public int hashCode() {
+        return DESIRED_AMOUNT + Arrays.hashCode(capacities);
+    }
+}
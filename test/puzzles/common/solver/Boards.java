@@ -0,0 +1,78 @@
+package puzzles.common.solver;
+
+import puzzles.common.Coordinates;
+import puzzles.tilt.model.TiltConfig;
+import puzzles.tipover.model.TipOverConfig;
+
+/**
+ * Boards shared by the solver tests, built inline since the tests do not
+ * read the data files
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public final class Boards {
+    /**
+     * Not constructed; Only holds the boards
+     */
+    private Boards() {
+    }
+
+    /**
+     * Builds a Tilt configuration from rows of space separated cells
+     *
+     * @param rows The rows of the board
+     * @return The configuration
+     */
+    public static TiltConfig tilt(String... rows) {
+        String[][] board = new String[rows.length][];
+        for (int row = 0; row < rows.length; row++) {
+            board[row] = rows[row].split(" ");
+        }
+        return new TiltConfig(board);
+    }
+
+    /**
+     * Tilt boards with blocks, blue sliders, and several green sliders,
+     * which take a few moves each
+     *
+     * @return New configurations of the boards
+     */
+    public static TiltConfig[] tiltBoards() {
+        return new TiltConfig[]{
+                tilt("G . . .", ". * . .", ". . O .", "B . . G"),
+                tilt("G . G B", ". . * .", "O . . .", ". G . B"),
+                tilt("G . G", ". O .", ". B G"),
+                tilt(". G . . G", "B * . O .", ". . . . G", ". . . . .", "G . * . .")
+        };
+    }
+
+    /**
+     * Builds a Tip Over configuration with the tipper on its start
+     *
+     * @param start The start of the tipper
+     * @param goal The goal crate
+     * @param board The height of the tower on each cell
+     * @return The configuration
+     */
+    public static TipOverConfig tipOver(Coordinates start, Coordinates goal, int[][] board) {
+        return new TipOverConfig(start, goal, board, start);
+    }
+
+    /**
+     * A Tip Over board where the tipper has to tip two towers to bridge
+     * the gap to the goal, in 8 moves
+     *
+     * @return The start configuration
+     */
+    public static TipOverConfig tipOverBridge() {
+        int[][] board = {
+                {0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 4, 4},
+                {1, 1, 0, 0, 0, 0},
+                {4, 0, 0, 0, 0, 0},
+                {0, 0, 0, 4, 0, 0},
+                {0, 3, 0, 0, 2, 0}
+        };
+        return tipOver(new Coordinates(1, 5), new Coordinates(3, 1), board);
+    }
+}
@@ -0,0 +1,109 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * A configuration that is a node of a small directed graph, so the tests
+ * can build exactly the search spaces they need. The node's moves go to
+ * the nodes listed after it, in order, and the goals are the nodes whose
+ * names start with "G".
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class GraphConfig implements Configuration {
+    /** The moves from each node, in order */
+    private final Map<String, List<String>> edges;
+    /** Name of the node */
+    private final String name;
+
+    /**
+     * Constructor for a node of a graph
+     *
+     * @param edges The moves from each node
+     * @param name Name of the node
+     */
+    private GraphConfig(Map<String, List<String>> edges, String name) {
+        this.edges = edges;
+        this.name = name;
+    }
+
+    /**
+     * Builds a graph from its edges and gives its start node
+     *
+     * @param start Name of the start node
+     * @param edges Each node followed by the nodes it moves to, as "A B C"
+     * @return The start node
+     */
+    public static GraphConfig of(String start, String... edges) {
+        Map<String, List<String>> graph = new HashMap<>();
+        for (String edge : edges) {
+            String[] nodes = edge.split(" ");
+            graph.put(nodes[0], List.of(nodes).subList(1, nodes.length));
+        }
+        return new GraphConfig(graph, start);
+    }
+
+    /**
+     * Checks if the node is a goal
+     *
+     * @return True if its name starts with "G"
+     */
+    @Override
+    public boolean isSolution() {
+        return name.startsWith("G");
+    }
+
+    /**
+     * Gets the nodes this one moves to
+     *
+     * @return The neighbors, in the order of the edges
+     */
+    @Override
+    public Collection<Configuration> getNeighbors() {
+        List<Configuration> neighbors = new ArrayList<>();
+        for (String next : edges.getOrDefault(name, List.of())) {
+            neighbors.add(new GraphConfig(edges, next));
+        }
+        return neighbors;
+    }
+
+    /**
+     * Getter method for the name of the node
+     *
+     * @return Name of the node
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Nodes are equal if they have the same name
+     *
+     * @param other The other object
+     * @return True if it is a node with the same name
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof GraphConfig node && node.name.equals(name);
+    }
+
+    /**
+     * Hashes the name of the node
+     *
+     * @return Hash code of the name
+     */
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    /**
+     * Gets the name of the node
+     *
+     * @return Name of the node
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
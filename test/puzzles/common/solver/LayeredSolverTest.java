@@ -0,0 +1,71 @@
+package puzzles.common.solver;
+
+import org.junit.jupiter.api.Test;
+import puzzles.tilt.model.TiltConfig;
+import puzzles.tipover.model.TipOverConfig;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static puzzles.common.solver.Boards.*;
+import static puzzles.common.solver.PathAssertions.*;
+
+/**
+ * Tests for the layered solver, on Tilt boards, whose progress is the
+ * number of green sliders gone, and Tip Over boards, whose progress is
+ * the number of towers tipped
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class LayeredSolverTest {
+    /**
+     * Two anchors of a level at the same distance, where expanding the
+     * first reaches the second one move later, must both keep their own
+     * distance
+     */
+    @Test
+    public void tiedAnchorsKeepTheirDistance() {
+        TiltConfig start = tilt("G B .", ". O .", "G O G");
+        SolveOutcome outcome = new LayeredSolver().trySolve(start);
+        assertEquals(SolveStatus.SOLVED, outcome.getStatus());
+        assertEquals(3, outcome.getPath().size() - 1);
+        assertShortestPath(start, outcome.getPath());
+
+        start = tilt("G G *", ". O *", "* G .");
+        assertShortestPath(start, new LayeredSolver().trySolve(start).getPath());
+    }
+
+    /**
+     * The paths are as short as the breadth-first search's on boards
+     * with several levels
+     */
+    @Test
+    public void matchesBreadthFirstSearch() {
+        for (TiltConfig start : tiltBoards()) {
+            assertShortestPath(start, new LayeredSolver().trySolve(start).getPath());
+        }
+    }
+
+    /**
+     * The paths are as short as the breadth-first search's on Tip Over
+     * boards, where every tip starts a new level
+     */
+    @Test
+    public void matchesBreadthFirstSearchOnTipOver() {
+        TipOverConfig start = tipOverBridge();
+        SolveOutcome outcome = new LayeredSolver().trySolve(start);
+        assertEquals(8, outcome.getPath().size() - 1);
+        assertShortestPath(start, outcome.getPath());
+    }
+
+    /**
+     * The peak level size is reported, and no larger than every
+     * configuration the search created
+     */
+    @Test
+    public void reportsPeakLevelSize() {
+        TiltConfig start = tilt("G . G", ". O .", ". B G");
+        LayeredSolver solver = new LayeredSolver();
+        solver.trySolve(start);
+        assertTrue(solver.getPeakLevelSize() > 0);
+        assertTrue(solver.getPeakLevelSize() <= solver.getUniqueConfigCount());
+    }
+}
@@ -0,0 +1,50 @@
+package puzzles.common.solver;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks shared by the solver tests: a path has to start at the start
+ * configuration, take one legal move at a time, and end at a solution.
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public final class PathAssertions {
+    /**
+     * Not constructed; Only holds the checks
+     */
+    private PathAssertions() {
+    }
+
+    /**
+     * Asserts that a path is a legal solution of the start configuration
+     *
+     * @param start The start configuration
+     * @param path The path to check
+     */
+    public static void assertValidPath(Configuration start, List<Configuration> path) {
+        assertNotNull(path, "no path");
+        assertEquals(start.getKey(), path.get(0).getKey(), "path does not begin at the start");
+        for (int i = 1; i < path.size(); i++) {
+            Object key = path.get(i).getKey();
+            assertTrue(path.get(i - 1).getNeighbors().stream().anyMatch(n -> n.getKey().equals(key)),
+                    "step " + i + " is not a move from step " + (i - 1));
+        }
+        assertTrue(path.get(path.size() - 1).isSolution(), "path does not end at a solution");
+    }
+
+    /**
+     * Asserts that a path is a legal solution with as few moves as the
+     * breadth-first search of Solver finds
+     *
+     * @param start The start configuration
+     * @param path The path to check
+     */
+    public static void assertShortestPath(Configuration start, List<Configuration> path) {
+        assertValidPath(start, path);
+        List<Configuration> shortest = new Solver().trySolve(start).getPath();
+        assertNotNull(shortest, "Solver found no path");
+        assertEquals(shortest.size() - 1, path.size() - 1, "path is not a shortest one");
+    }
+}
@@ -0,0 +1,143 @@
+package puzzles.common.solver;
+
+import org.junit.jupiter.api.Test;
+import puzzles.tilt.model.TiltConfig;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static puzzles.common.solver.Boards.*;
+import static puzzles.common.solver.PathAssertions.*;
+
+/**
+ * Tests for the portfolio solver: the winner is reported, its path is a
+ * shortest one, and the engines that lose are cancelled without leaving
+ * their threads behind
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class PortfolioSolverTest {
+    /** Longest time to wait for the engine threads to end */
+    private static final long THREAD_WAIT_MILLIS = 5000;
+
+    /**
+     * Counts the portfolio threads that are still alive
+     *
+     * @return Number of live engine threads
+     */
+    private static long engineThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().equals("portfolio-engine"))
+                .count();
+    }
+
+    /**
+     * Waits for every engine thread to end
+     *
+     * @return True if they all ended in time
+     * @throws InterruptedException if the test is interrupted
+     */
+    private static boolean engineThreadsEnd() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + THREAD_WAIT_MILLIS;
+        while (engineThreads() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * The standard portfolio reports a winner whose path is a shortest one
+     */
+    @Test
+    public void winnerPathIsShortest() {
+        for (TiltConfig start : tiltBoards()) {
+            PortfolioSolver portfolio = PortfolioSolver.standard(3, false);
+            SolveOutcome outcome = portfolio.trySolve(start);
+            assertEquals(SolveStatus.SOLVED, outcome.getStatus());
+            assertNotNull(portfolio.getWinner());
+            assertShortestPath(start, outcome.getPath());
+        }
+    }
+
+    /**
+     * An unsolvable answer wins right away, since no engine calls a
+     * puzzle unsolvable before it has seen every reachable configuration
+     */
+    @Test
+    public void unsolvableAnswerWins() {
+        TiltConfig start = tilt("G * O", "* . .", ". . B");
+        PortfolioSolver portfolio = PortfolioSolver.standard(3, false);
+        SolveOutcome outcome = portfolio.trySolve(start);
+        assertEquals(SolveStatus.UNSOLVABLE, outcome.getStatus());
+        assertNotNull(portfolio.getWinner());
+    }
+
+    /**
+     * With any solution accepted, the first solved outcome wins, and its
+     * path is still a legal one
+     */
+    @Test
+    public void acceptAnyReturnsValidPath() {
+        for (TiltConfig start : tiltBoards()) {
+            PortfolioSolver portfolio = PortfolioSolver.standard(3, true);
+            SolveOutcome outcome = portfolio.trySolve(start);
+            assertEquals(SolveStatus.SOLVED, outcome.getStatus());
+            assertValidPath(start, outcome.getPath());
+        }
+    }
+
+    /**
+     * The engines of the standard portfolio run at the same time, so
+     * together they keep within the default memory budget
+     */
+    @Test
+    public void enginesShareTheMemoryBudget() {
+        long total = PortfolioSolver.standard(3, false).getMemoryBudget();
+        assertTrue(total > 0, "the engines have no budget");
+        assertTrue(total <= Solver.defaultMemoryBudget(),
+                "the engines may keep " + total + " bytes, more than " + Solver.defaultMemoryBudget());
+    }
+
+    /**
+     * An engine that would search forever is cancelled once another one
+     * wins, and its thread ends
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void cancelledLoserDoesNotLeakThreads() throws InterruptedException {
+        assertTrue(engineThreadsEnd(), "threads left over from another test");
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        SearchEngine endless = SearchEngine.of("endless", true, (start, limits) -> {
+            started.countDown();
+            while (limits.stopReason(0) == null) {
+                Thread.onSpinWait();
+            }
+            cancelled.set(true);
+            return new SolveOutcome(SolveStatus.CANCELLED, null, SolveLimits.CANCELLED, 0, 0, 0, 0, "endless");
+        });
+        SearchEngine bfs = SearchEngine.of("breadth-first search", true, (start, limits) -> {
+            try {
+                // Wins only once the endless engine is running, so it has to be cancelled
+                started.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Solver().trySolve(start, limits);
+        });
+        GraphConfig start = GraphConfig.of("S", "S A B", "A G1", "B C", "C G2");
+        PortfolioSolver portfolio = new PortfolioSolver(List.of(() -> endless, () -> bfs), 2, false);
+
+        SolveOutcome outcome = portfolio.trySolve(start);
+        assertEquals("breadth-first search", portfolio.getWinner());
+        assertShortestPath(start, outcome.getPath());
+        assertTrue(engineThreadsEnd(), "an engine thread is still running");
+        assertTrue(cancelled.get(), "the losing engine was not cancelled");
+    }
+}
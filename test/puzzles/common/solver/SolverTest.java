@@ -0,0 +1,155 @@
+package puzzles.common.solver;
+
+import org.junit.jupiter.api.Test;
+import puzzles.water.WaterConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static puzzles.common.solver.PathAssertions.*;
+
+/**
+ * Tests for the breadth-first solver, its iterative-deepening fallback,
+ * and the search for every goal at once
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class SolverTest {
+    /**
+     * A graph with a goal two moves away, and a second goal three moves
+     * away behind the node that is queued first
+     *
+     * @return The start node
+     */
+    private static GraphConfig twoGoals() {
+        return GraphConfig.of("S", "S A", "A B G1", "B G2");
+    }
+
+    /**
+     * Without a budget the breadth-first search finds the nearer goal
+     */
+    @Test
+    public void findsNearestGoal() {
+        SolveOutcome outcome = new Solver().trySolve(twoGoals());
+        assertEquals(SolveStatus.SOLVED, outcome.getStatus());
+        assertEquals(List.of("S", "A", "G1"), outcome.getPath().stream().map(Object::toString).toList());
+    }
+
+    /**
+     * When the budget runs out in the middle of a layer, the fallback
+     * starts at the depth below that layer, so the path is still a
+     * shortest one
+     */
+    @Test
+    public void fallbackKeepsShortestPath() {
+        GraphConfig start = twoGoals();
+        Solver solver = new Solver();
+        solver.setMemoryBudget(300);
+        SolveOutcome outcome = solver.trySolve(start);
+        assertEquals(SolveStatus.SOLVED, outcome.getStatus());
+        assertNotEquals("breadth-first search", outcome.getStrategy(), "the budget did not run out");
+        assertEquals(List.of("S", "A", "G1"), outcome.getPath().stream().map(Object::toString).toList());
+        assertShortestPath(start, outcome.getPath());
+    }
+
+    /**
+     * The fallback finds paths as short as the unbounded search on a
+     * deeper graph, whatever layer the budget runs out in
+     */
+    @Test
+    public void fallbackMatchesUnboundedSearch() {
+        GraphConfig start = GraphConfig.of("S", "S A B C", "A D E", "B E F", "C F G9",
+                "D H", "E H I", "F I G1", "H G2", "I G3");
+        int moves = new Solver().trySolve(start).getPath().size() - 1;
+        for (long budget = 150; budget <= 1200; budget += 50) {
+            Solver solver = new Solver();
+            solver.setMemoryBudget(budget);
+            SolveOutcome outcome = solver.trySolve(start);
+            assertEquals(SolveStatus.SOLVED, outcome.getStatus(), "budget " + budget);
+            assertEquals(moves, outcome.getPath().size() - 1, "budget " + budget);
+            assertValidPath(start, outcome.getPath());
+        }
+    }
+
+    /**
+     * Asserts that a path of the search for every goal is a legal path
+     * from the start that ends at a configuration reaching the goal
+     *
+     * @param start The start configuration
+     * @param path The path to check
+     * @param classifier Gives the goals each configuration reaches
+     * @param goal The goal the path is for
+     * @param <K> Type of the goals
+     */
+    private static <K> void assertGoalPath(Configuration start, List<Configuration> path,
+                                           GoalClassifier<K> classifier, K goal) {
+        assertValidPath(start, path);
+        assertTrue(classifier.classify(path.get(path.size() - 1)).contains(goal),
+                "path does not end at " + goal);
+    }
+
+    /**
+     * Every goal of the graph gets its own shortest path, including the
+     * one behind the nearer goal, and a goal that cannot be reached gets
+     * none
+     */
+    @Test
+    public void solveAllFindsEveryGoal() {
+        GraphConfig start = twoGoals();
+        GoalClassifier<String> classifier = GoalClassifier.of(c -> c.isSolution() ? c.toString() : null);
+        SolveAllResult<String> result = new Solver().solveAll(start, classifier);
+        assertTrue(result.isComplete());
+        assertEquals(Set.of("G1", "G2"), result.getGoals());
+
+        assertEquals(new Solver().solve(start).size() - 1, result.getMoves("G1"));
+        assertEquals(List.of("S", "A", "G1"), result.getPath("G1").stream().map(Object::toString).toList());
+        assertEquals(3, result.getMoves("G2"));
+        assertEquals(List.of("S", "A", "B", "G2"), result.getPath("G2").stream().map(Object::toString).toList());
+        for (String goal : result.getGoals()) {
+            assertEquals(result.getMoves(goal), result.getPath(goal).size() - 1);
+            assertGoalPath(start, result.getPath(goal), classifier, goal);
+        }
+
+        assertFalse(result.isReached("G3"));
+        assertEquals(-1, result.getMoves("G3"));
+        assertNull(result.getPath("G3"));
+    }
+
+    /**
+     * Every amount collected in a single bucket takes as many moves as
+     * solving the puzzle for that amount alone, on bucket sets with and
+     * without repeated capacities; The search for every amount starts at
+     * the puzzle for one amount, so its path to that amount is a solution
+     */
+    @Test
+    public void solveAllMatchesSolvePerAmount() {
+        List<List<Integer>> bucketSets = List.of(List.of(3, 5), List.of(3, 5, 5), List.of(2, 2, 7), List.of(4, 6, 9));
+        GoalClassifier<Integer> classifier = c -> {
+            List<Integer> amounts = new ArrayList<>();
+            for (int amount : ((WaterConfig) c).getAmounts()) {
+                amounts.add(amount);
+            }
+            return amounts;
+        };
+        for (List<Integer> capacities : bucketSets) {
+            List<Integer> empty = Collections.nCopies(capacities.size(), 0);
+            for (int amount = 1; amount <= Collections.max(capacities); amount++) {
+                WaterConfig start = new WaterConfig(amount, capacities, empty);
+                SolveAllResult<Integer> result = new Solver().solveAll(start, classifier);
+                assertTrue(result.isComplete());
+                Collection<Configuration> path = new Solver().solve(start);
+                if (path == null) {
+                    assertFalse(result.isReached(amount), capacities + " amount " + amount);
+                    continue;
+                }
+                assertEquals(path.size() - 1, result.getMoves(amount), capacities + " amount " + amount);
+                assertEquals(path.size(), result.getPath(amount).size(), capacities + " amount " + amount);
+                assertGoalPath(start, result.getPath(amount), classifier, amount);
+            }
+        }
+    }
+}
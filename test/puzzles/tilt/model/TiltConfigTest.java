@@ -0,0 +1,56 @@
+package puzzles.tilt.model;
+
+import org.junit.jupiter.api.Test;
+import puzzles.common.solver.IterativeDeepeningSolver;
+import puzzles.common.solver.SolveOutcome;
+import puzzles.common.solver.SolveStatus;
+import puzzles.common.solver.Solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static puzzles.common.solver.Boards.*;
+
+/**
+ * Tests for the dead ends of Tilt, which the pattern database proves
+ * when a green slider can never leave the board.
+ *
+ * @author Boya Li
+ */
+public class TiltConfigTest {
+    /**
+     * A green slider walled off from the hole has an unreachable pattern
+     * estimate, so the board is a dead end.
+     */
+    @Test
+    public void unreachablePatternIsDeadEnd() {
+        TiltConfig start = tilt("G * O", "* . .", ". G B");
+        assertEquals(TiltPatternDatabase.UNREACHABLE, start.estimate());
+        assertTrue(start.isDeadEnd());
+    }
+
+    /**
+     * The searches give up on a dead end right away instead of expanding
+     * it.
+     */
+    @Test
+    public void searchesStopAtDeadEnd() {
+        TiltConfig start = tilt("G * O", "* . .", ". G B");
+        SolveOutcome outcome = new Solver().trySolve(start);
+        assertEquals(SolveStatus.UNSOLVABLE, outcome.getStatus());
+        assertEquals(0, outcome.getExpandedCount());
+
+        outcome = new IterativeDeepeningSolver().trySolve(start);
+        assertEquals(SolveStatus.UNSOLVABLE, outcome.getStatus());
+    }
+
+    /**
+     * A board every green slider can leave is not a dead end, and its
+     * estimate is an ordinary number of tilts.
+     */
+    @Test
+    public void solvableBoardIsNotDeadEnd() {
+        for(TiltConfig start : tiltBoards()) {
+            assertTrue(start.estimate() < TiltPatternDatabase.UNREACHABLE);
+            assertFalse(start.isDeadEnd());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package puzzles.tilt.solver;
+
+import org.junit.jupiter.api.Test;
+import puzzles.common.solver.SolveOutcome;
+import puzzles.common.solver.SolveStatus;
+import puzzles.tilt.model.TiltConfig;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static puzzles.common.solver.Boards.*;
+import static puzzles.common.solver.PathAssertions.*;
+
+/**
+ * Tests for the ranked solver, whose paths are rebuilt from the queue of
+ * ranks and the move codes, and must be valid tilts as short as the
+ * breadth-first search's.
+ *
+ * @author Boya Li
+ */
+public class TiltRankedSolverTest {
+    /**
+     * The paths are as short as the breadth-first search's on boards with
+     * blockers and several sliders.
+     */
+    @Test
+    public void matchesBreadthFirstSearch() {
+        for(TiltConfig start : tiltBoards()) {
+            SolveOutcome outcome = new TiltRankedSolver().trySolve(start);
+            assertEquals(SolveStatus.SOLVED, outcome.getStatus());
+            assertShortestPath(start, outcome.getPath());
+        }
+    }
+
+    /**
+     * A board whose shortest path has dozens of layers and whose ranks
+     * fill several words of the bitmaps, so the queue, the layer starts
+     * and the move codes all have to grow, and the path is rebuilt
+     * through every layer.
+     */
+    @Test
+    public void rebuildsLongPaths() {
+        TiltConfig start = tilt("B B . . O", ". . . * *", "G . . * .", "G B B G *", ". G B . G");
+        SolveOutcome outcome = new TiltRankedSolver().trySolve(start);
+        assertEquals(SolveStatus.SOLVED, outcome.getStatus());
+        assertEquals(47, outcome.getPath().size() - 1);
+        assertTrue(outcome.getUniqueConfigCount() > 64);
+        assertShortestPath(start, outcome.getPath());
+    }
+
+    /**
+     * A board with more ranks than the bitmaps may cover is given up
+     * before any bitmap is made.
+     */
+    @Test
+    public void givesUpOnTooManyStates() {
+        String[] rows = new String[16];
+        for(int row = 0; row < rows.length; row++) {
+            StringBuilder cells = new StringBuilder();
+            for(int col = 0; col < rows.length; col++) {
+                cells.append(col == 0 ? "" : " ").append(row == 0 && col == 1 ? "O" : "GB.".charAt((row + col) % 3));
+            }
+            rows[row] = cells.toString();
+        }
+        SolveOutcome outcome = new TiltRankedSolver().trySolve(tilt(rows));
+        assertEquals(SolveStatus.BUDGET_EXCEEDED, outcome.getStatus());
+        assertEquals(TiltRankedSolver.TOO_MANY_STATES, outcome.getReason());
+    }
+
+    /**
+     * A board already solved has a path of only the start.
+     */
+    @Test
+    public void solvedStartHasNoMoves() {
+        TiltConfig start = tilt("* . .", ". O .", ". . B");
+        SolveOutcome outcome = new TiltRankedSolver().trySolve(start);
+        assertEquals(SolveStatus.SOLVED, outcome.getStatus());
+        assertEquals(1, outcome.getPath().size());
+    }
+}
@@ -0,0 +1,68 @@
+package puzzles.tipover.solver;
+
+import org.junit.jupiter.api.Test;
+import puzzles.common.Coordinates;
+import puzzles.common.solver.SolveOutcome;
+import puzzles.common.solver.SolveStatus;
+import puzzles.tipover.model.TipOverConfig;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static puzzles.common.solver.Boards.*;
+import static puzzles.common.solver.PathAssertions.*;
+
+/**
+ * Tests for the tip level solver, whose paths must be valid moves and as
+ * short as the breadth-first search's
+ *
+ * @author Ricky Leung
+ */
+public class TipLevelSolverTest {
+    /**
+     * A board where the tipper has to tip two towers to bridge the gap
+     */
+    @Test
+    public void matchesBreadthFirstSearch() {
+        TipOverConfig start = tipOverBridge();
+        SolveOutcome outcome = new TipLevelSolver().trySolve(start);
+        assertEquals(SolveStatus.SOLVED, outcome.getStatus());
+        assertEquals(8, outcome.getPath().size() - 1);
+        assertShortestPath(start, outcome.getPath());
+    }
+
+    /**
+     * A larger board, with more towers to tip than the shortest path needs
+     */
+    @Test
+    public void matchesBreadthFirstSearchOnLargerBoard() {
+        int[][] board = {
+                {0, 0, 0, 0, 0, 0, 1, 2},
+                {0, 1, 0, 0, 0, 0, 0, 0},
+                {4, 0, 0, 0, 2, 0, 0, 0},
+                {0, 0, 0, 0, 0, 2, 0, 0},
+                {0, 0, 0, 4, 2, 0, 0, 0},
+                {0, 0, 1, 2, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 2, 0, 0},
+                {0, 0, 0, 0, 4, 0, 0, 0}
+        };
+        TipOverConfig start = tipOver(new Coordinates(2, 4), new Coordinates(4, 7), board);
+        SolveOutcome outcome = new TipLevelSolver().trySolve(start);
+        assertEquals(SolveStatus.SOLVED, outcome.getStatus());
+        assertShortestPath(start, outcome.getPath());
+    }
+
+    /**
+     * A board where the goal cannot be reached has no path
+     */
+    @Test
+    public void reportsNoSolution() {
+        int[][] board = {
+                {2, 0, 0, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, 1}
+        };
+        SolveOutcome outcome = new TipLevelSolver().trySolve(tipOver(new Coordinates(0, 0),
+                new Coordinates(2, 3), board));
+        assertEquals(SolveStatus.UNSOLVABLE, outcome.getStatus());
+        assertNull(outcome.getPath());
+    }
+}
@@ -0,0 +1,54 @@
+package puzzles.tipover.solver;
+
+import org.junit.jupiter.api.Test;
+import puzzles.common.solver.CancellationToken;
+import puzzles.common.solver.SolveLimits;
+import puzzles.common.solver.Solver;
+import puzzles.tipover.model.TipOverConfig;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static puzzles.common.solver.Boards.*;
+
+/**
+ * Tests for finding the moves to the goal from every location, which has
+ * to give up within its limits and memory budget like the Solver
+ *
+ * @author Ricky Leung
+ */
+public class TipOverDistancesTest {
+    /**
+     * The distance from the start is the length of the shortest path
+     */
+    @Test
+    public void matchesBreadthFirstSearch() {
+        TipOverConfig start = tipOverBridge();
+        TipOverDistances finder = new TipOverDistances();
+        int[][] distances = finder.compute(start);
+        assertNull(finder.getReason());
+        assertEquals(new Solver().trySolve(start).getPath().size() - 1, distances[1][5]);
+        assertEquals(TipOverDistances.UNREACHABLE, distances[0][0]);
+    }
+
+    /**
+     * The search gives up once the configurations found outgrow the budget
+     */
+    @Test
+    public void stopsAtMemoryBudget() {
+        TipOverDistances finder = new TipOverDistances();
+        finder.setMemoryBudget(1000);
+        assertNull(finder.compute(tipOverBridge()));
+        assertEquals(Solver.MEMORY_BUDGET_EXCEEDED, finder.getReason());
+    }
+
+    /**
+     * A cancelled search gives up before expanding anything
+     */
+    @Test
+    public void stopsWhenCancelled() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        TipOverDistances finder = new TipOverDistances();
+        assertNull(finder.compute(tipOverBridge(), new SolveLimits(Long.MAX_VALUE, Long.MAX_VALUE, token)));
+        assertEquals(SolveLimits.CANCELLED, finder.getReason());
+    }
+}
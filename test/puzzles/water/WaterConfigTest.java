@@ -0,0 +1,155 @@
+package puzzles.water;
+
+import org.junit.jupiter.api.Test;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solver;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Water configuration, whose key treats buckets with the
+ * same capacity as interchangeable while its paths still have to pour
+ * between the real buckets
+ *
+ * @author Ricky Leung & Boya Li
+ */
+public class WaterConfigTest {
+    /**
+     * Builds a Water configuration with every bucket empty
+     *
+     * @param desired The amount wanted in a single bucket
+     * @param capacities The capacity of each bucket
+     * @return The configuration
+     */
+    private static WaterConfig water(int desired, Integer... capacities) {
+        return water(desired, Arrays.asList(capacities), Collections.nCopies(capacities.length, 0));
+    }
+
+    /**
+     * Builds a Water configuration
+     *
+     * @param desired The amount wanted in a single bucket
+     * @param capacities The capacity of each bucket
+     * @param amounts The amount in each bucket
+     * @return The configuration
+     */
+    private static WaterConfig water(int desired, List<Integer> capacities, List<Integer> amounts) {
+        return new WaterConfig(desired, capacities, amounts);
+    }
+
+    /**
+     * Finds the fewest moves to a solution with a breadth-first search
+     * over the amounts themselves, so buckets with the same capacity are
+     * never merged
+     *
+     * @param start The start configuration
+     * @return The fewest moves, or -1 if there is no solution
+     */
+    private static int plainMoves(WaterConfig start) {
+        Map<List<Integer>, Integer> moves = new HashMap<>();
+        Queue<WaterConfig> queue = new ArrayDeque<>();
+        moves.put(amounts(start), 0);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            WaterConfig current = queue.remove();
+            int distance = moves.get(amounts(current));
+            if (current.isSolution()) {
+                return distance;
+            }
+            for (Configuration neighbor : current.getNeighbors()) {
+                if (moves.putIfAbsent(amounts((WaterConfig) neighbor), distance + 1) == null) {
+                    queue.add((WaterConfig) neighbor);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the amounts of a configuration as a list, to use as a map key
+     *
+     * @param config The configuration
+     * @return The amount in each bucket
+     */
+    private static List<Integer> amounts(WaterConfig config) {
+        List<Integer> amounts = new ArrayList<>();
+        for (int amount : config.getAmounts()) {
+            amounts.add(amount);
+        }
+        return amounts;
+    }
+
+    /**
+     * Asserts that every step of a path is a single fill, dump or pour of
+     * the real buckets of the step before it, comparing the amounts
+     * bucket by bucket rather than the keys
+     *
+     * @param start The start configuration
+     * @param path The path to check
+     */
+    private static void assertRealBuckets(WaterConfig start, List<Configuration> path) {
+        assertNotNull(path, "no path");
+        assertArrayEquals(start.getAmounts(), ((WaterConfig) path.get(0)).getAmounts());
+        for (int i = 1; i < path.size(); i++) {
+            int[] amounts = ((WaterConfig) path.get(i)).getAmounts();
+            assertTrue(path.get(i - 1).getNeighbors().stream()
+                            .anyMatch(n -> Arrays.equals(((WaterConfig) n).getAmounts(), amounts)),
+                    "step " + i + " " + path.get(i) + " is not a move from " + path.get(i - 1));
+        }
+        assertTrue(path.get(path.size() - 1).isSolution(), "path does not end at a solution");
+    }
+
+    /**
+     * Buckets with the same capacity holding swapped amounts share a key,
+     * but are still different configurations
+     */
+    @Test
+    public void sameCapacitySwapsShareKey() {
+        List<Integer> capacities = Arrays.asList(4, 6, 6, 9);
+        WaterConfig first = water(5, capacities, Arrays.asList(1, 2, 6, 3));
+        WaterConfig swapped = water(5, capacities, Arrays.asList(1, 6, 2, 3));
+        assertEquals(first.getKey(), swapped.getKey());
+        assertNotEquals(first, swapped);
+
+        WaterConfig other = water(5, capacities, Arrays.asList(3, 6, 2, 1));
+        assertNotEquals(first.getKey(), other.getKey());
+    }
+
+    /**
+     * Without repeated capacities the configuration is its own key
+     */
+    @Test
+    public void distinctCapacitiesKeepConfigAsKey() {
+        WaterConfig start = water(4, 3, 5);
+        assertSame(start, start.getKey());
+    }
+
+    /**
+     * With repeated capacities the path names real buckets and is as
+     * short as a search that never merges buckets
+     */
+    @Test
+    public void repeatedCapacitiesNameRealBuckets() {
+        WaterConfig[] starts = {
+                water(4, 3, 5, 5),
+                water(1, 2, 2, 7),
+                water(5, 4, 6, 6, 9, 9, 9),
+                water(7, 2, 2, 11, 11)
+        };
+        for (WaterConfig start : starts) {
+            List<Configuration> path = new ArrayList<>(new Solver().solve(start));
+            assertRealBuckets(start, path);
+            assertEquals(plainMoves(start), path.size() - 1, "path of " + start + " is not a shortest one");
+        }
+    }
+
+    /**
+     * An amount that no bucket can hold has no path
+     */
+    @Test
+    public void unreachableAmountHasNoPath() {
+        assertNull(new Solver().solve(water(3, 2, 4, 4)));
+    }
+}